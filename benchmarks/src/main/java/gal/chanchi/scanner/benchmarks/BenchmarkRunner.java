@@ -0,0 +1,52 @@
+/*
+Copyright (C) 2021 Santiago González Lago
+
+This program is free software: you can redistribute it and/or modify
+it under the terms of the GNU General Public License as published by
+the Free Software Foundation, either version 3 of the License, or
+(at your option) any later version.
+
+This program is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with this program.  If not, see <https://www.gnu.org/licenses/>.
+*/
+
+package gal.chanchi.scanner.benchmarks;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.openjdk.jmh.Main;
+
+/**
+ * Punto de entrada de los benchmarks
+ *
+ * Admite las mismas opciones que {@link Main}, pero si no se indica otro
+ * formato los resultados se guardan en JSON en jmh-result.json
+ *
+ * @author Santiago González Lago
+ */
+public final class BenchmarkRunner {
+
+	private BenchmarkRunner() {
+	}
+
+	public static void main(String[] args) throws Exception {
+		List<String> options = new ArrayList<>(Arrays.asList(args));
+		if (!options.contains("-rf")) {
+			options.add("-rf");
+			options.add("json");
+		}
+		if (!options.contains("-rff")) {
+			options.add("-rff");
+			options.add("jmh-result.json");
+		}
+		Main.main(options.toArray(new String[0]));
+	}
+
+}
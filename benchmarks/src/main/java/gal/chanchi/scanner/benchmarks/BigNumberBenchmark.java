@@ -0,0 +1,123 @@
+/*
+Copyright (C) 2021 Santiago González Lago
+
+This program is free software: you can redistribute it and/or modify
+it under the terms of the GNU General Public License as published by
+the Free Software Foundation, either version 3 of the License, or
+(at your option) any later version.
+
+This program is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with this program.  If not, see <https://www.gnu.org/licenses/>.
+*/
+
+package gal.chanchi.scanner.benchmarks;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.Scanner;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import gal.chanchi.scanner.Engine;
+import gal.chanchi.scanner.KeyboardScanner;
+
+/**
+ * Lectura de BigInteger y BigDecimal de distintos tamaños
+ *
+ * Todas las entradas tienen en total {@link #TOTAL_DIGITS} dígitos, de modo que
+ * el tiempo por invocación muestra cómo escala la conversión con el tamaño de
+ * cada número
+ *
+ * @author Santiago González Lago
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BigNumberBenchmark {
+	private static final int TOTAL_DIGITS = 200_000;
+
+	@Param({ "20", "1000", "20000" })
+	int digits;
+
+	private int count;
+	private byte[] integers;
+	private byte[] decimals;
+
+	@State(Scope.Benchmark)
+	public static class Engines {
+		@Param({ "FAST", "SCANNER" })
+		Engine engine;
+	}
+
+	@Setup
+	public void setup() {
+		count = TOTAL_DIGITS / digits;
+		integers = Inputs.bigIntegers(count, digits);
+		decimals = Inputs.bigDecimals(count, digits);
+	}
+
+	@Benchmark
+	public void nextBigInteger(Engines engines, Blackhole bh) {
+		KeyboardScanner ks = Inputs.keyboardScanner(integers, engines.engine);
+		for (int i = 0; i < count; i++)
+			bh.consume(ks.nextBigInteger());
+	}
+
+	@Benchmark
+	public void nextBigDecimal(Engines engines, Blackhole bh) {
+		KeyboardScanner ks = Inputs.keyboardScanner(decimals, engines.engine);
+		for (int i = 0; i < count; i++)
+			bh.consume(ks.nextBigDecimal());
+	}
+
+	@Benchmark
+	public void bufferedReaderBigInteger(Blackhole bh) throws IOException {
+		BufferedReader br = Inputs.bufferedReader(integers);
+		for (int i = 0; i < count; i++)
+			bh.consume(new BigInteger(br.readLine()));
+	}
+
+	@Benchmark
+	public void bufferedReaderBigDecimal(Blackhole bh) throws IOException {
+		BufferedReader br = Inputs.bufferedReader(decimals);
+		for (int i = 0; i < count; i++)
+			bh.consume(new BigDecimal(br.readLine()));
+	}
+
+	@Benchmark
+	public void scannerBigInteger(Blackhole bh) {
+		Scanner sc = Inputs.scanner(integers);
+		for (int i = 0; i < count; i++)
+			bh.consume(sc.nextBigInteger());
+	}
+
+	@Benchmark
+	public void scannerBigDecimal(Blackhole bh) {
+		Scanner sc = Inputs.scanner(decimals);
+		for (int i = 0; i < count; i++)
+			bh.consume(sc.nextBigDecimal());
+	}
+
+}
@@ -0,0 +1,130 @@
+/*
+Copyright (C) 2021 Santiago González Lago
+
+This program is free software: you can redistribute it and/or modify
+it under the terms of the GNU General Public License as published by
+the Free Software Foundation, either version 3 of the License, or
+(at your option) any later version.
+
+This program is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with this program.  If not, see <https://www.gnu.org/licenses/>.
+*/
+
+package gal.chanchi.scanner.benchmarks;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StreamTokenizer;
+import java.util.Scanner;
+import java.util.StringTokenizer;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import gal.chanchi.scanner.Engine;
+import gal.chanchi.scanner.KeyboardScanner;
+
+/**
+ * Lectura de decimales con distinto número de cifras, en nanosegundos por token
+ *
+ * @author Santiago González Lago
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@OperationsPerInvocation(Inputs.COUNT)
+public class DoubleBenchmark {
+	private byte[] data;
+
+	@State(Scope.Benchmark)
+	public static class Engines {
+		@Param({ "FAST", "SCANNER" })
+		Engine engine;
+	}
+
+	@Setup
+	public void setup() {
+		data = Inputs.mixedDoubles();
+	}
+
+	@Benchmark
+	public double nextFloat(Engines engines) {
+		KeyboardScanner ks = Inputs.keyboardScanner(data, engines.engine);
+		double sum = 0;
+		for (int i = 0; i < Inputs.COUNT; i++)
+			sum += ks.nextFloat();
+		return sum;
+	}
+
+	@Benchmark
+	public double nextDouble(Engines engines) {
+		KeyboardScanner ks = Inputs.keyboardScanner(data, engines.engine);
+		double sum = 0;
+		for (int i = 0; i < Inputs.COUNT; i++)
+			sum += ks.nextDouble();
+		return sum;
+	}
+
+	@Benchmark
+	public double[] nextDoubleArray(Engines engines) {
+		return Inputs.keyboardScanner(data, engines.engine).nextDoubleArray(Inputs.COUNT);
+	}
+
+	@Benchmark
+	public double doubles(Engines engines) {
+		return Inputs.keyboardScanner(data, engines.engine).doubles().sum();
+	}
+
+	@Benchmark
+	public double bufferedReaderParseDouble() throws IOException {
+		BufferedReader br = Inputs.bufferedReader(data);
+		StringTokenizer st = new StringTokenizer("");
+		double sum = 0;
+		for (int i = 0; i < Inputs.COUNT; i++) {
+			while (!st.hasMoreTokens())
+				st = new StringTokenizer(br.readLine());
+			sum += Double.parseDouble(st.nextToken());
+		}
+		return sum;
+	}
+
+	@Benchmark
+	public double streamTokenizer() throws IOException {
+		StreamTokenizer st = Inputs.streamTokenizer(data);
+		double sum = 0;
+		for (int i = 0; i < Inputs.COUNT; i++) {
+			st.nextToken();
+			sum += st.nval;
+		}
+		return sum;
+	}
+
+	@Benchmark
+	public double scanner() {
+		Scanner sc = Inputs.scanner(data);
+		double sum = 0;
+		for (int i = 0; i < Inputs.COUNT; i++)
+			sum += sc.nextDouble();
+		return sum;
+	}
+
+}
@@ -0,0 +1,164 @@
+/*
+Copyright (C) 2021 Santiago González Lago
+
+This program is free software: you can redistribute it and/or modify
+it under the terms of the GNU General Public License as published by
+the Free Software Foundation, either version 3 of the License, or
+(at your option) any later version.
+
+This program is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with this program.  If not, see <https://www.gnu.org/licenses/>.
+*/
+
+package gal.chanchi.scanner.benchmarks;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.InputStreamReader;
+import java.io.StreamTokenizer;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import java.util.Random;
+import java.util.Scanner;
+import java.util.function.Supplier;
+
+import gal.chanchi.scanner.Engine;
+import gal.chanchi.scanner.InputSource;
+import gal.chanchi.scanner.KeyboardScanner;
+
+/**
+ * Generación de las entradas de los benchmarks y construcción de los lectores
+ * que se comparan
+ *
+ * Las entradas se generan con una semilla fija para que los resultados de
+ * distintas ejecuciones sean comparables
+ *
+ * @author Santiago González Lago
+ */
+final class Inputs {
+	/**
+	 * Número de tokens de las entradas numéricas
+	 */
+	static final int COUNT = 100_000;
+	/**
+	 * Número de tokens por línea de las entradas numéricas
+	 */
+	static final int TOKENS_PER_LINE = 10;
+	private static final long SEED = 0x5CA77E12L;
+
+	private Inputs() {
+	}
+
+	/**
+	 * Enteros entre -100 y 100, que caben en cualquier tipo entero
+	 */
+	static byte[] smallInts() {
+		Random random = new Random(SEED);
+		return tokens(() -> Integer.toString(random.nextInt(201) - 100));
+	}
+
+	/**
+	 * Longs aleatorios, la mayoría de 18 o 19 dígitos
+	 */
+	static byte[] largeLongs() {
+		Random random = new Random(SEED);
+		return tokens(() -> Long.toString(random.nextLong()));
+	}
+
+	/**
+	 * Decimales sin exponente, con hasta 7 cifras enteras y entre 0 y 15
+	 * decimales
+	 */
+	static byte[] mixedDoubles() {
+		Random random = new Random(SEED);
+		return tokens(() -> BigDecimal.valueOf((random.nextDouble() - 0.5) * 2e6)
+				.setScale(random.nextInt(16), RoundingMode.HALF_EVEN).toPlainString());
+	}
+
+	/**
+	 * Enteros positivos de exactamente el número de dígitos indicado, uno por
+	 * línea
+	 *
+	 * @param count  El número de enteros
+	 * @param digits El número de dígitos de cada entero
+	 */
+	static byte[] bigIntegers(int count, int digits) {
+		Random random = new Random(SEED);
+		byte[] data = new byte[count * (digits + 1)];
+		int i = 0;
+		for (int n = 0; n < count; n++) {
+			data[i++] = (byte) ('1' + random.nextInt(9));
+			for (int j = 1; j < digits; j++)
+				data[i++] = (byte) ('0' + random.nextInt(10));
+			data[i++] = '\n';
+		}
+		return data;
+	}
+
+	/**
+	 * Igual que {@link #bigIntegers(int, int)}, pero con el punto decimal en
+	 * medio de cada número
+	 */
+	static byte[] bigDecimals(int count, int digits) {
+		byte[] data = bigIntegers(count, digits);
+		for (int n = 0; n < count; n++)
+			data[n * (digits + 1) + digits / 2] = '.';
+		return data;
+	}
+
+	/**
+	 * Líneas de letras minúsculas y espacios
+	 *
+	 * @param count  El número de líneas
+	 * @param length La longitud de cada línea
+	 */
+	static byte[] lines(int count, int length) {
+		Random random = new Random(SEED);
+		byte[] data = new byte[count * (length + 1)];
+		int i = 0;
+		for (int n = 0; n < count; n++) {
+			for (int j = 0; j < length; j++)
+				data[i++] = (byte) (random.nextInt(8) == 0 ? ' ' : 'a' + random.nextInt(26));
+			data[i++] = '\n';
+		}
+		return data;
+	}
+
+	private static byte[] tokens(Supplier<String> token) {
+		StringBuilder sb = new StringBuilder();
+		for (int i = 1; i <= COUNT; i++) {
+			sb.append(token.get());
+			sb.append(i % TOKENS_PER_LINE == 0 ? '\n' : ' ');
+		}
+		return sb.toString().getBytes(StandardCharsets.US_ASCII);
+	}
+
+	static KeyboardScanner keyboardScanner(byte[] data, Engine engine) {
+		return new KeyboardScanner(InputSource.of(ByteBuffer.wrap(data)), 1, engine);
+	}
+
+	static Scanner scanner(byte[] data) {
+		return new Scanner(new ByteArrayInputStream(data), StandardCharsets.US_ASCII).useLocale(Locale.ENGLISH);
+	}
+
+	static BufferedReader bufferedReader(byte[] data) {
+		return new BufferedReader(new InputStreamReader(new ByteArrayInputStream(data), StandardCharsets.US_ASCII));
+	}
+
+	/**
+	 * StreamTokenizer interpreta todos los números como double, así que los longs
+	 * de más de 53 bits pierden precisión, y no admite exponentes
+	 */
+	static StreamTokenizer streamTokenizer(byte[] data) {
+		return new StreamTokenizer(bufferedReader(data));
+	}
+
+}
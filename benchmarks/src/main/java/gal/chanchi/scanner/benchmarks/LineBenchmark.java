@@ -0,0 +1,140 @@
+/*
+Copyright (C) 2021 Santiago González Lago
+
+This program is free software: you can redistribute it and/or modify
+it under the terms of the GNU General Public License as published by
+the Free Software Foundation, either version 3 of the License, or
+(at your option) any later version.
+
+This program is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with this program.  If not, see <https://www.gnu.org/licenses/>.
+*/
+
+package gal.chanchi.scanner.benchmarks;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.util.Scanner;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import gal.chanchi.scanner.Engine;
+import gal.chanchi.scanner.KeyboardScanner;
+
+/**
+ * Lectura de líneas largas y de muchas líneas cortas, en nanosegundos por línea
+ *
+ * @author Santiago González Lago
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class LineBenchmark {
+	private static final int LONG_LINES = 1_000;
+	private static final int LONG_LINE_LENGTH = 10_000;
+	private static final int SHORT_LINES = 100_000;
+	private static final int SHORT_LINE_LENGTH = 4;
+
+	private byte[] longLines;
+	private byte[] shortLines;
+
+	@State(Scope.Benchmark)
+	public static class Engines {
+		@Param({ "FAST", "SCANNER" })
+		Engine engine;
+	}
+
+	@Setup
+	public void setup() {
+		longLines = Inputs.lines(LONG_LINES, LONG_LINE_LENGTH);
+		shortLines = Inputs.lines(SHORT_LINES, SHORT_LINE_LENGTH);
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(LONG_LINES)
+	public long nextLineLong(Engines engines) {
+		return nextLine(Inputs.keyboardScanner(longLines, engines.engine), LONG_LINES);
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(SHORT_LINES)
+	public long nextLineShort(Engines engines) {
+		return nextLine(Inputs.keyboardScanner(shortLines, engines.engine), SHORT_LINES);
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(SHORT_LINES)
+	public long nextCharShort(Engines engines) {
+		KeyboardScanner ks = Inputs.keyboardScanner(shortLines, engines.engine);
+		long sum = 0;
+		for (int i = 0; i < SHORT_LINES; i++)
+			sum += ks.nextChar();
+		return sum;
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(LONG_LINES)
+	public long bufferedReaderLong() throws IOException {
+		return readLine(Inputs.bufferedReader(longLines), LONG_LINES);
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(SHORT_LINES)
+	public long bufferedReaderShort() throws IOException {
+		return readLine(Inputs.bufferedReader(shortLines), SHORT_LINES);
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(LONG_LINES)
+	public long scannerLong() {
+		return nextLine(Inputs.scanner(longLines), LONG_LINES);
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(SHORT_LINES)
+	public long scannerShort() {
+		return nextLine(Inputs.scanner(shortLines), SHORT_LINES);
+	}
+
+	private static long nextLine(KeyboardScanner ks, int lines) {
+		long length = 0;
+		for (int i = 0; i < lines; i++)
+			length += ks.nextLine().length();
+		return length;
+	}
+
+	private static long nextLine(Scanner sc, int lines) {
+		long length = 0;
+		for (int i = 0; i < lines; i++)
+			length += sc.nextLine().length();
+		return length;
+	}
+
+	private static long readLine(BufferedReader br, int lines) throws IOException {
+		long length = 0;
+		for (int i = 0; i < lines; i++)
+			length += br.readLine().length();
+		return length;
+	}
+
+}
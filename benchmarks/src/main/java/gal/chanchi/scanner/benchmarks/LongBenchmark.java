@@ -0,0 +1,121 @@
+/*
+Copyright (C) 2021 Santiago González Lago
+
+This program is free software: you can redistribute it and/or modify
+it under the terms of the GNU General Public License as published by
+the Free Software Foundation, either version 3 of the License, or
+(at your option) any later version.
+
+This program is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with this program.  If not, see <https://www.gnu.org/licenses/>.
+*/
+
+package gal.chanchi.scanner.benchmarks;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StreamTokenizer;
+import java.util.Scanner;
+import java.util.StringTokenizer;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import gal.chanchi.scanner.Engine;
+import gal.chanchi.scanner.KeyboardScanner;
+
+/**
+ * Lectura de longs de 18 o 19 dígitos, en nanosegundos por token
+ *
+ * @author Santiago González Lago
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@OperationsPerInvocation(Inputs.COUNT)
+public class LongBenchmark {
+	private byte[] data;
+
+	@State(Scope.Benchmark)
+	public static class Engines {
+		@Param({ "FAST", "SCANNER" })
+		Engine engine;
+	}
+
+	@Setup
+	public void setup() {
+		data = Inputs.largeLongs();
+	}
+
+	@Benchmark
+	public long nextLong(Engines engines) {
+		KeyboardScanner ks = Inputs.keyboardScanner(data, engines.engine);
+		long sum = 0;
+		for (int i = 0; i < Inputs.COUNT; i++)
+			sum += ks.nextLong();
+		return sum;
+	}
+
+	@Benchmark
+	public long[] nextLongArray(Engines engines) {
+		return Inputs.keyboardScanner(data, engines.engine).nextLongArray(Inputs.COUNT);
+	}
+
+	@Benchmark
+	public long longs(Engines engines) {
+		return Inputs.keyboardScanner(data, engines.engine).longs().sum();
+	}
+
+	@Benchmark
+	public long bufferedReaderParseLong() throws IOException {
+		BufferedReader br = Inputs.bufferedReader(data);
+		StringTokenizer st = new StringTokenizer("");
+		long sum = 0;
+		for (int i = 0; i < Inputs.COUNT; i++) {
+			while (!st.hasMoreTokens())
+				st = new StringTokenizer(br.readLine());
+			sum += Long.parseLong(st.nextToken());
+		}
+		return sum;
+	}
+
+	@Benchmark
+	public long streamTokenizer() throws IOException {
+		StreamTokenizer st = Inputs.streamTokenizer(data);
+		long sum = 0;
+		for (int i = 0; i < Inputs.COUNT; i++) {
+			st.nextToken();
+			sum += (long) st.nval;
+		}
+		return sum;
+	}
+
+	@Benchmark
+	public long scanner() {
+		Scanner sc = Inputs.scanner(data);
+		long sum = 0;
+		for (int i = 0; i < Inputs.COUNT; i++)
+			sum += sc.nextLong();
+		return sum;
+	}
+
+}
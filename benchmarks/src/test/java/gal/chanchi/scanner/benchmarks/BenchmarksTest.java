@@ -0,0 +1,132 @@
+/*
+Copyright (C) 2021 Santiago González Lago
+
+This program is free software: you can redistribute it and/or modify
+it under the terms of the GNU General Public License as published by
+the Free Software Foundation, either version 3 of the License, or
+(at your option) any later version.
+
+This program is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with this program.  If not, see <https://www.gnu.org/licenses/>.
+*/
+
+
+package gal.chanchi.scanner.benchmarks;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.Arrays;
+
+import org.junit.Test;
+
+import gal.chanchi.scanner.Engine;
+import gal.chanchi.scanner.KeyboardScanner;
+
+/**
+ * Comprueba que los métodos comparados en cada benchmark leen los mismos
+ * valores, de forma que sólo se mide la diferencia de velocidad
+ *
+ * @author Santiago González Lago
+ */
+public class BenchmarksTest {
+
+	@Test
+	public void intReadersAgree() throws IOException {
+		IntBenchmark benchmark = new IntBenchmark();
+		benchmark.setup();
+		long expected = benchmark.bufferedReaderParseInt();
+		assertEquals(expected, benchmark.streamTokenizer());
+		assertEquals(expected, benchmark.scanner());
+		for (Engine engine : Engine.values()) {
+			IntBenchmark.Engines engines = new IntBenchmark.Engines();
+			engines.engine = engine;
+			assertEquals(expected, benchmark.nextByte(engines));
+			assertEquals(expected, benchmark.nextShort(engines));
+			assertEquals(expected, benchmark.nextInt(engines));
+			assertEquals(expected, Arrays.stream(benchmark.nextIntArray(engines)).asLongStream().sum());
+			assertEquals(expected, benchmark.ints(engines));
+		}
+	}
+
+	@Test
+	public void longReadersAgree() throws IOException {
+		LongBenchmark benchmark = new LongBenchmark();
+		benchmark.setup();
+		// StreamTokenizer no se compara porque pierde precisión con estos longs
+		long expected = benchmark.bufferedReaderParseLong();
+		assertEquals(expected, benchmark.scanner());
+		for (Engine engine : Engine.values()) {
+			LongBenchmark.Engines engines = new LongBenchmark.Engines();
+			engines.engine = engine;
+			assertEquals(expected, benchmark.nextLong(engines));
+			assertEquals(expected, Arrays.stream(benchmark.nextLongArray(engines)).sum());
+			assertEquals(expected, benchmark.longs(engines));
+		}
+	}
+
+	@Test
+	public void doubleReadersAgree() throws IOException {
+		DoubleBenchmark benchmark = new DoubleBenchmark();
+		benchmark.setup();
+		double expected = benchmark.bufferedReaderParseDouble();
+		assertEquals(expected, benchmark.scanner(), 0);
+		for (Engine engine : Engine.values()) {
+			DoubleBenchmark.Engines engines = new DoubleBenchmark.Engines();
+			engines.engine = engine;
+			assertEquals(expected, benchmark.nextDouble(engines), 0);
+			double[] values = benchmark.nextDoubleArray(engines);
+			double sum = 0;
+			for (double value : values)
+				sum += value;
+			assertEquals(expected, sum, 0);
+			// DoubleStream.sum() compensa el error de redondeo de la suma
+			assertEquals(expected, benchmark.doubles(engines), Math.ulp(expected) * Inputs.COUNT);
+		}
+	}
+
+	@Test
+	public void lineReadersAgree() throws IOException {
+		LineBenchmark benchmark = new LineBenchmark();
+		benchmark.setup();
+		long longLines = benchmark.bufferedReaderLong();
+		long shortLines = benchmark.bufferedReaderShort();
+		assertEquals(longLines, benchmark.scannerLong());
+		assertEquals(shortLines, benchmark.scannerShort());
+		for (Engine engine : Engine.values()) {
+			LineBenchmark.Engines engines = new LineBenchmark.Engines();
+			engines.engine = engine;
+			assertEquals(longLines, benchmark.nextLineLong(engines));
+			assertEquals(shortLines, benchmark.nextLineShort(engines));
+		}
+	}
+
+	@Test
+	public void bigNumberInputsHaveTheRequestedDigits() {
+		int count = 10;
+		int digits = 1000;
+		byte[] integers = Inputs.bigIntegers(count, digits);
+		byte[] decimals = Inputs.bigDecimals(count, digits);
+		for (Engine engine : Engine.values()) {
+			KeyboardScanner ks = Inputs.keyboardScanner(integers, engine);
+			KeyboardScanner ksDecimals = Inputs.keyboardScanner(decimals, engine);
+			for (int i = 0; i < count; i++) {
+				BigInteger integer = ks.nextBigInteger();
+				assertEquals(digits, integer.toString().length());
+				BigDecimal decimal = ksDecimals.nextBigDecimal();
+				assertEquals(digits - 1, decimal.precision());
+				assertArrayEquals(integer.toString().substring(0, digits / 2).toCharArray(),
+						decimal.toPlainString().substring(0, digits / 2).toCharArray());
+			}
+		}
+	}
+
+}
@@ -0,0 +1,65 @@
+/*
+Copyright (C) 2021 Santiago González Lago
+
+This program is free software: you can redistribute it and/or modify
+it under the terms of the GNU General Public License as published by
+the Free Software Foundation, either version 3 of the License, or
+(at your option) any later version.
+
+This program is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with this program.  If not, see <https://www.gnu.org/licenses/>.
+*/
+
+
+package gal.chanchi.scanner;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Vista como CharSequence de un fragmento de un array de bytes ASCII, que se
+ * reutiliza para no crear un String por cada token
+ *
+ * @author Santiago González Lago
+ */
+final class AsciiView implements CharSequence {
+	private byte[] buf;
+	private int offset;
+	private int length;
+
+	AsciiView set(byte[] buf, int offset, int length) {
+		this.buf = buf;
+		this.offset = offset;
+		this.length = length;
+		return this;
+	}
+
+	@Override
+	public int length() {
+		return length;
+	}
+
+	@Override
+	public char charAt(int index) {
+		if (index < 0 || index >= length)
+			throw new StringIndexOutOfBoundsException(index);
+		return (char) buf[offset + index];
+	}
+
+	@Override
+	public CharSequence subSequence(int start, int end) {
+		if (start < 0 || end > length || start > end)
+			throw new StringIndexOutOfBoundsException("begin " + start + ", end " + end + ", length " + length);
+		return new String(buf, offset + start, end - start, StandardCharsets.ISO_8859_1);
+	}
+
+	@Override
+	public String toString() {
+		return new String(buf, offset, length, StandardCharsets.ISO_8859_1);
+	}
+
+}
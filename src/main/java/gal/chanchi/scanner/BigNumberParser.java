@@ -0,0 +1,97 @@
+/*
+Copyright (C) 2021 Santiago González Lago
+
+This program is free software: you can redistribute it and/or modify
+it under the terms of the GNU General Public License as published by
+the Free Software Foundation, either version 3 of the License, or
+(at your option) any later version.
+
+This program is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with this program.  If not, see <https://www.gnu.org/licenses/>.
+*/
+
+package gal.chanchi.scanner;
+
+import java.math.BigInteger;
+
+/**
+ * Conversión de secuencias de dígitos decimales ASCII a {@link BigInteger}
+ *
+ * A partir de {@link #THRESHOLD} dígitos se divide el número en dos mitades,
+ * que se convierten recursivamente y se combinan como alto * 10^k + bajo. Como
+ * {@link BigInteger#multiply(BigInteger)} utiliza Karatsuba y Toom-Cook para
+ * números grandes, el coste es subcuadrático, mientras que
+ * {@link BigInteger#BigInteger(String)} es cuadrático en el número de dígitos
+ *
+ * @author Santiago González Lago
+ */
+final class BigNumberParser {
+	/**
+	 * Número de dígitos a partir del cual se utiliza la conversión recursiva
+	 */
+	static final int THRESHOLD = 512;
+	private static final int LONG_DIGITS = 18;
+	private static final BigInteger LONG_DIGITS_POWER = BigInteger.TEN.pow(LONG_DIGITS);
+
+	private BigNumberParser() {
+	}
+
+	/**
+	 * Convierte los dígitos ASCII de buf[from, to), que no puede estar vacío
+	 *
+	 * @param buf  El buffer que contiene los dígitos
+	 * @param from La posición del primer dígito
+	 * @param to   La posición siguiente al último dígito
+	 * @return El número representado por los dígitos
+	 */
+	static BigInteger parse(byte[] buf, int from, int to) {
+		if (to - from <= THRESHOLD)
+			return parseSmall(buf, from, to);
+		return parseLarge(buf, from, to, new BigInteger[32]);
+	}
+
+	/**
+	 * @param powers Caché de las potencias 10^(LONG_DIGITS * 2^j) ya calculadas
+	 */
+	private static BigInteger parseLarge(byte[] buf, int from, int to, BigInteger[] powers) {
+		int n = to - from;
+		if (n <= THRESHOLD)
+			return parseSmall(buf, from, to);
+		int j = 0;
+		while ((long) LONG_DIGITS << (j + 1) < n)
+			j++;
+		int split = to - (LONG_DIGITS << j);
+		BigInteger high = parseLarge(buf, from, split, powers);
+		BigInteger low = parseLarge(buf, split, to, powers);
+		return high.multiply(power(powers, j)).add(low);
+	}
+
+	private static BigInteger power(BigInteger[] powers, int j) {
+		if (powers[j] == null)
+			powers[j] = j == 0 ? LONG_DIGITS_POWER : power(powers, j - 1).pow(2);
+		return powers[j];
+	}
+
+	private static BigInteger parseSmall(byte[] buf, int from, int to) {
+		int chunk = (to - from) % LONG_DIGITS;
+		if (chunk == 0)
+			chunk = LONG_DIGITS;
+		BigInteger result = BigInteger.valueOf(parseLong(buf, from, from + chunk));
+		for (int i = from + chunk; i < to; i += LONG_DIGITS)
+			result = result.multiply(LONG_DIGITS_POWER).add(BigInteger.valueOf(parseLong(buf, i, i + LONG_DIGITS)));
+		return result;
+	}
+
+	private static long parseLong(byte[] buf, int from, int to) {
+		long result = 0;
+		for (int i = from; i < to; i++)
+			result = result * 10 + (buf[i] - '0');
+		return result;
+	}
+
+}
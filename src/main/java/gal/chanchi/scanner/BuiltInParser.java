@@ -0,0 +1,36 @@
+/*
+Copyright (C) 2021 Santiago González Lago
+
+This program is free software: you can redistribute it and/or modify
+it under the terms of the GNU General Public License as published by
+the Free Software Foundation, either version 3 of the License, or
+(at your option) any later version.
+
+This program is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with this program.  If not, see <https://www.gnu.org/licenses/>.
+*/
+
+
+package gal.chanchi.scanner;
+
+/**
+ * Parsers de los tipos que los motores de lectura interpretan directamente,
+ * sin pasar el token como CharSequence
+ *
+ * @author Santiago González Lago
+ */
+enum BuiltInParser implements TokenParser {
+	BYTE(TokenType.BYTE), SHORT(TokenType.SHORT), INT(TokenType.INT), LONG(TokenType.LONG), FLOAT(TokenType.FLOAT),
+	DOUBLE(TokenType.DOUBLE), BIG_INTEGER(TokenType.BIG_INTEGER), BIG_DECIMAL(TokenType.BIG_DECIMAL);
+
+	final TokenType type;
+
+	BuiltInParser(TokenType type) {
+		this.type = type;
+	}
+}
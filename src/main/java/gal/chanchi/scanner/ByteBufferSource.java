@@ -0,0 +1,59 @@
+/*
+Copyright (C) 2021 Santiago González Lago
+
+This program is free software: you can redistribute it and/or modify
+it under the terms of the GNU General Public License as published by
+the Free Software Foundation, either version 3 of the License, or
+(at your option) any later version.
+
+This program is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with this program.  If not, see <https://www.gnu.org/licenses/>.
+*/
+
+package gal.chanchi.scanner;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+
+/**
+ * Fuente que lee de un {@link ByteBuffer} directo o no
+ *
+ * Las lecturas son copias en bloque: System.arraycopy si el buffer tiene un
+ * array accesible y una copia de memoria nativa si es directo
+ *
+ * @author Santiago González Lago
+ */
+final class ByteBufferSource implements InputSource {
+	private final ByteBuffer buffer;
+	private final Charset charset;
+
+	ByteBufferSource(ByteBuffer buffer, Charset charset) {
+		this.buffer = buffer.slice();
+		this.charset = charset;
+	}
+
+	@Override
+	public int read(byte[] dst, int offset, int length) {
+		if (!buffer.hasRemaining())
+			return -1;
+		int n = Math.min(length, buffer.remaining());
+		buffer.get(dst, offset, n);
+		return n;
+	}
+
+	@Override
+	public Charset charset() {
+		return charset;
+	}
+
+	@Override
+	public void close() {
+		buffer.position(buffer.limit());
+	}
+
+}
@@ -0,0 +1,68 @@
+/*
+Copyright (C) 2021 Santiago González Lago
+
+This program is free software: you can redistribute it and/or modify
+it under the terms of the GNU General Public License as published by
+the Free Software Foundation, either version 3 of the License, or
+(at your option) any later version.
+
+This program is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with this program.  If not, see <https://www.gnu.org/licenses/>.
+*/
+
+package gal.chanchi.scanner;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.Charset;
+
+/**
+ * Fuente que lee de un {@link ReadableByteChannel} en modo bloqueante
+ *
+ * Lee directamente en el array del motor a través de un ByteBuffer que lo
+ * envuelve y que se reutiliza mientras el array no cambie
+ *
+ * @author Santiago González Lago
+ */
+final class ChannelSource implements InputSource {
+	private final ReadableByteChannel channel;
+	private final Charset charset;
+	private byte[] wrapped;
+	private ByteBuffer wrapper;
+
+	ChannelSource(ReadableByteChannel channel, Charset charset) {
+		this.channel = channel;
+		this.charset = charset;
+	}
+
+	@Override
+	public int read(byte[] buffer, int offset, int length) throws IOException {
+		if (buffer != wrapped) {
+			wrapped = buffer;
+			wrapper = ByteBuffer.wrap(buffer);
+		}
+		wrapper.limit(offset + length).position(offset);
+		int n;
+		do {
+			n = channel.read(wrapper);
+		} while (n == 0);
+		return n;
+	}
+
+	@Override
+	public Charset charset() {
+		return charset;
+	}
+
+	@Override
+	public void close() throws IOException {
+		channel.close();
+	}
+
+}
@@ -0,0 +1,79 @@
+/*
+Copyright (C) 2021 Santiago González Lago
+
+This program is free software: you can redistribute it and/or modify
+it under the terms of the GNU General Public License as published by
+the Free Software Foundation, either version 3 of the License, or
+(at your option) any later version.
+
+This program is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with this program.  If not, see <https://www.gnu.org/licenses/>.
+*/
+
+package gal.chanchi.scanner;
+
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Fuente que lee una {@link CharSequence}, codificándola en UTF-8 por bloques
+ * a medida que se lee, sin copiar el texto completo
+ *
+ * @author Santiago González Lago
+ */
+final class CharSequenceSource implements InputSource {
+	private static final int CHUNK_SIZE = 1 << 13;
+
+	private final CharBuffer text;
+	private final CharsetEncoder encoder;
+	private final ByteBuffer chunk;
+	private boolean flushed;
+
+	CharSequenceSource(CharSequence text) {
+		this.text = CharBuffer.wrap(text);
+		encoder = StandardCharsets.UTF_8.newEncoder().onMalformedInput(CodingErrorAction.REPLACE)
+				.onUnmappableCharacter(CodingErrorAction.REPLACE);
+		chunk = ByteBuffer.allocate(CHUNK_SIZE);
+		chunk.flip();
+	}
+
+	@Override
+	public int read(byte[] buffer, int offset, int length) {
+		if (!chunk.hasRemaining()) {
+			if (flushed)
+				return -1;
+			chunk.clear();
+			encoder.encode(text, chunk, true);
+			if (!text.hasRemaining() && encoder.flush(chunk).isUnderflow())
+				flushed = true;
+			chunk.flip();
+			if (!chunk.hasRemaining())
+				return -1;
+		}
+		int n = Math.min(length, chunk.remaining());
+		chunk.get(buffer, offset, n);
+		return n;
+	}
+
+	@Override
+	public Charset charset() {
+		return StandardCharsets.UTF_8;
+	}
+
+	@Override
+	public void close() {
+		text.position(text.limit());
+		chunk.position(chunk.limit());
+		flushed = true;
+	}
+
+}
@@ -0,0 +1,46 @@
+/*
+Copyright (C) 2021 Santiago González Lago
+
+This program is free software: you can redistribute it and/or modify
+it under the terms of the GNU General Public License as published by
+the Free Software Foundation, either version 3 of the License, or
+(at your option) any later version.
+
+This program is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with this program.  If not, see <https://www.gnu.org/licenses/>.
+*/
+
+
+package gal.chanchi.scanner;
+
+import java.util.function.DoubleConsumer;
+
+/**
+ * <h2>DoubleTokenParser</h2>
+ * 
+ * Parser que interpreta un token como un double, sin crear objetos
+ * 
+ * @author Santiago González Lago
+ * @version 1.0
+ * @see KeyboardScanner#nextDouble(DoubleTokenParser)
+ */
+@FunctionalInterface
+public interface DoubleTokenParser extends TokenParser {
+
+	/**
+	 * Interpreta un token
+	 * 
+	 * @param token  El token, sin espacios en blanco. Sólo es válido durante la
+	 *               llamada, por lo que no debe guardarse
+	 * @param result El destino del valor, al que hay que pasárselo si el token es
+	 *               válido
+	 * @return true si el token es válido
+	 */
+	boolean parse(CharSequence token, DoubleConsumer result);
+
+}
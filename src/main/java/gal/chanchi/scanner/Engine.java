@@ -0,0 +1,43 @@
+/*
+Copyright (C) 2021 Santiago González Lago
+
+This program is free software: you can redistribute it and/or modify
+it under the terms of the GNU General Public License as published by
+the Free Software Foundation, either version 3 of the License, or
+(at your option) any later version.
+
+This program is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with this program.  If not, see <https://www.gnu.org/licenses/>.
+*/
+
+package gal.chanchi.scanner;
+
+/**
+ * Motores de lectura disponibles para {@link KeyboardScanner}
+ *
+ * @author Santiago González Lago
+ */
+public enum Engine {
+	/**
+	 * Motor propio que trabaja directamente sobre los bytes de la entrada. Si la
+	 * codificación de la entrada no es compatible con ASCII se utiliza
+	 * {@link #SCANNER}
+	 */
+	FAST,
+	/**
+	 * Motor basado en {@link java.util.Scanner}, tal y como funcionaba
+	 * KeyboardScanner originalmente
+	 */
+	SCANNER;
+
+	SourceInputEngine open(InputSource source) {
+		if (this == FAST && FastInputEngine.supports(source.charset()))
+			return new FastInputEngine(source);
+		return new ScannerInputEngine(source);
+	}
+}
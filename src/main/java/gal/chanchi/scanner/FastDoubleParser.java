@@ -0,0 +1,169 @@
+/*
+Copyright (C) 2021 Santiago González Lago
+
+This program is free software: you can redistribute it and/or modify
+it under the terms of the GNU General Public License as published by
+the Free Software Foundation, either version 3 of the License, or
+(at your option) any later version.
+
+This program is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with this program.  If not, see <https://www.gnu.org/licenses/>.
+*/
+
+package gal.chanchi.scanner;
+
+import java.math.BigInteger;
+
+/**
+ * Conversión de números decimales a double y float con redondeo correcto
+ *
+ * El número se recibe ya descompuesto como w * 10^q, con w de hasta 19
+ * dígitos. Se utiliza el camino rápido de Clinger cuando w y 10^q son exactos
+ * y el algoritmo de Eisel-Lemire en el resto de casos. Cuando el resultado no
+ * puede determinarse con seguridad se devuelve -1 y el llamador debe recurrir a
+ * {@link Double#parseDouble(String)} o {@link Float#parseFloat(String)}
+ *
+ * @author Santiago González Lago
+ */
+final class FastDoubleParser {
+	private static final int SMALLEST_POWER_OF_TEN = -342;
+	private static final int LARGEST_POWER_OF_TEN = 308;
+	private static final long[] POWER_OF_FIVE_HIGH = new long[LARGEST_POWER_OF_TEN - SMALLEST_POWER_OF_TEN + 1];
+	private static final long[] POWER_OF_FIVE_LOW = new long[POWER_OF_FIVE_HIGH.length];
+	private static final double[] DOUBLE_POWER_OF_TEN = new double[23];
+	private static final float[] FLOAT_POWER_OF_TEN = new float[11];
+
+	static {
+		// Aproximaciones de 128 bits de 5^q, truncadas para q >= 0 y por exceso
+		// para q < 0, tal y como las necesita Eisel-Lemire
+		BigInteger five = BigInteger.valueOf(5);
+		for (int q = SMALLEST_POWER_OF_TEN; q <= LARGEST_POWER_OF_TEN; q++) {
+			BigInteger c;
+			if (q < 0) {
+				BigInteger power = five.pow(-q);
+				int z = power.bitLength();
+				int b = q >= -27 ? z + 127 : 2 * z + 128;
+				c = BigInteger.ONE.shiftLeft(b).divide(power).add(BigInteger.ONE);
+			} else {
+				c = five.pow(q).shiftLeft(128);
+			}
+			c = c.shiftRight(c.bitLength() - 128);
+			POWER_OF_FIVE_HIGH[q - SMALLEST_POWER_OF_TEN] = c.shiftRight(64).longValue();
+			POWER_OF_FIVE_LOW[q - SMALLEST_POWER_OF_TEN] = c.longValue();
+		}
+		double d = 1;
+		for (int i = 0; i < DOUBLE_POWER_OF_TEN.length; i++, d *= 10)
+			DOUBLE_POWER_OF_TEN[i] = d;
+		float f = 1;
+		for (int i = 0; i < FLOAT_POWER_OF_TEN.length; i++, f *= 10)
+			FLOAT_POWER_OF_TEN[i] = f;
+	}
+
+	private FastDoubleParser() {
+	}
+
+	/**
+	 * Obtiene los bits del double más cercano a w * 10^q
+	 *
+	 * @param w         Los primeros 19 dígitos significativos, como entero sin
+	 *                  signo
+	 * @param q         El exponente decimal
+	 * @param truncated true si había más dígitos distintos de cero tras los
+	 *                  incluidos en w
+	 * @return Los bits del double, sin signo, o -1 si no puede determinarse
+	 */
+	static long doubleBits(long w, int q, boolean truncated) {
+		if (!truncated && q >= -22 && q <= 22 && w >= 0 && w <= 1L << 53) {
+			double d = w;
+			d = q < 0 ? d / DOUBLE_POWER_OF_TEN[-q] : d * DOUBLE_POWER_OF_TEN[q];
+			return Double.doubleToRawLongBits(d);
+		}
+		long bits = eiselLemire(w, q, 52, -1023, 0x7FF, -4, 23, -342, 308);
+		if (truncated && bits != eiselLemire(w + 1, q, 52, -1023, 0x7FF, -4, 23, -342, 308))
+			return -1;
+		return bits;
+	}
+
+	/**
+	 * Obtiene los bits del float más cercano a w * 10^q
+	 *
+	 * @param w         Los primeros 19 dígitos significativos, como entero sin
+	 *                  signo
+	 * @param q         El exponente decimal
+	 * @param truncated true si había más dígitos distintos de cero tras los
+	 *                  incluidos en w
+	 * @return Los bits del float, sin signo, o -1 si no puede determinarse
+	 */
+	static int floatBits(long w, int q, boolean truncated) {
+		if (!truncated && q >= -10 && q <= 10 && w >= 0 && w <= 1L << 24) {
+			float f = w;
+			f = q < 0 ? f / FLOAT_POWER_OF_TEN[-q] : f * FLOAT_POWER_OF_TEN[q];
+			return Float.floatToRawIntBits(f);
+		}
+		long bits = eiselLemire(w, q, 23, -127, 0xFF, -17, 10, -65, 38);
+		if (truncated && bits != eiselLemire(w + 1, q, 23, -127, 0xFF, -17, 10, -65, 38))
+			return -1;
+		return (int) bits;
+	}
+
+	private static long eiselLemire(long w, int q, int mantissaBits, int minimumExponent, int infinitePower,
+			int minRoundToEven, int maxRoundToEven, int smallestPowerOfTen, int largestPowerOfTen) {
+		if (w == 0 || q < smallestPowerOfTen)
+			return 0;
+		if (q > largestPowerOfTen)
+			return (long) infinitePower << mantissaBits;
+		int lz = Long.numberOfLeadingZeros(w);
+		w <<= lz;
+		int index = q - SMALLEST_POWER_OF_TEN;
+		long high = unsignedMultiplyHigh(w, POWER_OF_FIVE_HIGH[index]);
+		long low = w * POWER_OF_FIVE_HIGH[index];
+		long precisionMask = -1L >>> (mantissaBits + 3);
+		if ((high & precisionMask) == precisionMask) {
+			long secondHigh = unsignedMultiplyHigh(w, POWER_OF_FIVE_LOW[index]);
+			low += secondHigh;
+			if (Long.compareUnsigned(secondHigh, low) > 0)
+				high++;
+		}
+		if (low == -1 && (q < -27 || q > 55))
+			return -1;
+		int upperBit = (int) (high >>> 63);
+		int shift = upperBit + 64 - mantissaBits - 3;
+		long mantissa = high >>> shift;
+		int power2 = (((152170 + 65536) * q) >> 16) + 63 + upperBit - lz - minimumExponent;
+		if (power2 <= 0) {
+			// Subnormal
+			if (-power2 + 1 >= 64)
+				return 0;
+			mantissa >>>= -power2 + 1;
+			mantissa += mantissa & 1;
+			mantissa >>>= 1;
+			power2 = mantissa < 1L << mantissaBits ? 0 : 1;
+			return (long) power2 << mantissaBits | mantissa;
+		}
+		// Se redondea hacia arriba salvo que el valor esté justo en medio y haya que
+		// redondear al par
+		if (Long.compareUnsigned(low, 1) <= 0 && q >= minRoundToEven && q <= maxRoundToEven && (mantissa & 3) == 1
+				&& mantissa << shift == high)
+			mantissa &= ~1L;
+		mantissa += mantissa & 1;
+		mantissa >>>= 1;
+		if (mantissa >= 2L << mantissaBits) {
+			mantissa = 1L << mantissaBits;
+			power2++;
+		}
+		mantissa &= ~(1L << mantissaBits);
+		if (power2 >= infinitePower)
+			return (long) infinitePower << mantissaBits;
+		return (long) power2 << mantissaBits | mantissa;
+	}
+
+	private static long unsignedMultiplyHigh(long x, long y) {
+		return Math.multiplyHigh(x, y) + (x >> 63 & y) + (y >> 63 & x);
+	}
+
+}
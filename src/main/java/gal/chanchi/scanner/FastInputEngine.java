@@ -0,0 +1,1127 @@
+/*
+Copyright (C) 2021 Santiago González Lago
+
+This program is free software: you can redistribute it and/or modify
+it under the terms of the GNU General Public License as published by
+the Free Software Foundation, either version 3 of the License, or
+(at your option) any later version.
+
+This program is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with this program.  If not, see <https://www.gnu.org/licenses/>.
+*/
+
+package gal.chanchi.scanner;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.text.DecimalFormat;
+import java.text.DecimalFormatSymbols;
+import java.text.NumberFormat;
+import java.util.Arrays;
+import java.util.InputMismatchException;
+import java.util.Locale;
+import java.util.NoSuchElementException;
+import java.util.Scanner;
+
+/**
+ * Motor de lectura que trabaja directamente sobre los bytes de la entrada
+ *
+ * Localiza los tokens y los separadores de línea sin expresiones regulares y
+ * sólo recurre a {@link Scanner} para los tokens que no siguen el formato
+ * numérico habitual (dígitos no ASCII, NaN, Infinity, hexadecimales, prefijos
+ * y sufijos propios del Locale...), de forma que el resultado es el mismo que
+ * con {@link ScannerInputEngine}.<br/>
+ * Sólo admite codificaciones compatibles con ASCII, como UTF-8 o ISO-8859-1.
+ * Los delimitadores de token son los espacios en blanco ASCII y los separadores
+ * de línea son \n, \r y \r\n.
+ *
+ * @author Santiago González Lago
+ */
+final class FastInputEngine implements SourceInputEngine {
+	private static final int BUFFER_SIZE = 1 << 16;
+	private static final int NONE = 0x100;
+	// Bytes que puede ocupar un carácter en las codificaciones admitidas
+	private static final int MAX_CHAR_BYTES = 4;
+	private static final String ASCII_PROBE;
+	private static final boolean[] WHITESPACE = new boolean[256];
+
+	static {
+		StringBuilder probe = new StringBuilder();
+		for (char c = 0; c < 128; c++) {
+			WHITESPACE[c] = Character.isWhitespace(c);
+			probe.append(c);
+		}
+		ASCII_PROBE = probe.toString();
+	}
+
+	private final InputSource in;
+	private final Charset charset;
+	private byte[] buf;
+	private int pos;
+	private int lim;
+	private boolean eof;
+	// true si una lectura con plazo ha terminado entre un \r y el posible \n
+	private boolean skipLineFeed;
+	private boolean closed;
+	private Locale locale;
+	private int decimalSeparator;
+	private int groupingSeparator;
+	// true si los prefijos, sufijos y símbolos del Locale son los habituales
+	private boolean plainLocale;
+	// Resultado de read(TokenType) y scanInteger(int, long, long)
+	private final TokenValue value = new TokenValue();
+	// Token clasificado por hasNext(TokenType), pendiente de leer
+	private TokenType peekedType;
+	private int peekedPos;
+	private int peekedLength;
+	private final TokenValue peeked = new TokenValue();
+	// Vistas reutilizables del token devuelto por token() y de la línea devuelta
+	// por nextLineView()
+	private final AsciiView tokenView = new AsciiView();
+	private final AsciiView lineView = new AsciiView();
+	private CharsetDecoder decoder;
+	private ByteBuffer bytesView;
+	// Decodificación carácter a carácter de readChar()
+	private CharsetDecoder charDecoder;
+	private CharBuffer charOut;
+	private int pendingChar = -1;
+	private byte[] viewedBuf;
+	private CharBuffer lineChars;
+	// Motivo por el que read(TokenType) ha rechazado el último token
+	private boolean outOfRange;
+	private String mismatch;
+	// Resultado de decimal(int): el número es (-1)^negative * significand * 10^exponent
+	private boolean negative;
+	private long significand;
+	private int exponent;
+	private boolean truncated;
+
+	FastInputEngine(InputSource in) {
+		this.in = in;
+		this.charset = in.charset();
+		buf = new byte[BUFFER_SIZE];
+		useLocale(Locale.ENGLISH);
+	}
+
+	/**
+	 * Comprueba si la codificación puede procesarse byte a byte
+	 *
+	 * @param charset La codificación de la entrada
+	 * @return true si los caracteres ASCII se codifican como un único byte con
+	 *         su mismo valor
+	 */
+	static boolean supports(Charset charset) {
+		return Arrays.equals(ASCII_PROBE.getBytes(charset), ASCII_PROBE.getBytes(StandardCharsets.US_ASCII));
+	}
+
+	/**
+	 * Comprueba si un byte es un espacio en blanco ASCII, que separa tokens en
+	 * todas las codificaciones admitidas
+	 *
+	 * @param b El byte
+	 * @return true si es un espacio en blanco
+	 */
+	static boolean isWhitespace(byte b) {
+		return WHITESPACE[b & 0xFF];
+	}
+
+	@Override
+	public void useLocale(Locale locale) {
+		DecimalFormatSymbols dfs = DecimalFormatSymbols.getInstance(locale);
+		this.locale = locale;
+		peekedType = null;
+		decimalSeparator = ascii(dfs.getDecimalSeparator());
+		groupingSeparator = ascii(dfs.getGroupingSeparator());
+		NumberFormat nf = NumberFormat.getNumberInstance(locale);
+		plainLocale = false;
+		if (nf instanceof DecimalFormat) {
+			DecimalFormat df = (DecimalFormat) nf;
+			plainLocale = plain(df.getPositivePrefix(), "") && plain(df.getPositiveSuffix(), "")
+					&& plain(df.getNegativePrefix(), "-") && plain(df.getNegativeSuffix(), "")
+					&& plain(dfs.getNaN(), "NaN") && plain(dfs.getInfinity(), "Infinity");
+		}
+	}
+
+	private static int ascii(char c) {
+		return c < 128 ? c : NONE;
+	}
+
+	/**
+	 * Comprueba si un símbolo del Locale es el habitual o contiene algún carácter
+	 * no ASCII, de forma que sólo pueda aparecer en tokens no ASCII
+	 */
+	private static boolean plain(String symbol, String usual) {
+		return symbol.equals(usual) || symbol.chars().anyMatch(c -> c >= 128);
+	}
+
+	@Override
+	public String nextLine() {
+		if (pos >= lim && !fill())
+			throw new NoSuchElementException("No line found");
+		int end = lineEnd();
+		String line = new String(buf, pos, end - pos, charset);
+		skipLineTerminator(end);
+		return line;
+	}
+
+	/**
+	 * Las líneas ASCII se devuelven como una vista del buffer y el resto se
+	 * decodifica en un CharBuffer reutilizable
+	 */
+	@Override
+	public CharSequence nextLineView() {
+		if (pos >= lim && !fill())
+			throw new NoSuchElementException("No line found");
+		int end = lineEnd();
+		// Si un \r termina el buffer, skipLineTerminator tendría que llenarlo para
+		// buscar el \n, lo que desplazaría la línea
+		while (end + 1 == lim && buf[end] == '\r') {
+			int offset = end - pos;
+			boolean filled = fill();
+			end = pos + offset;
+			if (!filled)
+				break;
+		}
+		int start = pos;
+		skipLineTerminator(end);
+		for (int i = start; i < end; i++)
+			if (buf[i] < 0)
+				return decode(start, end);
+		return lineView.set(buf, start, end - start);
+	}
+
+	private CharSequence decode(int start, int end) {
+		if (decoder == null)
+			decoder = charset.newDecoder().onMalformedInput(CodingErrorAction.REPLACE)
+					.onUnmappableCharacter(CodingErrorAction.REPLACE);
+		int capacity = (int) ((end - start) * (double) decoder.maxCharsPerByte()) + 1;
+		if (lineChars == null || lineChars.capacity() < capacity)
+			lineChars = CharBuffer.allocate(Math.max(capacity, BUFFER_SIZE));
+		lineChars.clear();
+		ByteBuffer in = ByteBuffer.wrap(buf, start, end - start);
+		decoder.reset();
+		decoder.decode(in, lineChars, true);
+		decoder.flush(lineChars);
+		return lineChars.flip();
+	}
+
+	/**
+	 * Los caracteres de varios bytes se decodifican en cuanto llegan todos sus
+	 * bytes, sin esperar a más entrada
+	 */
+	@Override
+	public int readChar() {
+		if (pendingChar >= 0) {
+			int c = pendingChar;
+			pendingChar = -1;
+			return c;
+		}
+		if (pos >= lim && !fill())
+			return -1;
+		byte b = buf[pos];
+		if (b >= 0) {
+			pos++;
+			return b;
+		}
+		if (charDecoder == null) {
+			charDecoder = charset.newDecoder();
+			charOut = CharBuffer.allocate(2);
+		}
+		for (int n = 1; n <= MAX_CHAR_BYTES; n++) {
+			if (pos + n > lim && !fill())
+				break;
+			charDecoder.reset();
+			charOut.clear();
+			if (!charDecoder.decode(ByteBuffer.wrap(buf, pos, n), charOut, true).isError() && charOut.position() > 0) {
+				pos += n;
+				charOut.flip();
+				char c = charOut.get();
+				if (charOut.hasRemaining())
+					pendingChar = charOut.get();
+				return c;
+			}
+		}
+		pos++;
+		return '\uFFFD';
+	}
+
+	@Override
+	public boolean ready() {
+		return pendingChar >= 0 || pos < lim;
+	}
+
+	@Override
+	public int buffered() {
+		return pendingChar >= 0 || skipLineFeed ? -1 : lim - pos;
+	}
+
+	/**
+	 * La mitad pendiente de un par sustituto ya no se puede devolver como bytes,
+	 * así que se pierde
+	 */
+	@Override
+	public byte[] release() {
+		byte[] rest = Arrays.copyOfRange(buf, pos, lim);
+		pos = lim = 0;
+		eof = false;
+		skipLineFeed = false;
+		pendingChar = -1;
+		peekedType = null;
+		return rest;
+	}
+
+	@Override
+	public void skipLine() {
+		if (pos >= lim && !fill())
+			throw new NoSuchElementException("No line found");
+		skipLineTerminator(lineEnd());
+	}
+
+	@Override
+	public int read(TokenType type) {
+		if (type == peekedType && pos == peekedPos) {
+			value.longValue = peeked.longValue;
+			value.doubleValue = peeked.doubleValue;
+			value.objectValue = peeked.objectValue;
+			pos += peekedLength;
+			peekedType = null;
+			return READ;
+		}
+		skipWhitespace();
+		if (pos >= lim)
+			return END;
+		int end = tokenEnd(pos);
+		if (!parse(type, end))
+			return MISMATCH;
+		pos = end;
+		return READ;
+	}
+
+	/**
+	 * Guarda el valor del token para que la lectura siguiente no tenga que volver
+	 * a interpretarlo, mientras no se mueva {@link #pos} ni se llene el buffer
+	 */
+	@Override
+	public boolean hasNext(TokenType type) {
+		if (type == peekedType && pos == peekedPos)
+			return true;
+		int skip = peekToken(false);
+		if (skip < 0)
+			return false;
+		int end = tokenEnd(pos + skip);
+		int mark = pos;
+		pos += skip;
+		boolean read = parse(type, end);
+		pos = mark;
+		if (read) {
+			peekedType = type;
+			peekedPos = pos;
+			peekedLength = end - pos;
+			peeked.longValue = value.longValue;
+			peeked.doubleValue = value.doubleValue;
+			peeked.objectValue = value.objectValue;
+		}
+		return read;
+	}
+
+	/**
+	 * Interpreta el token que empieza en {@link #pos} como un valor del tipo
+	 * indicado, guardándolo en {@link #value}
+	 *
+	 * @param type El tipo del valor
+	 * @param end  La posición siguiente al último byte del token
+	 * @return false si el token no es de ese tipo
+	 */
+	private boolean parse(TokenType type, int end) {
+		outOfRange = false;
+		mismatch = null;
+		switch (type) {
+		case BYTE:
+			return integer(end, Byte.MIN_VALUE, Byte.MAX_VALUE);
+		case SHORT:
+			return integer(end, Short.MIN_VALUE, Short.MAX_VALUE);
+		case INT:
+			return integer(end, Integer.MIN_VALUE, Integer.MAX_VALUE);
+		case LONG:
+			return integer(end, Long.MIN_VALUE, Long.MAX_VALUE);
+		case FLOAT:
+			return floatToken(end);
+		case DOUBLE:
+			return doubleToken(end);
+		case BIG_INTEGER:
+			return bigIntegerToken(end);
+		default:
+			return bigDecimalToken(end);
+		}
+	}
+
+	@Override
+	public TokenValue value() {
+		return value;
+	}
+
+	/**
+	 * Los tokens ASCII se devuelven como una vista del buffer, sin copiarlos
+	 */
+	@Override
+	public CharSequence token() {
+		int skip = peekToken(false);
+		if (skip < 0)
+			return null;
+		int end = tokenEnd(pos + skip);
+		int start = pos + skip;
+		for (int i = start; i < end; i++)
+			if (buf[i] < 0)
+				return new String(buf, start, end - start, charset);
+		return tokenView.set(buf, start, end - start);
+	}
+
+	/**
+	 * La vista de solo lectura del buffer se reutiliza mientras no se amplíe
+	 */
+	@Override
+	public ByteBuffer tokenBytes() {
+		skipWhitespace();
+		if (pos >= lim)
+			return null;
+		int end = tokenEnd(pos);
+		if (bytesView == null || viewedBuf != buf) {
+			bytesView = ByteBuffer.wrap(buf).asReadOnlyBuffer();
+			viewedBuf = buf;
+		}
+		bytesView.limit(end).position(pos);
+		return bytesView;
+	}
+
+	@Override
+	public void skipToken() {
+		skipWhitespace();
+		pos = tokenEnd(pos);
+	}
+
+	@Override
+	public void skipDelimiters() {
+		skipWhitespace();
+	}
+
+	/**
+	 * Si el token estaba fuera de rango se repite la lectura con Scanner, que
+	 * incluye en el mensaje el token ya normalizado y el motivo, que depende del
+	 * tipo
+	 */
+	@Override
+	public String mismatchMessage(TokenType type) {
+		if (!outOfRange)
+			return mismatch;
+		Scanner ts = new Scanner(new String(buf, pos, tokenEnd(pos) - pos, charset)).useLocale(locale);
+		try {
+			switch (type) {
+			case BYTE:
+				ts.nextByte();
+				break;
+			case SHORT:
+				ts.nextShort();
+				break;
+			case INT:
+				ts.nextInt();
+				break;
+			default:
+				ts.nextLong();
+				break;
+			}
+		} catch (InputMismatchException ex) {
+			return ex.getMessage();
+		}
+		return null;
+	}
+
+	@Override
+	public int nextInts(int[] array, int offset, int length, boolean inLine) {
+		int n = 0;
+		int skip;
+		while (n < length && (skip = peekToken(inLine)) >= 0) {
+			int end = tokenEnd(pos + skip);
+			int mark = pos;
+			pos += skip;
+			if (!integer(end, Integer.MIN_VALUE, Integer.MAX_VALUE)) {
+				pos = mark;
+				break;
+			}
+			array[offset + n++] = (int) value.longValue;
+			pos = end;
+		}
+		return n;
+	}
+
+	@Override
+	public int nextLongs(long[] array, int offset, int length, boolean inLine) {
+		int n = 0;
+		int skip;
+		while (n < length && (skip = peekToken(inLine)) >= 0) {
+			int end = tokenEnd(pos + skip);
+			int mark = pos;
+			pos += skip;
+			if (!integer(end, Long.MIN_VALUE, Long.MAX_VALUE)) {
+				pos = mark;
+				break;
+			}
+			array[offset + n++] = value.longValue;
+			pos = end;
+		}
+		return n;
+	}
+
+	@Override
+	public int nextDoubles(double[] array, int offset, int length, boolean inLine) {
+		int n = 0;
+		int skip;
+		while (n < length && (skip = peekToken(inLine)) >= 0) {
+			int end = tokenEnd(pos + skip);
+			int mark = pos;
+			pos += skip;
+			if (!doubleToken(end)) {
+				pos = mark;
+				break;
+			}
+			array[offset + n++] = value.doubleValue;
+			pos = end;
+		}
+		return n;
+	}
+
+	@Override
+	public boolean hasNext() {
+		return peekToken(false) >= 0;
+	}
+
+	@Override
+	public boolean hasNextLine() {
+		return pos < lim || fill();
+	}
+
+	@Override
+	public boolean endOfLine() {
+		do {
+			while (pos < lim) {
+				byte b = buf[pos];
+				if (b == '\n' || b == '\r')
+					return true;
+				if (!WHITESPACE[b & 0xFF])
+					return false;
+				pos++;
+			}
+		} while (fill());
+		return true;
+	}
+
+	@Override
+	public void close() {
+		try {
+			in.close();
+		} catch (IOException ex) {
+			// Scanner también ignora los errores al cerrar
+		}
+		closed = true;
+		pos = lim = 0;
+	}
+
+	/**
+	 * Localiza el final del token que empieza en start sin consumir nada
+	 *
+	 * @param start La posición del primer byte del token
+	 * @return La posición siguiente al último byte del token
+	 */
+	private int tokenEnd(int start) {
+		int end = start;
+		while (true) {
+			while (end < lim) {
+				if (WHITESPACE[buf[end] & 0xFF])
+					return end;
+				end++;
+			}
+			int offset = end - pos;
+			if (!fill())
+				return lim;
+			end = pos + offset;
+		}
+	}
+
+	/**
+	 * Localiza el siguiente token sin consumir nada, como
+	 * {@link Scanner#hasNext()}
+	 *
+	 * @param inLine true para buscar sólo en la línea actual
+	 * @return La distancia desde {@link #pos} hasta el token, o -1 si no hay más
+	 *         tokens
+	 */
+	private int peekToken(boolean inLine) {
+		if (inLine && endOfLine())
+			return -1;
+		int i = pos;
+		while (true) {
+			while (i < lim) {
+				if (!WHITESPACE[buf[i] & 0xFF])
+					return i - pos;
+				i++;
+			}
+			int offset = i - pos;
+			if (!fill())
+				return -1;
+			i = pos + offset;
+		}
+	}
+
+	private void skipWhitespace() {
+		do {
+			while (pos < lim) {
+				if (!WHITESPACE[buf[pos] & 0xFF])
+					return;
+				pos++;
+			}
+		} while (fill());
+	}
+
+	private int lineEnd() {
+		int i = pos;
+		while (true) {
+			while (i < lim) {
+				byte b = buf[i];
+				if (b == '\n' || b == '\r')
+					return i;
+				i++;
+			}
+			int offset = i - pos;
+			if (!fill())
+				return lim;
+			i = pos + offset;
+		}
+	}
+
+	private void skipLineTerminator(int end) {
+		if (end >= lim) {
+			pos = lim;
+			return;
+		}
+		byte terminator = buf[end];
+		pos = end + 1;
+		if (terminator == '\r') {
+			try {
+				if ((pos < lim || fill()) && buf[pos] == '\n')
+					pos++;
+			} catch (InputTimeoutException ex) {
+				// La línea ya está leída, así que el \n se descarta al llegar
+				skipLineFeed = true;
+			}
+		}
+	}
+
+	/**
+	 * Lee más datos de la entrada, desplazando los pendientes al principio del
+	 * buffer o ampliándolo si está lleno. Puede cambiar {@link #pos}, por lo que
+	 * las posiciones calculadas antes de llamarlo deben guardarse como
+	 * desplazamientos respecto a él
+	 *
+	 * @return false si se ha alcanzado el final de la entrada
+	 */
+	private boolean fill() {
+		if (closed)
+			throw new IllegalStateException("Scanner closed");
+		if (eof)
+			return false;
+		peekedType = null;
+		if (pos > 0) {
+			System.arraycopy(buf, pos, buf, 0, lim - pos);
+			lim -= pos;
+			pos = 0;
+		} else if (lim == buf.length) {
+			buf = Arrays.copyOf(buf, buf.length * 2);
+		}
+		try {
+			int n = in.read(buf, lim, buf.length - lim);
+			if (n < 0) {
+				eof = true;
+				return false;
+			}
+			lim += n;
+			if (skipLineFeed) {
+				skipLineFeed = false;
+				if (buf[pos] == '\n')
+					pos++;
+			}
+			return true;
+		} catch (IOException ex) {
+			throw new UncheckedIOException(ex);
+		}
+	}
+
+	/**
+	 * Interpreta el token como un entero en base 10, con signo opcional y
+	 * separadores de miles del Locale, guardando el resultado en
+	 * {@link #value}
+	 *
+	 * @param end La posición siguiente al último byte del token
+	 * @param min El valor mínimo admitido
+	 * @param max El valor máximo admitido
+	 * @return false si el token no es un entero entre min y max
+	 */
+	private boolean integer(int end, long min, long max) {
+		return scanInteger(end, min, max) || fallbackInteger(end, min, max);
+	}
+
+	/**
+	 * Intenta interpretar el token como un entero en base 10, con signo opcional
+	 * y separadores de miles del Locale, sin crear ningún objeto, guardando el
+	 * resultado en {@link #value}
+	 *
+	 * @param end La posición siguiente al último byte del token
+	 * @param min El valor mínimo admitido
+	 * @param max El valor máximo admitido
+	 * @return false si el token tiene otro formato o está fuera de rango
+	 */
+	private boolean scanInteger(int end, long min, long max) {
+		int i = pos;
+		boolean minus = buf[i] == '-';
+		if (minus || buf[i] == '+')
+			i++;
+		int start = i;
+		// Se acumula en negativo, como en Long.parseLong, para poder leer min
+		long limit = minus ? min : -max;
+		long multmin = limit / 10;
+		long result = 0;
+		int groupDigits = -1;
+		for (; i < end; i++) {
+			int b = buf[i];
+			int digit = b - '0';
+			if (digit >= 0 && digit <= 9) {
+				if (result < multmin)
+					return false;
+				result *= 10;
+				if (result < limit + digit)
+					return false;
+				result -= digit;
+				if (groupDigits >= 0)
+					groupDigits++;
+			} else if (b == groupingSeparator
+					&& (groupDigits < 0 ? i > start && i - start <= 3 && buf[start] != '0' : groupDigits == 3)) {
+				groupDigits = 0;
+			} else {
+				return false;
+			}
+		}
+		if (i == start || groupDigits >= 0 && groupDigits != 3)
+			return false;
+		value.longValue = minus ? result : -result;
+		return true;
+	}
+
+	private boolean fallbackInteger(int end, long min, long max) {
+		Scanner ts = fallback(end, false);
+		if (ts == null || !ts.hasNextBigInteger())
+			return false;
+		BigInteger value = ts.nextBigInteger();
+		if (value.bitLength() > 63 || value.longValue() < min || value.longValue() > max) {
+			outOfRange = true;
+			return false;
+		}
+		this.value.longValue = value.longValue();
+		return true;
+	}
+
+	private boolean floatToken(int end) {
+		if (decimal(end)) {
+			value.doubleValue = parseFloat(end);
+			return true;
+		}
+		Scanner ts = fallback(end, true);
+		if (ts == null || !ts.hasNextFloat())
+			return false;
+		value.doubleValue = ts.nextFloat();
+		return true;
+	}
+
+	private boolean doubleToken(int end) {
+		if (decimal(end)) {
+			value.doubleValue = parseDouble(end);
+			return true;
+		}
+		Scanner ts = fallback(end, true);
+		if (ts == null || !ts.hasNextDouble())
+			return false;
+		value.doubleValue = ts.nextDouble();
+		return true;
+	}
+
+	private boolean bigIntegerToken(int end) {
+		BigInteger value = bigInteger(end);
+		if (value == null) {
+			Scanner ts = fallback(end, false);
+			if (ts == null || !ts.hasNextBigInteger())
+				return false;
+			value = ts.nextBigInteger();
+		}
+		this.value.objectValue = value;
+		return true;
+	}
+
+	private boolean bigDecimalToken(int end) {
+		BigDecimal value = bigDecimal(end);
+		if (value == null) {
+			if (mismatch != null)
+				return false;
+			Scanner ts = fallback(end, true);
+			if (ts == null || !ts.hasNextBigDecimal())
+				return false;
+			value = ts.nextBigDecimal();
+		}
+		this.value.objectValue = value;
+		return true;
+	}
+
+	/**
+	 * Interpreta el token como un entero en base 10, con signo opcional y
+	 * separadores de miles del Locale, directamente desde el buffer
+	 *
+	 * @param end La posición siguiente al último byte del token
+	 * @return El entero leído, o null si el token no tiene ese formato
+	 */
+	private BigInteger bigInteger(int end) {
+		int i = pos;
+		boolean minus = buf[i] == '-';
+		if (minus || buf[i] == '+')
+			i++;
+		int digits = digits(i, end);
+		if (digits == 0)
+			return null;
+		BigInteger value;
+		if (i + digits == end)
+			value = BigNumberParser.parse(buf, i, end);
+		else if (groups(i, digits, end) == end)
+			value = parseDigits(i, end);
+		else
+			return null;
+		return minus ? value.negate() : value;
+	}
+
+	/**
+	 * Interpreta el token como un número decimal con el formato de
+	 * {@link #decimal(int)}, directamente desde el buffer
+	 *
+	 * @param end La posición siguiente al último byte del token
+	 * @return El número leído, o null si el token no tiene ese formato o si la
+	 *         escala no cabe en un int, en cuyo caso se guarda el motivo en
+	 *         {@link #mismatch}
+	 */
+	private BigDecimal bigDecimal(int end) {
+		if (!decimal(end))
+			return null;
+		int start = pos;
+		if (buf[start] == '-' || buf[start] == '+')
+			start++;
+		int mantissaEnd = start;
+		int fractionDigits = -1;
+		while (mantissaEnd < end && buf[mantissaEnd] != 'e' && buf[mantissaEnd] != 'E') {
+			if (buf[mantissaEnd] == decimalSeparator)
+				fractionDigits = 0;
+			else if (fractionDigits >= 0)
+				fractionDigits++;
+			mantissaEnd++;
+		}
+		long scale = Math.max(fractionDigits, 0);
+		if (mantissaEnd < end) {
+			int i = mantissaEnd + 1;
+			boolean negativeExponent = buf[i] == '-';
+			if (negativeExponent || buf[i] == '+')
+				i++;
+			long e = 0;
+			for (; i < end; i++) {
+				if (e <= 1L << 31)
+					e = e * 10 + buf[i] - '0';
+			}
+			if (negativeExponent)
+				e = -e;
+			if (e != (int) e) {
+				mismatch = "Exponent overflow.";
+				return null;
+			}
+			scale -= e;
+		}
+		if (scale != (int) scale) {
+			mismatch = "Scale out of range.";
+			return null;
+		}
+		BigInteger unscaled;
+		if (digits(start, mantissaEnd) == mantissaEnd - start)
+			unscaled = BigNumberParser.parse(buf, start, mantissaEnd);
+		else
+			unscaled = parseDigits(start, mantissaEnd);
+		return new BigDecimal(buf[pos] == '-' ? unscaled.negate() : unscaled, (int) scale);
+	}
+
+	/**
+	 * Convierte los dígitos de buf[from, to), ignorando los separadores
+	 */
+	private BigInteger parseDigits(int from, int to) {
+		byte[] digits = new byte[to - from];
+		int n = 0;
+		for (int i = from; i < to; i++) {
+			if (buf[i] >= '0' && buf[i] <= '9')
+				digits[n++] = buf[i];
+		}
+		return BigNumberParser.parse(digits, 0, n);
+	}
+
+	/**
+	 * Obtiene el float correspondiente al token tras llamar a {@link #decimal(int)}
+	 */
+	private float parseFloat(int end) {
+		int bits = FastDoubleParser.floatBits(significand, exponent, truncated);
+		// El token ya incluye el signo
+		if (bits < 0)
+			return Float.parseFloat(decimalToken(pos, end));
+		float value = Float.intBitsToFloat(bits);
+		return negative ? -value : value;
+	}
+
+	/**
+	 * Obtiene el double correspondiente al token tras llamar a
+	 * {@link #decimal(int)}
+	 */
+	private double parseDouble(int end) {
+		long bits = FastDoubleParser.doubleBits(significand, exponent, truncated);
+		// El token ya incluye el signo
+		if (bits < 0)
+			return Double.parseDouble(decimalToken(pos, end));
+		double value = Double.longBitsToDouble(bits);
+		return negative ? -value : value;
+	}
+
+	/**
+	 * Descompone el token como un número decimal, con signo opcional, separadores
+	 * de miles y separador decimal del Locale y exponente opcional, guardando el
+	 * resultado en {@link #negative}, {@link #significand}, {@link #exponent} y
+	 * {@link #truncated}. El significando contiene como mucho los 19 primeros
+	 * dígitos significativos, como entero sin signo
+	 *
+	 * @param end La posición siguiente al último byte del token
+	 * @return false si el token no tiene ese formato
+	 */
+	private boolean decimal(int end) {
+		int i = pos;
+		boolean minus = buf[i] == '-';
+		if (minus || buf[i] == '+')
+			i++;
+		int start = i;
+		long w = 0;
+		int digits = 0;
+		int q = 0;
+		boolean lost = false;
+		int integerDigits = 0;
+		int groupDigits = -1;
+		for (; i < end; i++) {
+			int b = buf[i];
+			int digit = b - '0';
+			if (digit >= 0 && digit <= 9) {
+				integerDigits++;
+				if (groupDigits >= 0)
+					groupDigits++;
+				if (digits < 19) {
+					w = w * 10 + digit;
+					if (w != 0)
+						digits++;
+				} else {
+					q++;
+					lost |= digit != 0;
+				}
+			} else if (b == groupingSeparator && (groupDigits < 0
+					? integerDigits > 0 && integerDigits <= 3 && buf[start] != '0'
+					: groupDigits == 3)) {
+				groupDigits = 0;
+			} else {
+				break;
+			}
+		}
+		if (groupDigits >= 0 && groupDigits != 3)
+			return false;
+		int fractionDigits = 0;
+		if (i < end && buf[i] == decimalSeparator) {
+			for (i++; i < end; i++) {
+				int digit = buf[i] - '0';
+				if (digit < 0 || digit > 9)
+					break;
+				fractionDigits++;
+				if (digits < 19) {
+					w = w * 10 + digit;
+					if (w != 0)
+						digits++;
+					q--;
+				} else {
+					lost |= digit != 0;
+				}
+			}
+		}
+		if (integerDigits == 0 && fractionDigits == 0)
+			return false;
+		if (i < end && (buf[i] == 'e' || buf[i] == 'E')) {
+			i++;
+			boolean negativeExponent = false;
+			if (i < end && (buf[i] == '-' || buf[i] == '+'))
+				negativeExponent = buf[i++] == '-';
+			int exponentStart = i;
+			int e = 0;
+			for (; i < end; i++) {
+				int digit = buf[i] - '0';
+				if (digit < 0 || digit > 9)
+					break;
+				if (e < 100000)
+					e = e * 10 + digit;
+			}
+			if (i == exponentStart)
+				return false;
+			q += negativeExponent ? -e : e;
+		}
+		negative = minus;
+		significand = w;
+		exponent = q;
+		truncated = lost;
+		return i == end;
+	}
+
+	/**
+	 * Interpreta el token como un número decimal, con signo opcional, separadores
+	 * de miles y separador decimal del Locale y exponente opcional
+	 *
+	 * @return El número con el formato de {@link Double#parseDouble(String)}, o
+	 *         null si el token no tiene ese formato
+	 */
+	private String decimalToken(int start, int end) {
+		int i = start;
+		if (buf[i] == '-' || buf[i] == '+')
+			i++;
+		int integerDigits = digits(i, end);
+		boolean grouped = false;
+		if (integerDigits > 0) {
+			int groupsEnd = groups(i, integerDigits, end);
+			grouped = groupsEnd != i + integerDigits;
+			i = groupsEnd;
+		}
+		int fractionDigits = 0;
+		if (i < end && buf[i] == decimalSeparator) {
+			fractionDigits = digits(i + 1, end);
+			i += 1 + fractionDigits;
+		}
+		if (integerDigits == 0 && fractionDigits == 0)
+			return null;
+		if (i < end && (buf[i] == 'e' || buf[i] == 'E')) {
+			int exponent = i + 1;
+			if (exponent < end && (buf[exponent] == '-' || buf[exponent] == '+'))
+				exponent++;
+			int exponentDigits = digits(exponent, end);
+			if (exponentDigits == 0)
+				return null;
+			i = exponent + exponentDigits;
+		}
+		if (i != end)
+			return null;
+		if (!grouped && decimalSeparator == '.')
+			return new String(buf, start, end - start, StandardCharsets.ISO_8859_1);
+		return stripGrouping(start, end);
+	}
+
+	private int digits(int from, int end) {
+		int i = from;
+		while (i < end && buf[i] >= '0' && buf[i] <= '9')
+			i++;
+		return i - from;
+	}
+
+	/**
+	 * Avanza sobre los grupos de miles que siguen a los primeros dígitos de un
+	 * número, con el formato de {@link Scanner}: el primer grupo tiene entre uno y
+	 * tres dígitos y no empieza por cero, y los siguientes tienen tres dígitos
+	 *
+	 * @return La posición siguiente al último grupo válido
+	 */
+	private int groups(int start, int digits, int end) {
+		int i = start + digits;
+		if (digits > 3 || buf[start] == '0')
+			return i;
+		while (i + 3 < end && buf[i] == groupingSeparator && digits(i + 1, i + 4) == 3)
+			i += 4;
+		return i;
+	}
+
+	private String stripGrouping(int start, int end) {
+		StringBuilder sb = new StringBuilder(end - start);
+		for (int i = start; i < end; i++) {
+			int b = buf[i];
+			if (b == decimalSeparator)
+				sb.append('.');
+			else if (b != groupingSeparator)
+				sb.append((char) b);
+		}
+		return sb.toString();
+	}
+
+	/**
+	 * Crea un Scanner que lee sólo el token, para los formatos que no se
+	 * interpretan directamente
+	 *
+	 * @param end     La posición siguiente al último byte del token
+	 * @param decimal true si se busca un número decimal, que además puede ser
+	 *                NaN, Infinity o hexadecimal
+	 * @return El Scanner, o null si el token no puede ser un número de ningún
+	 *         formato que admita Scanner
+	 */
+	private Scanner fallback(int end, boolean decimal) {
+		if (plainLocale && !fallbackCandidate(end, decimal))
+			return null;
+		return new Scanner(new String(buf, pos, end - pos, charset)).useLocale(locale);
+	}
+
+	/**
+	 * Comprueba si el token tiene algún carácter no ASCII o sólo caracteres que
+	 * pueden formar parte de un número. Si no es así, Scanner lo rechazaría
+	 * siempre que los prefijos y sufijos del Locale sean los habituales
+	 */
+	private boolean fallbackCandidate(int end, boolean decimal) {
+		int start = pos;
+		if (buf[start] == '-' || buf[start] == '+')
+			start++;
+		if (decimal && (equals(start, end, "NaN") || equals(start, end, "Infinity")
+				|| end - start > 1 && buf[start] == '0' && (buf[start + 1] == 'x' || buf[start + 1] == 'X')))
+			return true;
+		boolean numeric = true;
+		for (int i = pos; i < end; i++) {
+			int b = buf[i];
+			if (b < 0)
+				return true;
+			numeric &= b >= '0' && b <= '9' || b == '-' || b == '+' || b == groupingSeparator
+					|| decimal && (b == decimalSeparator || b == 'e' || b == 'E');
+		}
+		return numeric;
+	}
+
+	private boolean equals(int start, int end, String text) {
+		if (end - start != text.length())
+			return false;
+		for (int i = 0; i < text.length(); i++) {
+			if (buf[start + i] != text.charAt(i))
+				return false;
+		}
+		return true;
+	}
+
+}
@@ -0,0 +1,260 @@
+/*
+Copyright (C) 2021 Santiago González Lago
+
+This program is free software: you can redistribute it and/or modify
+it under the terms of the GNU General Public License as published by
+the Free Software Foundation, either version 3 of the License, or
+(at your option) any later version.
+
+This program is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with this program.  If not, see <https://www.gnu.org/licenses/>.
+*/
+
+package gal.chanchi.scanner;
+
+import java.nio.ByteBuffer;
+import java.util.Locale;
+import java.util.NoSuchElementException;
+import java.util.Scanner;
+
+/**
+ * Motor de lectura utilizado internamente por {@link KeyboardScanner}
+ *
+ * Los métodos de lectura tienen la misma semántica que los de {@link Scanner}:
+ * si el siguiente token no es del tipo pedido no se consume, y si no quedan
+ * líneas {@link #nextLine()} y {@link #skipLine()} lanzan
+ * {@link NoSuchElementException}. Los tokens se leen sin lanzar excepciones, de
+ * forma que los reintentos de {@link KeyboardScanner} no tengan coste
+ *
+ * @author Santiago González Lago
+ */
+interface InputEngine {
+	/**
+	 * Se ha leído un valor
+	 */
+	int READ = 0;
+	/**
+	 * El siguiente token no es del tipo pedido
+	 */
+	int MISMATCH = 1;
+	/**
+	 * No quedan tokens en la entrada
+	 */
+	int END = 2;
+
+	/**
+	 * Modifica el Locale utilizado para interpretar los números
+	 *
+	 * @param locale El Locale a utilizar
+	 */
+	void useLocale(Locale locale);
+
+	/**
+	 * Obtiene el resto de la línea actual y avanza a la siguiente
+	 *
+	 * @return La línea leída, sin el separador de línea
+	 */
+	String nextLine();
+
+	/**
+	 * Igual que {@link #nextLine()}, pero sin copiar la línea si no es necesario
+	 *
+	 * @return La línea leída, que sólo es válida hasta la siguiente llamada al
+	 *         motor
+	 */
+	CharSequence nextLineView();
+
+	/**
+	 * Lee el siguiente carácter, incluidos los espacios en blanco y los
+	 * separadores de línea, en cuanto está disponible
+	 *
+	 * @return El carácter, o -1 si se ha llegado al final de la entrada
+	 */
+	int readChar();
+
+	/**
+	 * Comprueba si {@link #readChar()} puede devolver un carácter sin bloquear
+	 *
+	 * @return true si hay caracteres disponibles
+	 */
+	boolean ready();
+
+	/**
+	 * Obtiene el número de bytes que el motor ha leído de la fuente pero todavía
+	 * no ha consumido, lo que permite continuar la lectura directamente de la
+	 * fuente
+	 *
+	 * @return El número de bytes, o -1 si no se puede saber
+	 */
+	int buffered();
+
+	/**
+	 * Comprueba si la última operación sobre la entrada la ha hecho este motor,
+	 * lo que sólo puede no ocurrir si la comparte con otros KeyboardScanner
+	 *
+	 * @return true si nadie más ha leído de la entrada desde la última operación
+	 * @see SharedInputEngine
+	 */
+	default boolean lastReader() {
+		return true;
+	}
+
+	/**
+	 * Descarta el resto de la línea actual y avanza a la siguiente
+	 */
+	void skipLine();
+
+	/**
+	 * Lee el siguiente token como un valor del tipo indicado sin lanzar
+	 * excepciones. Si el token no es de ese tipo no se consume, aunque sí los
+	 * delimitadores que lo preceden
+	 *
+	 * @param type El tipo del valor a leer
+	 * @return {@link #READ} si se ha leído el valor, que se obtiene con
+	 *         {@link #value()}, {@link #MISMATCH} si el token no es de ese tipo o
+	 *         {@link #END} si no quedan tokens
+	 */
+	int read(TokenType type);
+
+	/**
+	 * Comprueba si el siguiente token es un valor del tipo indicado sin consumir
+	 * nada, como los métodos hasNextX de {@link Scanner}. Si lo es, el
+	 * {@link #read(TokenType)} siguiente del mismo tipo no vuelve a interpretarlo
+	 *
+	 * @param type El tipo del valor
+	 * @return true si el siguiente token es de ese tipo
+	 */
+	boolean hasNext(TokenType type);
+
+	/**
+	 * Lee el siguiente token con un parser, con la misma semántica que
+	 * {@link #read(TokenType)}. Los {@link BuiltInParser} se leen con
+	 * {@link #read(TokenType)} y el resto recibe el token obtenido con
+	 * {@link #token()} tras consumir los delimitadores que lo preceden
+	 *
+	 * @param parser El parser
+	 * @return {@link #READ}, {@link #MISMATCH} o {@link #END}
+	 */
+	default int read(TokenParser parser) {
+		if (parser instanceof BuiltInParser)
+			return read(((BuiltInParser) parser).type);
+		skipDelimiters();
+		CharSequence token = token();
+		if (token == null)
+			return END;
+		if (!value().parse(parser, token))
+			return MISMATCH;
+		skipToken();
+		return READ;
+	}
+
+	/**
+	 * Obtiene el valor del último token leído con {@link #read(TokenType)} o
+	 * {@link #read(TokenParser)}
+	 */
+	TokenValue value();
+
+	/**
+	 * Obtiene el siguiente token sin consumir nada, ni siquiera los delimitadores
+	 * que lo preceden, de forma que se puede usar para describir un token
+	 * rechazado antes de descartar la línea actual
+	 *
+	 * @return El token, que sólo es válido hasta la siguiente llamada al motor, o
+	 *         null si no quedan tokens
+	 */
+	CharSequence token();
+
+	/**
+	 * Igual que {@link #token()}, pero sin decodificar el token y consumiendo los
+	 * delimitadores que lo preceden
+	 *
+	 * @return Los bytes del token entre la posición y el límite del buffer, que
+	 *         sólo son válidos hasta la siguiente llamada al motor, o null si no
+	 *         quedan tokens
+	 */
+	ByteBuffer tokenBytes();
+
+	/**
+	 * Consume el siguiente token
+	 */
+	void skipToken();
+
+	/**
+	 * Consume los delimitadores que preceden al siguiente token, pero no el token
+	 */
+	void skipDelimiters();
+
+	/**
+	 * Obtiene el mensaje de la excepción que habría lanzado {@link Scanner} al
+	 * leer el token rechazado por {@link #read(TokenType)}. Sólo se llama al
+	 * agotar los intentos de lectura, antes de descartar la línea
+	 *
+	 * @param type El tipo del valor que se intentaba leer
+	 * @return El mensaje, que puede ser null
+	 */
+	String mismatchMessage(TokenType type);
+
+	/**
+	 * Igual que {@link #mismatchMessage(TokenType)}, pero para
+	 * {@link #read(TokenParser)}. Los parsers de usuario no tienen mensaje
+	 */
+	default String mismatchMessage(TokenParser parser) {
+		return parser instanceof BuiltInParser ? mismatchMessage(((BuiltInParser) parser).type) : null;
+	}
+
+	/**
+	 * Lee enteros consecutivos hasta llenar el array, llegar al final de la
+	 * entrada o encontrar un token que no sea un int, que no se consume
+	 *
+	 * @param array  El array en el que guardar los valores
+	 * @param offset La posición del primer valor en el array
+	 * @param length El número máximo de valores a leer
+	 * @param inLine true para detenerse también al final de la línea actual
+	 * @return El número de valores leídos
+	 */
+	int nextInts(int[] array, int offset, int length, boolean inLine);
+
+	/**
+	 * Igual que {@link #nextInts(int[], int, int, boolean)}, pero con long
+	 */
+	int nextLongs(long[] array, int offset, int length, boolean inLine);
+
+	/**
+	 * Igual que {@link #nextInts(int[], int, int, boolean)}, pero con double
+	 */
+	int nextDoubles(double[] array, int offset, int length, boolean inLine);
+
+	/**
+	 * Comprueba si quedan tokens en la entrada, bloqueando si es necesario
+	 *
+	 * @return true si hay al menos un token más
+	 */
+	boolean hasNext();
+
+	/**
+	 * Comprueba si queda alguna línea en la entrada, bloqueando si es necesario
+	 *
+	 * @return true si hay al menos una línea más
+	 */
+	boolean hasNextLine();
+
+	/**
+	 * Salta los espacios en blanco de la línea actual y comprueba si se ha llegado
+	 * a su final
+	 *
+	 * @return true si lo siguiente es un separador de línea o el final de la
+	 *         entrada
+	 */
+	boolean endOfLine();
+
+	/**
+	 * Cierra la fuente de datos subyacente
+	 */
+	void close();
+
+}
@@ -0,0 +1,223 @@
+/*
+Copyright (C) 2021 Santiago González Lago
+
+This program is free software: you can redistribute it and/or modify
+it under the terms of the GNU General Public License as published by
+the Free Software Foundation, either version 3 of the License, or
+(at your option) any later version.
+
+This program is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with this program.  If not, see <https://www.gnu.org/licenses/>.
+*/
+
+package gal.chanchi.scanner;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * <h2>InputSource</h2>
+ * 
+ * Fuente de bytes de la que lee {@link KeyboardScanner}
+ * 
+ * Las fuentes sólo se usan para rellenar el buffer interno del motor de
+ * lectura, por lo que el recorrido de los tokens no depende de la fuente
+ * utilizada. Los métodos estáticos crean la fuente adecuada para cada tipo de
+ * entrada, aunque se puede implementar esta interfaz para cualquier otra
+ * 
+ * @author Santiago González Lago
+ * @version 1.0
+ */
+public interface InputSource extends Closeable {
+
+	/**
+	 * Crea una fuente que lee de un InputStream con la codificación por defecto
+	 * 
+	 * @param in El InputStream del que leer
+	 * @return La fuente
+	 */
+	static InputSource of(InputStream in) {
+		return of(in, Charset.defaultCharset());
+	}
+
+	/**
+	 * Crea una fuente que lee de un InputStream
+	 * 
+	 * @param in      El InputStream del que leer
+	 * @param charset La codificación de la entrada
+	 * @return La fuente
+	 */
+	static InputSource of(InputStream in, Charset charset) {
+		return new InputStreamSource(in, charset);
+	}
+
+	/**
+	 * Crea una fuente que lee la entrada estándar con la codificación por defecto
+	 * 
+	 * @return La fuente
+	 * @see #stdin(Charset)
+	 */
+	static InputSource stdin() {
+		return stdin(Charset.defaultCharset());
+	}
+
+	/**
+	 * Crea una fuente que lee la entrada estándar directamente del descriptor 0,
+	 * con un único buffer directo y sin la sincronización ni las copias de
+	 * {@link System#in}.<br/>
+	 * No debe usarse a la vez que System.in, ya que cada uno perdería lo que haya
+	 * leído el otro. Como todos los FileChannel, se cierra si se interrumpe el
+	 * hilo que está leyendo, cerrando también la entrada estándar
+	 * 
+	 * @param charset La codificación de la entrada
+	 * @return La fuente
+	 */
+	static InputSource stdin(Charset charset) {
+		return new StdinChannelSource(charset);
+	}
+
+	/**
+	 * Crea una fuente que lee de un canal en modo bloqueante con la codificación
+	 * por defecto
+	 * 
+	 * @param channel El canal del que leer
+	 * @return La fuente
+	 */
+	static InputSource of(ReadableByteChannel channel) {
+		return of(channel, Charset.defaultCharset());
+	}
+
+	/**
+	 * Crea una fuente que lee de un canal en modo bloqueante
+	 * 
+	 * @param channel El canal del que leer
+	 * @param charset La codificación de la entrada
+	 * @return La fuente
+	 */
+	static InputSource of(ReadableByteChannel channel, Charset charset) {
+		return new ChannelSource(channel, charset);
+	}
+
+	/**
+	 * Crea una fuente que lee un fichero con la codificación por defecto
+	 * 
+	 * @param path La ruta del fichero
+	 * @return La fuente
+	 * @throws IOException Si no se puede abrir el fichero
+	 * @see #of(Path, Charset)
+	 */
+	static InputSource of(Path path) throws IOException {
+		return of(path, Charset.defaultCharset());
+	}
+
+	/**
+	 * Crea una fuente que lee un fichero. Los ficheros regulares se proyectan en
+	 * memoria, y el resto (tuberías con nombre, dispositivos...) se leen a través
+	 * de un {@link FileChannel}
+	 * 
+	 * @param path    La ruta del fichero
+	 * @param charset La codificación del fichero
+	 * @return La fuente
+	 * @throws IOException Si no se puede abrir el fichero
+	 */
+	static InputSource of(Path path, Charset charset) throws IOException {
+		if (Files.isRegularFile(path))
+			return new MappedFileSource(path, charset);
+		return new ChannelSource(FileChannel.open(path, StandardOpenOption.READ), charset);
+	}
+
+	/**
+	 * Crea una fuente que lee los bytes entre la posición y el límite de un
+	 * ByteBuffer, que puede ser directo o no, con la codificación por defecto. El
+	 * buffer original no se modifica
+	 * 
+	 * @param buffer El buffer del que leer
+	 * @return La fuente
+	 */
+	static InputSource of(ByteBuffer buffer) {
+		return of(buffer, Charset.defaultCharset());
+	}
+
+	/**
+	 * Crea una fuente que lee los bytes entre la posición y el límite de un
+	 * ByteBuffer, que puede ser directo o no. El buffer original no se modifica
+	 * 
+	 * @param buffer  El buffer del que leer
+	 * @param charset La codificación de la entrada
+	 * @return La fuente
+	 */
+	static InputSource of(ByteBuffer buffer, Charset charset) {
+		return new ByteBufferSource(buffer, charset);
+	}
+
+	/**
+	 * Crea una fuente que lee una secuencia de caracteres, como un String o un
+	 * StringBuilder, que se codifica en UTF-8 a medida que se lee
+	 * 
+	 * @param text El texto a leer
+	 * @return La fuente
+	 */
+	static InputSource of(CharSequence text) {
+		return new CharSequenceSource(text);
+	}
+
+	/**
+	 * Lee bytes de la fuente, bloqueando hasta que haya al menos uno disponible
+	 *
+	 * @param buffer El array en el que guardar los bytes
+	 * @param offset La posición del array en la que guardar el primer byte
+	 * @param length El número máximo de bytes a leer, mayor que 0
+	 * @return El número de bytes leídos, o -1 al final de la fuente
+	 * @throws IOException Si se produce un error de lectura
+	 */
+	int read(byte[] buffer, int offset, int length) throws IOException;
+
+	/**
+	 * Obtiene la codificación de los caracteres de la fuente
+	 *
+	 * @return La codificación de la fuente
+	 */
+	Charset charset();
+
+	/**
+	 * Obtiene un InputStream que lee de esta fuente, para los motores que lo
+	 * necesiten. Cerrarlo cierra la fuente
+	 *
+	 * @return El InputStream
+	 */
+	default InputStream asInputStream() {
+		return new InputStream() {
+			@Override
+			public int read() throws IOException {
+				byte[] b = new byte[1];
+				return read(b, 0, 1) < 0 ? -1 : b[0] & 0xFF;
+			}
+
+			@Override
+			public int read(byte[] b, int off, int len) throws IOException {
+				if (len == 0)
+					return 0;
+				return InputSource.this.read(b, off, len);
+			}
+
+			@Override
+			public void close() throws IOException {
+				InputSource.this.close();
+			}
+		};
+	}
+
+}
@@ -0,0 +1,62 @@
+/*
+Copyright (C) 2021 Santiago González Lago
+
+This program is free software: you can redistribute it and/or modify
+it under the terms of the GNU General Public License as published by
+the Free Software Foundation, either version 3 of the License, or
+(at your option) any later version.
+
+This program is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with this program.  If not, see <https://www.gnu.org/licenses/>.
+*/
+
+package gal.chanchi.scanner;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.Charset;
+
+/**
+ * Fuente que lee de un {@link InputStream}
+ *
+ * @author Santiago González Lago
+ */
+final class InputStreamSource implements InputSource {
+	private final InputStream in;
+	private final Charset charset;
+
+	InputStreamSource(InputStream in, Charset charset) {
+		this.in = in;
+		this.charset = charset;
+	}
+
+	@Override
+	public int read(byte[] buffer, int offset, int length) throws IOException {
+		int n;
+		do {
+			n = in.read(buffer, offset, length);
+		} while (n == 0);
+		return n;
+	}
+
+	@Override
+	public Charset charset() {
+		return charset;
+	}
+
+	@Override
+	public InputStream asInputStream() {
+		return in;
+	}
+
+	@Override
+	public void close() throws IOException {
+		in.close();
+	}
+
+}
@@ -0,0 +1,49 @@
+/*
+Copyright (C) 2021 Santiago González Lago
+
+This program is free software: you can redistribute it and/or modify
+it under the terms of the GNU General Public License as published by
+the Free Software Foundation, either version 3 of the License, or
+(at your option) any later version.
+
+This program is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with this program.  If not, see <https://www.gnu.org/licenses/>.
+*/
+
+
+package gal.chanchi.scanner;
+
+/**
+ * <h2>InputTimeoutException</h2>
+ * 
+ * Excepción que lanzan las lecturas con plazo de {@link KeyboardScanner} si la
+ * entrada no llega a tiempo. No se pierde nada de lo leído: la siguiente
+ * lectura continúa donde se quedó la que ha fallado
+ * 
+ * El plazo abarca todos los intentos de la lectura. Si se agota mientras se
+ * descarta la línea de un token rechazado, el token sigue siendo el siguiente
+ * de la entrada, así que la siguiente lectura lo volverá a rechazar y
+ * descartará su línea desde el principio
+ * 
+ * @author Santiago González Lago
+ * @version 1.0
+ * @see KeyboardScanner#nextInt(java.time.Duration)
+ */
+public class InputTimeoutException extends RuntimeException {
+	private static final long serialVersionUID = 1L;
+
+	/**
+	 * Crea la excepción con un mensaje
+	 * 
+	 * @param message El mensaje
+	 */
+	public InputTimeoutException(String message) {
+		super(message);
+	}
+
+}
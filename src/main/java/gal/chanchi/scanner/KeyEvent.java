@@ -0,0 +1,90 @@
+/*
+Copyright (C) 2021 Santiago González Lago
+
+This program is free software: you can redistribute it and/or modify
+it under the terms of the GNU General Public License as published by
+the Free Software Foundation, either version 3 of the License, or
+(at your option) any later version.
+
+This program is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with this program.  If not, see <https://www.gnu.org/licenses/>.
+*/
+
+
+package gal.chanchi.scanner;
+
+/**
+ * <h2>KeyEvent</h2>
+ * 
+ * Pulsación de una tecla leída en el modo sin búfer de línea, con el instante
+ * en que llegó
+ * 
+ * @author Santiago González Lago
+ * @version 1.0
+ * @see KeyboardScanner#keyEvents()
+ */
+public final class KeyEvent {
+
+	/**
+	 * Teclas que se distinguen al decodificar la entrada. Las que producen un
+	 * carácter imprimible o de control no listado son {@link #CHARACTER}
+	 */
+	public enum Key {
+		CHARACTER, ENTER, TAB, BACK_TAB, BACKSPACE, ESCAPE, UP, DOWN, RIGHT, LEFT, HOME, END, INSERT, DELETE,
+		PAGE_UP, PAGE_DOWN, F1, F2, F3, F4, F5, F6, F7, F8, F9, F10, F11, F12,
+		/**
+		 * Secuencia de escape que no se reconoce
+		 */
+		UNKNOWN
+	}
+
+	private final Key key;
+	private final char character;
+	private final long timestamp;
+
+	KeyEvent(Key key, char character, long timestamp) {
+		this.key = key;
+		this.character = character;
+		this.timestamp = timestamp;
+	}
+
+	/**
+	 * Obtiene la tecla pulsada
+	 * 
+	 * @return La tecla
+	 */
+	public Key getKey() {
+		return key;
+	}
+
+	/**
+	 * Obtiene el carácter que produce la tecla
+	 * 
+	 * @return El carácter, o 0 si la tecla se transmite como una secuencia de
+	 *         escape
+	 */
+	public char getChar() {
+		return character;
+	}
+
+	/**
+	 * Obtiene el instante en que se leyó la tecla, medido con
+	 * {@link System#nanoTime()}
+	 * 
+	 * @return El instante en nanosegundos
+	 */
+	public long getTimestamp() {
+		return timestamp;
+	}
+
+	@Override
+	public String toString() {
+		return key == Key.CHARACTER ? "KeyEvent[" + character + "]" : "KeyEvent[" + key + "]";
+	}
+
+}
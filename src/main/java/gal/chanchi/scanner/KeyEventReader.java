@@ -0,0 +1,332 @@
+/*
+Copyright (C) 2021 Santiago González Lago
+
+This program is free software: you can redistribute it and/or modify
+it under the terms of the GNU General Public License as published by
+the Free Software Foundation, either version 3 of the License, or
+(at your option) any later version.
+
+This program is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with this program.  If not, see <https://www.gnu.org/licenses/>.
+*/
+
+
+package gal.chanchi.scanner;
+
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import gal.chanchi.scanner.KeyEvent.Key;
+
+/**
+ * <h2>KeyEventReader</h2>
+ * 
+ * Lector de pulsaciones de teclas en un hilo propio, que decodifica las
+ * secuencias de escape de las flechas y las teclas de función y entrega los
+ * eventos a través de una cola sin bloqueos, de forma que las ráfagas de
+ * entrada no se pierdan aunque el consumidor sea más lento
+ * 
+ * Los eventos están pensados para un único consumidor, ya sea a través de
+ * {@link #poll()}, {@link #take()} o {@link #stream()} o del listener indicado
+ * al crearlo. Mientras el lector está activo, el KeyboardScanner del que se
+ * obtuvo no debe usarse para otras lecturas. El hilo lector termina al llegar
+ * al final de la entrada o al cerrar el lector. Como lee a través de la lectura
+ * anticipada de la fuente, su espera se puede interrumpir, así que al cerrarlo
+ * se detiene sin esperar a la siguiente tecla, y close() no vuelve hasta que
+ * ha terminado: lo que llegue después lo reciben las demás lecturas
+ * 
+ * @author Santiago González Lago
+ * @version 1.0
+ * @see KeyboardScanner#keyEvents()
+ */
+public final class KeyEventReader implements AutoCloseable {
+	private static final int ESC = 0x1B;
+
+	private final ConcurrentLinkedQueue<KeyEvent> queue = new ConcurrentLinkedQueue<>();
+	private final InputEngine engine;
+	private final ReadAheadInputSource readAhead;
+	private final Runnable onClose;
+	private final Thread reader;
+	private volatile Thread consumer;
+	private volatile boolean ended;
+	private volatile boolean closed;
+	private volatile RuntimeException failure;
+	// Carácter leído tras un ESC que no inicia una secuencia
+	private int pending = -1;
+
+	KeyEventReader(InputEngine engine, ReadAheadInputSource readAhead, Runnable onClose) {
+		this.engine = engine;
+		this.readAhead = readAhead;
+		this.onClose = onClose;
+		reader = new Thread(this::run, "KeyboardScanner-keys");
+		reader.setDaemon(true);
+	}
+
+	/**
+	 * Arranca el hilo lector y, si se indica un listener, el hilo que le entrega
+	 * los eventos
+	 */
+	KeyEventReader start(Consumer<? super KeyEvent> listener) {
+		reader.start();
+		if (listener != null) {
+			Thread dispatcher = new Thread(() -> stream().forEach(listener), "KeyboardScanner-key-listener");
+			dispatcher.setDaemon(true);
+			dispatcher.start();
+		}
+		return this;
+	}
+
+	/**
+	 * Obtiene el siguiente evento sin esperar
+	 * 
+	 * @return El evento, o null si no hay ninguno pendiente
+	 */
+	public KeyEvent poll() {
+		return queue.poll();
+	}
+
+	/**
+	 * Obtiene el siguiente evento, esperando a que se pulse una tecla si es
+	 * necesario
+	 * 
+	 * @return El evento, o null si se ha llegado al final de la entrada
+	 * @throws InterruptedException Si se interrumpe el hilo mientras espera
+	 * @throws RuntimeException     Si ha fallado la lectura de la entrada
+	 */
+	public KeyEvent take() throws InterruptedException {
+		KeyEvent event;
+		while ((event = queue.poll()) == null) {
+			if (ended) {
+				event = queue.poll();
+				if (event == null && failure != null)
+					throw failure;
+				return event;
+			}
+			consumer = Thread.currentThread();
+			if (queue.isEmpty() && !ended)
+				LockSupport.park(this);
+			consumer = null;
+			if (Thread.interrupted())
+				throw new InterruptedException();
+		}
+		return event;
+	}
+
+	/**
+	 * Obtiene los eventos como un Stream, que termina al llegar al final de la
+	 * entrada o si se interrumpe el hilo
+	 * 
+	 * @return El Stream de eventos
+	 */
+	public Stream<KeyEvent> stream() {
+		return StreamSupport.stream(new Spliterators.AbstractSpliterator<KeyEvent>(Long.MAX_VALUE,
+				Spliterator.ORDERED | Spliterator.NONNULL) {
+			@Override
+			public boolean tryAdvance(Consumer<? super KeyEvent> action) {
+				KeyEvent event;
+				try {
+					event = take();
+				} catch (InterruptedException ex) {
+					Thread.currentThread().interrupt();
+					return false;
+				}
+				if (event == null)
+					return false;
+				action.accept(event);
+				return true;
+			}
+		}, false);
+	}
+
+	/**
+	 * Deja de leer eventos, esperando a que termine el hilo lector, y restaura el
+	 * terminal si se cambió al crear el lector
+	 */
+	@Override
+	public void close() {
+		if (closed)
+			return;
+		closed = true;
+		reader.interrupt();
+		if (Thread.currentThread() != reader) {
+			boolean interrupted = false;
+			while (reader.isAlive()) {
+				try {
+					reader.join();
+				} catch (InterruptedException ex) {
+					interrupted = true;
+				}
+			}
+			if (interrupted)
+				Thread.currentThread().interrupt();
+		}
+		onClose.run();
+	}
+
+	private void run() {
+		// Sólo la espera a la lectura anticipada se puede interrumpir
+		readAhead.start();
+		try {
+			int c;
+			while (!closed && (c = read()) >= 0)
+				publish(decode(c, System.nanoTime()));
+		} catch (RuntimeException ex) {
+			// Si se ha cerrado, es la interrupción de la espera
+			if (!closed)
+				failure = ex;
+		} finally {
+			ended = true;
+			Thread waiting = consumer;
+			if (waiting != null)
+				LockSupport.unpark(waiting);
+		}
+	}
+
+	private void publish(KeyEvent event) {
+		queue.offer(event);
+		Thread waiting = consumer;
+		if (waiting != null)
+			LockSupport.unpark(waiting);
+	}
+
+	private int read() {
+		if (pending >= 0) {
+			int c = pending;
+			pending = -1;
+			return c;
+		}
+		return engine.readChar();
+	}
+
+	private KeyEvent decode(int c, long timestamp) {
+		switch (c) {
+		case ESC:
+			return escape(timestamp);
+		case '\r':
+		case '\n':
+			return new KeyEvent(Key.ENTER, (char) c, timestamp);
+		case '\t':
+			return new KeyEvent(Key.TAB, (char) c, timestamp);
+		case '\b':
+		case 0x7F:
+			return new KeyEvent(Key.BACKSPACE, (char) c, timestamp);
+		default:
+			return new KeyEvent(Key.CHARACTER, (char) c, timestamp);
+		}
+	}
+
+	/**
+	 * Decodifica lo que sigue a un ESC. Las secuencias llegan de una vez, así que
+	 * si no hay más caracteres disponibles se ha pulsado la propia tecla ESC
+	 */
+	private KeyEvent escape(long timestamp) {
+		if (!engine.ready())
+			return new KeyEvent(Key.ESCAPE, (char) ESC, timestamp);
+		int c = engine.readChar();
+		if (c == '[')
+			return new KeyEvent(csi(), '\0', timestamp);
+		if (c == 'O')
+			return new KeyEvent(finalKey(engine.readChar()), '\0', timestamp);
+		pending = c;
+		return new KeyEvent(Key.ESCAPE, (char) ESC, timestamp);
+	}
+
+	/**
+	 * Decodifica una secuencia ESC [, cuyo primer parámetro numérico identifica
+	 * las teclas que terminan en ~
+	 */
+	private Key csi() {
+		int c = engine.readChar();
+		if (c == '[') {
+			// Teclas de función de la consola de Linux: ESC [ [ A a ESC [ [ E
+			c = engine.readChar();
+			return c >= 'A' && c <= 'E' ? Key.values()[Key.F1.ordinal() + c - 'A'] : Key.UNKNOWN;
+		}
+		int code = 0;
+		boolean first = true;
+		while (c >= '0' && c <= '9' || c == ';') {
+			if (c == ';')
+				first = false;
+			else if (first)
+				code = code * 10 + c - '0';
+			c = engine.readChar();
+		}
+		return c == '~' ? tildeKey(code) : finalKey(c);
+	}
+
+	private static Key finalKey(int c) {
+		switch (c) {
+		case 'A':
+			return Key.UP;
+		case 'B':
+			return Key.DOWN;
+		case 'C':
+			return Key.RIGHT;
+		case 'D':
+			return Key.LEFT;
+		case 'H':
+			return Key.HOME;
+		case 'F':
+			return Key.END;
+		case 'P':
+			return Key.F1;
+		case 'Q':
+			return Key.F2;
+		case 'R':
+			return Key.F3;
+		case 'S':
+			return Key.F4;
+		case 'Z':
+			return Key.BACK_TAB;
+		default:
+			return Key.UNKNOWN;
+		}
+	}
+
+	private static Key tildeKey(int code) {
+		switch (code) {
+		case 1:
+		case 7:
+			return Key.HOME;
+		case 2:
+			return Key.INSERT;
+		case 3:
+			return Key.DELETE;
+		case 4:
+		case 8:
+			return Key.END;
+		case 5:
+			return Key.PAGE_UP;
+		case 6:
+			return Key.PAGE_DOWN;
+		case 11:
+		case 12:
+		case 13:
+		case 14:
+		case 15:
+			return Key.values()[Key.F1.ordinal() + code - 11];
+		case 17:
+		case 18:
+		case 19:
+		case 20:
+		case 21:
+			return Key.values()[Key.F6.ordinal() + code - 17];
+		case 23:
+		case 24:
+			return Key.values()[Key.F11.ordinal() + code - 23];
+		default:
+			return Key.UNKNOWN;
+		}
+	}
+
+}
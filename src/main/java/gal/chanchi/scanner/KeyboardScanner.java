@@ -1,379 +1,1884 @@
-/*  
-Copyright (C) 2021 Santiago González Lago
-   
-This program is free software: you can redistribute it and/or modify
-it under the terms of the GNU General Public License as published by
-the Free Software Foundation, either version 3 of the License, or
-(at your option) any later version.
-
-This program is distributed in the hope that it will be useful,
-but WITHOUT ANY WARRANTY; without even the implied warranty of
-MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
-GNU General Public License for more details.
-
-You should have received a copy of the GNU General Public License
-along with this program.  If not, see <https://www.gnu.org/licenses/>.
-*/
-
-package gal.chanchi.scanner;
-
-import java.math.BigDecimal;
-import java.math.BigInteger;
-import java.util.InputMismatchException;
-import java.util.Locale;
-import java.util.Scanner;
-
-/**
- * <h2>KeyboardScanner</h2>
- * 
- * Librería que simplifica el uso de la clase Scanner cuando se utiliza para
- * leer datos por teclado
- * 
- * @author Santiago González Lago
- * @version 1.0
- */
-public final class KeyboardScanner {
-	private static final int DEFAULT_ATTEMPT_LIMIT = 1;
-
-	private Scanner sc;
-	private boolean lineInBuffer;
-	private int attemptLimit;
-
-	/**
-	 * Constructor por defecto
-	 */
-	public KeyboardScanner() {
-		this(DEFAULT_ATTEMPT_LIMIT);
-	}
-
-	/**
-	 * Este constructor permite modificar el número de intentos de lectura que harán
-	 * los métodos antes de devolver una excepción
-	 * 
-	 * @param attemptLimit El límite de intentos de lectura al usar métodos
-	 */
-	public KeyboardScanner(int attemptLimit) {
-		sc = new Scanner(System.in).useLocale(Locale.ENGLISH);
-		lineInBuffer = false;
-		this.attemptLimit = attemptLimit;
-	}
-
-	/**
-	 * Este constructor permite modificar el Locale utilizado por el Scanner
-	 * subyacente
-	 * 
-	 * @param locale El Locale a utilizar
-	 */
-	public KeyboardScanner(Locale locale) {
-		this();
-		sc.useLocale(locale);
-	}
-
-	/**
-	 * Este constructor permite modificar el número de intentos de lectura que harán
-	 * los métodos antes de devolver una excepción y el Locale utilizado por el
-	 * Scanner subyacente
-	 * 
-	 * @param attemptLimit El límite de intentos de lectura al usar métodos
-	 * @param locale       El Locale a utilizar
-	 */
-	public KeyboardScanner(int attemptLimit, Locale locale) {
-		this(attemptLimit);
-		sc.useLocale(locale);
-	}
-
-	/**
-	 * Modifica el Locale utilizado por el Scanner subyacente<br/>
-	 * Funciona igual que {@link #setLocale(Locale)}
-	 * 
-	 * @param locale El Locale a utilizar
-	 */
-	public void useLocale(Locale locale) {
-		sc.useLocale(locale);
-	}
-
-	/**
-	 * Modifica el Locale utilizado por el Scanner subyacente<br/>
-	 * Funciona igual que {@link #useLocale(Locale)}
-	 * 
-	 * @param locale El Locale a utilizar
-	 */
-	public void setLocale(Locale locale) {
-		useLocale(locale);
-	}
-
-	/**
-	 * Modifica el número de intentos de lectura que harán los métodos antes de
-	 * devolver una excepción
-	 * 
-	 * @param attemptLimit El límite de intentos de lectura al usar métodos
-	 */
-	public void setAttemptLimit(int attemptLimit) {
-		this.attemptLimit = attemptLimit;
-	}
-
-	/**
-	 * Cierra el Scanner subyacente
-	 */
-	public void close() {
-		sc.close();
-	}
-
-	/**
-	 * Obtiene la siguiente línea introducida por teclado
-	 * 
-	 * @return La línea leída
-	 */
-	public String nextLine() {
-		cleanBuffer();
-		return sc.nextLine();
-	}
-
-	private void cleanBuffer() {
-		if (lineInBuffer) {
-			sc.nextLine();
-			lineInBuffer = false;
-		}
-	}
-
-	/**
-	 * Obtiene el primer byte en el buffer del teclado, o el siguiente que se
-	 * introduzca, si no lo hubiese
-	 * 
-	 * @return El byte leído
-	 * @throws InputMismatchException Si no puede leer ningún byte
-	 */
-	public byte nextByte() throws InputMismatchException {
-		boolean error;
-		int attempts = 0;
-		byte input = 0;
-		do {
-			error = false;
-			try {
-				input = sc.nextByte();
-				lineInBuffer = true;
-			} catch (InputMismatchException ex) {
-				error = true;
-				attempts++;
-				sc.nextLine();
-				if (attempts >= attemptLimit)
-					throw ex;
-			}
-		} while (error);
-		return input;
-	}
-
-	/**
-	 * Obtiene el primer short en el buffer del teclado, o el siguiente que se
-	 * introduzca, si no lo hubiese
-	 * 
-	 * @return El short leído
-	 * @throws InputMismatchException Si no puede leer ningún short
-	 */
-	public short nextShort() throws InputMismatchException {
-		boolean error;
-		int attempts = 0;
-		short input = 0;
-		do {
-			error = false;
-			try {
-				input = sc.nextShort();
-				lineInBuffer = true;
-			} catch (InputMismatchException ex) {
-				error = true;
-				attempts++;
-				sc.nextLine();
-				if (attempts >= attemptLimit)
-					throw ex;
-			}
-		} while (error);
-		return input;
-	}
-
-	/**
-	 * Obtiene el primer int en el buffer del teclado, o el siguiente que se
-	 * introduzca, si no lo hubiese
-	 * 
-	 * @return El int leído
-	 * @throws InputMismatchException Si no puede leer ningún int
-	 */
-	public int nextInt() throws InputMismatchException {
-		boolean error;
-		int attempts = 0;
-		int input = 0;
-		do {
-			error = false;
-			try {
-				input = sc.nextInt();
-				lineInBuffer = true;
-			} catch (InputMismatchException ex) {
-				error = true;
-				attempts++;
-				sc.nextLine();
-				if (attempts >= attemptLimit)
-					throw ex;
-			}
-		} while (error);
-		return input;
-	}
-
-	/**
-	 * Obtiene el primer long en el buffer del teclado, o el siguiente que se
-	 * introduzca, si no lo hubiese
-	 * 
-	 * @return El long leído
-	 * @throws InputMismatchException Si no puede leer ningún long
-	 */
-	public long nextLong() throws InputMismatchException {
-		boolean error;
-		int attempts = 0;
-		long input = 0;
-		do {
-			error = false;
-			try {
-				input = sc.nextLong();
-				lineInBuffer = true;
-			} catch (InputMismatchException ex) {
-				error = true;
-				attempts++;
-				sc.nextLine();
-				if (attempts >= attemptLimit)
-					throw ex;
-			}
-		} while (error);
-		return input;
-	}
-
-	/**
-	 * Obtiene el primer float en el buffer del teclado, o el siguiente que se
-	 * introduzca, si no lo hubiese
-	 * 
-	 * @return El float leído
-	 * @throws InputMismatchException Si no puede leer ningún float
-	 */
-	public float nextFloat() throws InputMismatchException {
-		boolean error;
-		int attempts = 0;
-		float input = 0;
-		do {
-			error = false;
-			try {
-				input = sc.nextFloat();
-				lineInBuffer = true;
-			} catch (InputMismatchException ex) {
-				error = true;
-				attempts++;
-				sc.nextLine();
-				if (attempts >= attemptLimit)
-					throw ex;
-			}
-		} while (error);
-		return input;
-	}
-
-	/**
-	 * Obtiene el primer double en el buffer del teclado, o el siguiente que se
-	 * introduzca, si no lo hubiese
-	 * 
-	 * @return El double leído
-	 * @throws InputMismatchException Si no puede leer ningún double
-	 */
-	public double nextDouble() throws InputMismatchException {
-		boolean error;
-		int attempts = 0;
-		double input = 0;
-		do {
-			error = false;
-			try {
-				input = sc.nextDouble();
-				lineInBuffer = true;
-			} catch (InputMismatchException ex) {
-				error = true;
-				attempts++;
-				sc.nextLine();
-				if (attempts >= attemptLimit)
-					throw ex;
-			}
-		} while (error);
-		return input;
-	}
-
-	/**
-	 * Obtiene el primer char en el buffer del teclado, o el siguiente que se
-	 * introduzca, si no lo hubiese
-	 * 
-	 * @return El char leído
-	 * @throws StringIndexOutOfBoundsException Si no puede leer ningún char
-	 */
-	public char nextChar() throws StringIndexOutOfBoundsException {
-		boolean error;
-		int attempts = 0;
-		char input = 0;
-		do {
-			error = false;
-			try {
-				input = sc.nextLine().charAt(0);
-			} catch (StringIndexOutOfBoundsException ex) {
-				error = true;
-				attempts++;
-				sc.nextLine();
-				if (attempts >= attemptLimit)
-					throw ex;
-			}
-		} while (error);
-		return input;
-	}
-
-	/**
-	 * Obtiene el primer BigInteger en el buffer del teclado, o el siguiente que se
-	 * introduzca, si no lo hubiese
-	 * 
-	 * @return El BigInteger leído
-	 * @throws InputMismatchException Si no puede leer ningún BigInteger
-	 */
-	public BigInteger nextBigInteger() {
-		boolean error;
-		int attempts = 0;
-		BigInteger input = null;
-		do {
-			error = false;
-			try {
-				input = sc.nextBigInteger();
-			} catch (InputMismatchException ex) {
-				error = true;
-				attempts++;
-				sc.nextLine();
-				if (attempts >= attemptLimit)
-					throw ex;
-			}
-		} while (error);
-		return input;
-	}
-
-	/**
-	 * Obtiene el primer BigDecimal en el buffer del teclado, o el siguiente que se
-	 * introduzca, si no lo hubiese
-	 * 
-	 * @return El BigDecimal leído
-	 * @throws InputMismatchException Si no puede leer ningún BigDecimal
-	 */
-	public BigDecimal nextBigDecimal() {
-		boolean error;
-		int attempts = 0;
-		BigDecimal input = null;
-		do {
-			error = false;
-			try {
-				input = sc.nextBigDecimal();
-			} catch (InputMismatchException ex) {
-				error = true;
-				attempts++;
-				sc.nextLine();
-				if (attempts >= attemptLimit)
-					throw ex;
-			}
-		} while (error);
-		return input;
-	}
-
-}
+/*  
+Copyright (C) 2021 Santiago González Lago
+   
+This program is free software: you can redistribute it and/or modify
+it under the terms of the GNU General Public License as published by
+the Free Software Foundation, either version 3 of the License, or
+(at your option) any later version.
+
+This program is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with this program.  If not, see <https://www.gnu.org/licenses/>.
+*/
+
+package gal.chanchi.scanner;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.InputMismatchException;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.OptionalDouble;
+import java.util.OptionalInt;
+import java.util.OptionalLong;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Consumer;
+import java.util.function.DoubleConsumer;
+import java.util.function.Function;
+import java.util.function.IntConsumer;
+import java.util.function.LongConsumer;
+import java.util.stream.DoubleStream;
+import java.util.stream.IntStream;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * <h2>KeyboardScanner</h2>
+ * 
+ * Librería que simplifica el uso de la clase Scanner cuando se utiliza para
+ * leer datos por teclado
+ * 
+ * @author Santiago González Lago
+ * @version 1.0
+ */
+public final class KeyboardScanner {
+	/**
+	 * Resultado de los métodos tryNextX que indica que se ha leído un valor
+	 */
+	public static final int READ = InputEngine.READ;
+	/**
+	 * Resultado de los métodos tryNextX que indica que se han agotado los intentos
+	 * de lectura sin encontrar un valor válido
+	 */
+	public static final int MISMATCH = InputEngine.MISMATCH;
+	/**
+	 * Resultado de los métodos tryNextX que indica que no quedan tokens en la
+	 * entrada
+	 */
+	public static final int END = InputEngine.END;
+
+	private static final int DEFAULT_ATTEMPT_LIMIT = 1;
+	private static final int INITIAL_ARRAY_CAPACITY = 16;
+	private static final int STREAM_BATCH_SIZE = 1024;
+	private static final long MAX_TIMEOUT_NANOS = Long.MAX_VALUE / 2;
+
+	private final MeteredInputSource source;
+	private final ReadAheadInputSource readAhead;
+	private InputEngine engine;
+	private boolean lineInBuffer;
+	private int attemptLimit;
+	private boolean stackTraceEnabled;
+	private boolean rawMode;
+	// true si lee de la entrada estándar, la única que puede ser el terminal
+	private final boolean standardInput;
+	private volatile MetricsRecorder metrics;
+	private Map<Class<?>, ObjectTokenParser<?>> parsers;
+	private SerialExecutor asyncReads;
+
+	/**
+	 * Constructor por defecto
+	 */
+	public KeyboardScanner() {
+		this(DEFAULT_ATTEMPT_LIMIT);
+	}
+
+	/**
+	 * Este constructor permite modificar el número de intentos de lectura que harán
+	 * los métodos antes de devolver una excepción
+	 * 
+	 * @param attemptLimit El límite de intentos de lectura al usar métodos
+	 */
+	public KeyboardScanner(int attemptLimit) {
+		this(attemptLimit, Engine.FAST);
+	}
+
+	/**
+	 * Este constructor permite elegir el motor de lectura subyacente
+	 * 
+	 * @param engine El motor de lectura a utilizar
+	 */
+	public KeyboardScanner(Engine engine) {
+		this(DEFAULT_ATTEMPT_LIMIT, engine);
+	}
+
+	/**
+	 * Este constructor permite modificar el número de intentos de lectura que harán
+	 * los métodos antes de devolver una excepción y elegir el motor de lectura
+	 * subyacente<br/>
+	 * Todos los KeyboardScanner que leen del teclado comparten la entrada
+	 * estándar, aunque usen motores distintos, y pueden leer de ella desde varios
+	 * hilos a la vez: cada token, línea o bloque de valores lo recibe uno solo
+	 * 
+	 * @param attemptLimit El límite de intentos de lectura al usar métodos
+	 * @param engine       El motor de lectura a utilizar
+	 */
+	public KeyboardScanner(int attemptLimit, Engine engine) {
+		this(StdinHub.get(), engine, attemptLimit);
+	}
+
+	/**
+	 * Todos los KeyboardScanner que leen del teclado comparten la lectura de la
+	 * entrada estándar, de forma que ninguno se queda con la entrada que ha
+	 * leído por adelantado. Cada uno conserva su propio Locale, sus métricas y su
+	 * propio estado de la línea actual
+	 * 
+	 * @param stdin        La lectura compartida de la entrada estándar
+	 * @param engine       El motor de lectura a utilizar
+	 * @param attemptLimit El límite de intentos de lectura al usar métodos
+	 */
+	private KeyboardScanner(StdinHub stdin, Engine engine, int attemptLimit) {
+		readAhead = stdin.readAhead;
+		// Las métricas se aplican a la fuente compartida en cada operación
+		source = null;
+		this.engine = new SharedInputEngine(stdin, engine);
+		standardInput = true;
+		lineInBuffer = false;
+		this.attemptLimit = attemptLimit;
+		stackTraceEnabled = true;
+	}
+
+	/**
+	 * Este constructor permite leer de un fichero en lugar de del teclado. El
+	 * fichero se proyecta en memoria, desde donde se copia por bloques al buffer
+	 * del motor de lectura, y se interpreta con la codificación por defecto
+	 * 
+	 * @param path La ruta del fichero
+	 * @throws IOException Si no se puede abrir el fichero
+	 */
+	public KeyboardScanner(Path path) throws IOException {
+		this(path, Engine.FAST);
+	}
+
+	/**
+	 * Este constructor permite leer de un fichero en lugar de del teclado y elegir
+	 * el motor de lectura subyacente. El fichero se proyecta en memoria, desde
+	 * donde se copia por bloques al buffer del motor de lectura, y se interpreta
+	 * con la codificación por defecto
+	 * 
+	 * @param path   La ruta del fichero
+	 * @param engine El motor de lectura a utilizar
+	 * @throws IOException Si no se puede abrir el fichero
+	 */
+	public KeyboardScanner(Path path, Engine engine) throws IOException {
+		this(InputSource.of(path), DEFAULT_ATTEMPT_LIMIT, engine);
+	}
+
+	/**
+	 * Este constructor permite leer de cualquier fuente en lugar de del teclado
+	 * 
+	 * @param source La fuente de la que leer
+	 * @see InputSource
+	 */
+	public KeyboardScanner(InputSource source) {
+		this(source, DEFAULT_ATTEMPT_LIMIT, Engine.FAST);
+	}
+
+	/**
+	 * Este constructor permite leer de cualquier fuente en lugar de del teclado,
+	 * modificar el número de intentos de lectura que harán los métodos antes de
+	 * devolver una excepción y elegir el motor de lectura subyacente
+	 * 
+	 * @param source       La fuente de la que leer
+	 * @param attemptLimit El límite de intentos de lectura al usar métodos
+	 * @param engine       El motor de lectura a utilizar
+	 * @see InputSource
+	 */
+	public KeyboardScanner(InputSource source, int attemptLimit, Engine engine) {
+		readAhead = new ReadAheadInputSource(source);
+		this.source = new MeteredInputSource(readAhead);
+		this.engine = engine.open(this.source);
+		standardInput = source instanceof StdinChannelSource;
+		lineInBuffer = false;
+		this.attemptLimit = attemptLimit;
+		stackTraceEnabled = true;
+	}
+
+	/**
+	 * Este constructor permite modificar el Locale utilizado por el Scanner
+	 * subyacente
+	 * 
+	 * @param locale El Locale a utilizar
+	 */
+	public KeyboardScanner(Locale locale) {
+		this();
+		engine.useLocale(locale);
+	}
+
+	/**
+	 * Este constructor permite modificar el número de intentos de lectura que harán
+	 * los métodos antes de devolver una excepción y el Locale utilizado por el
+	 * Scanner subyacente
+	 * 
+	 * @param attemptLimit El límite de intentos de lectura al usar métodos
+	 * @param locale       El Locale a utilizar
+	 */
+	public KeyboardScanner(int attemptLimit, Locale locale) {
+		this(attemptLimit);
+		engine.useLocale(locale);
+	}
+
+	/**
+	 * Este constructor permite modificar el número de intentos de lectura que harán
+	 * los métodos antes de devolver una excepción, el Locale utilizado y el motor
+	 * de lectura subyacente
+	 * 
+	 * @param attemptLimit El límite de intentos de lectura al usar métodos
+	 * @param locale       El Locale a utilizar
+	 * @param engine       El motor de lectura a utilizar
+	 */
+	public KeyboardScanner(int attemptLimit, Locale locale, Engine engine) {
+		this(attemptLimit, engine);
+		this.engine.useLocale(locale);
+	}
+
+	/**
+	 * Modifica el Locale utilizado por el Scanner subyacente<br/>
+	 * Funciona igual que {@link #setLocale(Locale)}
+	 * 
+	 * @param locale El Locale a utilizar
+	 */
+	public void useLocale(Locale locale) {
+		engine.useLocale(locale);
+	}
+
+	/**
+	 * Modifica el Locale utilizado por el Scanner subyacente<br/>
+	 * Funciona igual que {@link #useLocale(Locale)}
+	 * 
+	 * @param locale El Locale a utilizar
+	 */
+	public void setLocale(Locale locale) {
+		useLocale(locale);
+	}
+
+	/**
+	 * Modifica el número de intentos de lectura que harán los métodos antes de
+	 * devolver una excepción
+	 * 
+	 * @param attemptLimit El límite de intentos de lectura al usar métodos
+	 */
+	public void setAttemptLimit(int attemptLimit) {
+		this.attemptLimit = attemptLimit;
+	}
+
+	/**
+	 * Indica si las excepciones que se lanzan al agotar los intentos de lectura
+	 * deben incluir la traza de la pila. Sin ella crearlas es mucho más barato,
+	 * lo que puede ser útil al procesar entradas con muchos datos incorrectos.
+	 * Por defecto se incluye
+	 * 
+	 * @param stackTraceEnabled false para no incluir la traza de la pila
+	 */
+	public void setStackTraceEnabled(boolean stackTraceEnabled) {
+		this.stackTraceEnabled = stackTraceEnabled;
+	}
+
+	/**
+	 * Activa la lectura anticipada: un hilo propio lee la entrada en un buffer
+	 * mientras se interpreta lo leído en el otro, de forma que la espera a la
+	 * entrada y la interpretación se solapan. Compensa con fuentes lentas y
+	 * entradas grandes; con el teclado no aporta nada.<br/>
+	 * El hilo lee por adelantado hasta dos bloques de la fuente, que ya no se
+	 * pueden leer desde fuera de este KeyboardScanner. No se puede desactivar, y
+	 * llamarlo de nuevo no tiene efecto
+	 */
+	public void enableReadAhead() {
+		readAhead.start();
+	}
+
+	/**
+	 * Activa las métricas de lectura: bytes leídos, tokens de cada tipo y leídos
+	 * con parsers propios, líneas, reintentos, tokens rechazados y tiempo de
+	 * espera a la entrada frente a tiempo de interpretación.<br/>
+	 * Mientras no se activan no tienen coste, y una vez activadas cada lectura
+	 * añade dos medidas de tiempo. Llamarlo de nuevo no reinicia los contadores.
+	 * Si se lee del teclado, sólo se cuenta lo que lee este KeyboardScanner
+	 * 
+	 * @see #getMetrics()
+	 */
+	public void enableMetrics() {
+		if (metrics == null) {
+			metrics = new MetricsRecorder();
+			if (source == null) {
+				((SharedInputEngine) engine).setMetrics(metrics);
+			} else {
+				engine = new MeteredInputEngine(engine, metrics);
+				source.setMetrics(metrics);
+			}
+		}
+	}
+
+	/**
+	 * Obtiene una copia de las métricas de lectura. Se puede llamar desde
+	 * cualquier hilo, sin detener la lectura
+	 * 
+	 * @return Las métricas, que estarán a cero si no se han activado
+	 * @see #enableMetrics()
+	 */
+	public ReadMetrics getMetrics() {
+		MetricsRecorder metrics = this.metrics;
+		return metrics == null ? new MetricsRecorder().snapshot() : metrics.snapshot();
+	}
+
+	/**
+	 * Activa o desactiva el modo sin búfer de línea del terminal, en el que
+	 * {@link #nextChar()} devuelve cada tecla en cuanto se pulsa. Sólo está
+	 * disponible en sistemas tipo Unix cuando se lee del teclado, o de
+	 * {@link InputSource#stdin()}, y la entrada es un terminal interactivo; con
+	 * cualquier otra fuente el terminal no se toca. La configuración del
+	 * terminal se restaura al desactivarlo, al cerrar el KeyboardScanner o al
+	 * terminar la JVM
+	 * 
+	 * @param rawMode true para activar el modo
+	 * @return true si el modo queda activo, false si se ha desactivado o el
+	 *         terminal no lo admite
+	 * @throws UncheckedIOException Si no se puede cambiar la configuración del
+	 *                              terminal
+	 */
+	public boolean setRawMode(boolean rawMode) {
+		if (rawMode && !this.rawMode && standardInput && RawTerminal.supported()) {
+			RawTerminal.enter();
+			this.rawMode = true;
+		} else if (!rawMode && this.rawMode) {
+			RawTerminal.exit();
+			this.rawMode = false;
+		}
+		return this.rawMode;
+	}
+
+	/**
+	 * Empieza a leer las pulsaciones de teclas en un hilo propio, activando el
+	 * modo sin búfer de línea si el terminal lo admite. Mientras el lector está
+	 * activo no deben usarse otros métodos de lectura. Al cerrarlo se detiene su
+	 * hilo, aunque esté esperando una tecla, antes de restaurar el terminal, así
+	 * que no consume nada de lo que llegue después. Activa la lectura anticipada,
+	 * que es la que permite interrumpir esa espera
+	 * 
+	 * @return El lector de eventos, que al cerrarse restaura el terminal
+	 * @see #setRawMode(boolean)
+	 */
+	public KeyEventReader keyEvents() {
+		return keyEvents(null);
+	}
+
+	/**
+	 * Igual que {@link #keyEvents()}, pero entregando cada evento a un listener
+	 * desde otro hilo, de forma que un listener lento no retrase la lectura
+	 * 
+	 * @param listener El listener que recibe los eventos, o null para
+	 *                 obtenerlos del lector
+	 * @return El lector de eventos, que al cerrarse restaura el terminal
+	 */
+	public KeyEventReader keyEvents(Consumer<? super KeyEvent> listener) {
+		boolean enabled = !rawMode && setRawMode(true);
+		return new KeyEventReader(engine, readAhead, () -> {
+			if (enabled)
+				setRawMode(false);
+		}).start(listener);
+	}
+
+	/**
+	 * Cierra el Scanner subyacente, restaurando el terminal si estaba en el modo
+	 * sin búfer de línea. Las lecturas siguientes lanzan
+	 * {@link IllegalStateException}. Si se lee del teclado la entrada estándar no
+	 * se cierra, ya que la comparten todos los KeyboardScanner
+	 */
+	public void close() {
+		setRawMode(false);
+		engine.close();
+	}
+
+	/**
+	 * Obtiene la siguiente línea introducida por teclado
+	 * 
+	 * @return La línea leída
+	 */
+	public String nextLine() {
+		cleanBuffer();
+		return engine.nextLine();
+	}
+
+	/**
+	 * Obtiene la siguiente línea introducida por teclado sin copiarla a un
+	 * String. La vista se reutiliza, por lo que sólo es válida hasta la siguiente
+	 * lectura; para conservarla hay que copiarla con
+	 * {@link CharSequence#toString()} o {@link #copyTo(CharSequence, char[], int)}
+	 * 
+	 * @return La línea leída
+	 */
+	public CharSequence nextLineView() {
+		cleanBuffer();
+		return engine.nextLineView();
+	}
+
+	/**
+	 * Copia una vista obtenida con {@link #nextLineView()} a un array de char, que
+	 * se puede reutilizar entre líneas
+	 * 
+	 * @param view   La vista
+	 * @param dst    El array de destino
+	 * @param offset La posición del primer char en el array
+	 * @return El número de char copiados, que es la longitud de la vista
+	 * @throws IndexOutOfBoundsException Si la vista no cabe en el array
+	 */
+	public static int copyTo(CharSequence view, char[] dst, int offset) {
+		int length = view.length();
+		Objects.checkFromIndexSize(offset, length, dst.length);
+		for (int i = 0; i < length; i++)
+			dst[offset + i] = view.charAt(i);
+		return length;
+	}
+
+	/**
+	 * Descarta la línea actual tras un intento de lectura fallido
+	 * 
+	 * @param attempts El número de intentos fallidos, incluido este
+	 * @return true si quedan intentos, false si se ha alcanzado el límite
+	 */
+	private boolean retry(int attempts) {
+		engine.skipLine();
+		boolean retry = attempts < attemptLimit;
+		if (metrics != null)
+			metrics.add(retry ? MetricsRecorder.RETRIES : MetricsRecorder.MISMATCHES, 1);
+		return retry;
+	}
+
+	/**
+	 * Lee el siguiente token con un parser, lanzando una excepción si no puede
+	 * 
+	 * @param parser El parser
+	 * @return El valor leído
+	 * @throws InputMismatchException Si no puede leer ningún token válido
+	 * @throws NoSuchElementException Si no quedan tokens en la entrada
+	 */
+	private TokenValue next(TokenParser parser) {
+		if (tryNext(parser, true) == END)
+			throw new NoSuchElementException();
+		return engine.value();
+	}
+
+	/**
+	 * Lee el siguiente token con un parser, descartando la línea actual tras cada
+	 * intento fallido hasta alcanzar el límite de intentos. Todas las lecturas de
+	 * tokens pasan por aquí, y al ser un método pequeño se integra en cada una con
+	 * su parser como constante. La excepción sólo se crea al agotar los intentos
+	 * 
+	 * @param parser     El parser
+	 * @param exceptions true para lanzar una excepción al agotar los intentos en
+	 *                   lugar de devolver {@link #MISMATCH}
+	 * @return {@link #READ}, {@link #MISMATCH} o {@link #END}
+	 * @throws InputMismatchException Si exceptions es true y no puede leer ningún
+	 *                                token válido
+	 */
+	private int tryNext(TokenParser parser, boolean exceptions) {
+		int attempts = 0;
+		int status;
+		while ((status = engine.read(parser)) == MISMATCH) {
+			attempts++;
+			String message = exceptions && attempts >= attemptLimit ? engine.mismatchMessage(parser) : null;
+			if (!retry(attempts)) {
+				if (exceptions)
+					throw mismatch(message);
+				break;
+			}
+		}
+		return status;
+	}
+
+	/**
+	 * Construye el mensaje de una lectura por bloques que ha encontrado un token
+	 * que no es del tipo esperado, antes de descartar la línea
+	 * 
+	 * @param type  El nombre del tipo esperado
+	 * @param index La posición del valor en el resultado, o -1 si no tiene
+	 * @return El mensaje
+	 */
+	private String rejected(String type, int index) {
+		String at = index < 0 ? "" : " at index " + index;
+		return "Invalid " + type + at + ": \"" + engine.token() + "\"";
+	}
+
+	private InputMismatchException mismatch(String message) {
+		return stackTraceEnabled ? new InputMismatchException(message) : new StacklessInputMismatchException(message);
+	}
+
+	private void cleanBuffer() {
+		if (lineInBuffer) {
+			// Si otro KeyboardScanner ha leído desde entonces, el resto de la línea
+			// ya no es de éste
+			if (engine.lastReader())
+				engine.skipLine();
+			lineInBuffer = false;
+		}
+	}
+
+	/**
+	 * Obtiene el primer byte en el buffer del teclado, o el siguiente que se
+	 * introduzca, si no lo hubiese
+	 * 
+	 * @return El byte leído
+	 * @throws InputMismatchException Si no puede leer ningún byte
+	 */
+	public byte nextByte() throws InputMismatchException {
+		byte value = (byte) next(BuiltInParser.BYTE).longValue;
+		lineInBuffer = true;
+		return value;
+	}
+
+	/**
+	 * Obtiene el primer short en el buffer del teclado, o el siguiente que se
+	 * introduzca, si no lo hubiese
+	 * 
+	 * @return El short leído
+	 * @throws InputMismatchException Si no puede leer ningún short
+	 */
+	public short nextShort() throws InputMismatchException {
+		short value = (short) next(BuiltInParser.SHORT).longValue;
+		lineInBuffer = true;
+		return value;
+	}
+
+	/**
+	 * Obtiene el primer int en el buffer del teclado, o el siguiente que se
+	 * introduzca, si no lo hubiese
+	 * 
+	 * @return El int leído
+	 * @throws InputMismatchException Si no puede leer ningún int
+	 */
+	public int nextInt() throws InputMismatchException {
+		int value = (int) next(BuiltInParser.INT).longValue;
+		lineInBuffer = true;
+		return value;
+	}
+
+	/**
+	 * Obtiene el primer long en el buffer del teclado, o el siguiente que se
+	 * introduzca, si no lo hubiese
+	 * 
+	 * @return El long leído
+	 * @throws InputMismatchException Si no puede leer ningún long
+	 */
+	public long nextLong() throws InputMismatchException {
+		long value = next(BuiltInParser.LONG).longValue;
+		lineInBuffer = true;
+		return value;
+	}
+
+	/**
+	 * Obtiene el primer float en el buffer del teclado, o el siguiente que se
+	 * introduzca, si no lo hubiese
+	 * 
+	 * @return El float leído
+	 * @throws InputMismatchException Si no puede leer ningún float
+	 */
+	public float nextFloat() throws InputMismatchException {
+		float value = (float) next(BuiltInParser.FLOAT).doubleValue;
+		lineInBuffer = true;
+		return value;
+	}
+
+	/**
+	 * Obtiene el primer double en el buffer del teclado, o el siguiente que se
+	 * introduzca, si no lo hubiese
+	 * 
+	 * @return El double leído
+	 * @throws InputMismatchException Si no puede leer ningún double
+	 */
+	public double nextDouble() throws InputMismatchException {
+		double value = next(BuiltInParser.DOUBLE).doubleValue;
+		lineInBuffer = true;
+		return value;
+	}
+
+	/**
+	 * Copia el siguiente token, sin decodificar, a un array de bytes
+	 * 
+	 * @param dst El array de destino
+	 * @return La longitud del token en bytes
+	 * @throws NoSuchElementException    Si no quedan tokens en la entrada
+	 * @throws IndexOutOfBoundsException Si el token no cabe en el array, en cuyo
+	 *                                   caso no se consume
+	 */
+	public int nextToken(byte[] dst) {
+		ByteBuffer token = engine.tokenBytes();
+		if (token == null)
+			throw new NoSuchElementException();
+		int length = token.remaining();
+		if (length > dst.length)
+			throw new IndexOutOfBoundsException("Token length " + length + " exceeds array length " + dst.length);
+		token.get(dst, 0, length);
+		engine.skipToken();
+		lineInBuffer = true;
+		return length;
+	}
+
+	/**
+	 * Copia el siguiente token a un array de char
+	 * 
+	 * @param dst El array de destino
+	 * @return La longitud del token en char
+	 * @throws NoSuchElementException    Si no quedan tokens en la entrada
+	 * @throws IndexOutOfBoundsException Si el token no cabe en el array, en cuyo
+	 *                                   caso no se consume
+	 */
+	public int nextToken(char[] dst) {
+		CharSequence token = engine.token();
+		if (token == null)
+			throw new NoSuchElementException();
+		int length = token.length();
+		if (length > dst.length)
+			throw new IndexOutOfBoundsException("Token length " + length + " exceeds array length " + dst.length);
+		for (int i = 0; i < length; i++)
+			dst[i] = token.charAt(i);
+		engine.skipToken();
+		lineInBuffer = true;
+		return length;
+	}
+
+	/**
+	 * Obtiene los bytes del siguiente token, sin decodificar ni copiar. El buffer
+	 * se reutiliza, por lo que sólo es válido hasta la siguiente lectura, y el
+	 * token ocupa sus bytes entre {@link ByteBuffer#position()} y
+	 * {@link ByteBuffer#limit()}
+	 * 
+	 * @return Un buffer de solo lectura con el token
+	 * @throws NoSuchElementException Si no quedan tokens en la entrada
+	 */
+	public ByteBuffer nextTokenSlice() {
+		ByteBuffer token = engine.tokenBytes();
+		if (token == null)
+			throw new NoSuchElementException();
+		engine.skipToken();
+		lineInBuffer = true;
+		return token;
+	}
+
+	/**
+	 * Comprueba si el siguiente token es un int, sin consumirlo. Si lo es,
+	 * {@link #nextInt()} lo lee sin volver a interpretarlo
+	 * 
+	 * @return true si el siguiente token es un int
+	 */
+	public boolean hasNextInt() {
+		return engine.hasNext(TokenType.INT);
+	}
+
+	/**
+	 * Comprueba si el siguiente token es un long, sin consumirlo. Si lo es,
+	 * {@link #nextLong()} lo lee sin volver a interpretarlo
+	 * 
+	 * @return true si el siguiente token es un long
+	 */
+	public boolean hasNextLong() {
+		return engine.hasNext(TokenType.LONG);
+	}
+
+	/**
+	 * Comprueba si el siguiente token es un double, sin consumirlo. Si lo es,
+	 * {@link #nextDouble()} lo lee sin volver a interpretarlo
+	 * 
+	 * @return true si el siguiente token es un double
+	 */
+	public boolean hasNextDouble() {
+		return engine.hasNext(TokenType.DOUBLE);
+	}
+
+	/**
+	 * Igual que {@link #nextInt()}, pero sin lanzar una excepción al llegar al
+	 * final de la entrada
+	 * 
+	 * @return El int leído, o un Optional vacío si no quedan tokens
+	 * @throws InputMismatchException Si no puede leer ningún int
+	 */
+	public OptionalInt tryNextInt() throws InputMismatchException {
+		if (tryNext(BuiltInParser.INT, true) == END)
+			return OptionalInt.empty();
+		lineInBuffer = true;
+		return OptionalInt.of((int) engine.value().longValue);
+	}
+
+	/**
+	 * Igual que {@link #nextInt()}, pero sin crear objetos ni lanzar
+	 * excepciones, lo que permite leer hasta el final de la entrada sin coste
+	 * adicional
+	 * 
+	 * @param holder El contenedor en el que guardar el int leído
+	 * @return {@link #READ} si se ha leído el int, {@link #MISMATCH} si se han
+	 *         agotado los intentos de lectura o {@link #END} si no quedan tokens
+	 */
+	public int tryNextInt(ValueHolder holder) {
+		Objects.requireNonNull(holder);
+		int status = tryNext(BuiltInParser.INT, false);
+		if (status == READ) {
+			holder.setLong((int) engine.value().longValue);
+			lineInBuffer = true;
+		}
+		return status;
+	}
+
+	/**
+	 * Igual que {@link #nextLong()}, pero sin lanzar una excepción al llegar al
+	 * final de la entrada
+	 * 
+	 * @return El long leído, o un Optional vacío si no quedan tokens
+	 * @throws InputMismatchException Si no puede leer ningún long
+	 */
+	public OptionalLong tryNextLong() throws InputMismatchException {
+		if (tryNext(BuiltInParser.LONG, true) == END)
+			return OptionalLong.empty();
+		lineInBuffer = true;
+		return OptionalLong.of(engine.value().longValue);
+	}
+
+	/**
+	 * Igual que {@link #nextLong()}, pero sin crear objetos ni lanzar
+	 * excepciones, lo que permite leer hasta el final de la entrada sin coste
+	 * adicional
+	 * 
+	 * @param holder El contenedor en el que guardar el long leído
+	 * @return {@link #READ} si se ha leído el long, {@link #MISMATCH} si se han
+	 *         agotado los intentos de lectura o {@link #END} si no quedan tokens
+	 */
+	public int tryNextLong(ValueHolder holder) {
+		Objects.requireNonNull(holder);
+		int status = tryNext(BuiltInParser.LONG, false);
+		if (status == READ) {
+			holder.setLong(engine.value().longValue);
+			lineInBuffer = true;
+		}
+		return status;
+	}
+
+	/**
+	 * Igual que {@link #nextDouble()}, pero sin lanzar una excepción al llegar al
+	 * final de la entrada
+	 * 
+	 * @return El double leído, o un Optional vacío si no quedan tokens
+	 * @throws InputMismatchException Si no puede leer ningún double
+	 */
+	public OptionalDouble tryNextDouble() throws InputMismatchException {
+		if (tryNext(BuiltInParser.DOUBLE, true) == END)
+			return OptionalDouble.empty();
+		lineInBuffer = true;
+		return OptionalDouble.of(engine.value().doubleValue);
+	}
+
+	/**
+	 * Igual que {@link #nextDouble()}, pero sin crear objetos ni lanzar
+	 * excepciones, lo que permite leer hasta el final de la entrada sin coste
+	 * adicional
+	 * 
+	 * @param holder El contenedor en el que guardar el double leído
+	 * @return {@link #READ} si se ha leído el double, {@link #MISMATCH} si se han
+	 *         agotado los intentos de lectura o {@link #END} si no quedan tokens
+	 */
+	public int tryNextDouble(ValueHolder holder) {
+		Objects.requireNonNull(holder);
+		int status = tryNext(BuiltInParser.DOUBLE, false);
+		if (status == READ) {
+			holder.setDouble(engine.value().doubleValue);
+			lineInBuffer = true;
+		}
+		return status;
+	}
+
+	/**
+	 * Obtiene el primer char en el buffer del teclado, o el siguiente que se
+	 * introduzca, si no lo hubiese. En el modo sin búfer de línea devuelve la
+	 * siguiente tecla pulsada, sin esperar a Enter
+	 * 
+	 * @return El char leído
+	 * @see #setRawMode(boolean)
+	 * @throws StringIndexOutOfBoundsException Si no puede leer ningún char
+	 */
+	public char nextChar() throws StringIndexOutOfBoundsException {
+		if (rawMode) {
+			int c = engine.readChar();
+			if (c < 0)
+				throw new NoSuchElementException();
+			return (char) c;
+		}
+		int attempts = 0;
+		String line;
+		while ((line = engine.nextLine()).isEmpty()) {
+			attempts++;
+			if (!retry(attempts))
+				throw stackTraceEnabled ? new StringIndexOutOfBoundsException(0)
+						: new StacklessStringIndexOutOfBoundsException(0);
+		}
+		return line.charAt(0);
+	}
+
+	/**
+	 * Obtiene el primer BigInteger en el buffer del teclado, o el siguiente que se
+	 * introduzca, si no lo hubiese
+	 * 
+	 * @return El BigInteger leído
+	 * @throws InputMismatchException Si no puede leer ningún BigInteger
+	 */
+	public BigInteger nextBigInteger() {
+		return (BigInteger) next(BuiltInParser.BIG_INTEGER).objectValue;
+	}
+
+	/**
+	 * Obtiene el primer BigDecimal en el buffer del teclado, o el siguiente que se
+	 * introduzca, si no lo hubiese
+	 * 
+	 * @return El BigDecimal leído
+	 * @throws InputMismatchException Si no puede leer ningún BigDecimal
+	 */
+	public BigDecimal nextBigDecimal() {
+		return (BigDecimal) next(BuiltInParser.BIG_DECIMAL).objectValue;
+	}
+
+	/**
+	 * Obtiene el primer int en el buffer del teclado, o el siguiente que se
+	 * introduzca, si no lo hubiese, interpretándolo con un parser propio
+	 * 
+	 * @param parser El parser con el que interpretar el token
+	 * @return El int leído
+	 * @throws InputMismatchException Si no puede leer ningún token válido
+	 */
+	public int nextInt(IntTokenParser parser) throws InputMismatchException {
+		int value = (int) next(Objects.requireNonNull(parser)).longValue;
+		lineInBuffer = true;
+		return value;
+	}
+
+	/**
+	 * Obtiene el primer long en el buffer del teclado, o el siguiente que se
+	 * introduzca, si no lo hubiese, interpretándolo con un parser propio
+	 * 
+	 * @param parser El parser con el que interpretar el token
+	 * @return El long leído
+	 * @throws InputMismatchException Si no puede leer ningún token válido
+	 */
+	public long nextLong(LongTokenParser parser) throws InputMismatchException {
+		long value = next(Objects.requireNonNull(parser)).longValue;
+		lineInBuffer = true;
+		return value;
+	}
+
+	/**
+	 * Obtiene el primer double en el buffer del teclado, o el siguiente que se
+	 * introduzca, si no lo hubiese, interpretándolo con un parser propio
+	 * 
+	 * @param parser El parser con el que interpretar el token
+	 * @return El double leído
+	 * @throws InputMismatchException Si no puede leer ningún token válido
+	 */
+	public double nextDouble(DoubleTokenParser parser) throws InputMismatchException {
+		double value = next(Objects.requireNonNull(parser)).doubleValue;
+		lineInBuffer = true;
+		return value;
+	}
+
+	/**
+	 * Obtiene el primer objeto en el buffer del teclado, o el siguiente que se
+	 * introduzca, si no lo hubiese, interpretándolo con un parser propio
+	 * 
+	 * @param <T>    El tipo del objeto
+	 * @param parser El parser con el que interpretar el token
+	 * @return El objeto leído
+	 * @throws InputMismatchException Si no puede leer ningún token válido
+	 */
+	@SuppressWarnings("unchecked")
+	public <T> T next(ObjectTokenParser<T> parser) throws InputMismatchException {
+		T value = (T) next((TokenParser) Objects.requireNonNull(parser)).objectValue;
+		lineInBuffer = true;
+		return value;
+	}
+
+	/**
+	 * Registra el parser con el que {@link #next(Class)} lee los objetos de un
+	 * tipo, sustituyendo al anterior si lo hubiese
+	 * 
+	 * @param <T>    El tipo de los objetos
+	 * @param type   La clase de los objetos
+	 * @param parser El parser con el que interpretar los tokens
+	 */
+	public <T> void registerParser(Class<T> type, ObjectTokenParser<? extends T> parser) {
+		if (parsers == null)
+			parsers = new HashMap<>();
+		parsers.put(Objects.requireNonNull(type), Objects.requireNonNull(parser));
+	}
+
+	/**
+	 * Obtiene el primer objeto en el buffer del teclado, o el siguiente que se
+	 * introduzca, si no lo hubiese, interpretándolo con el parser registrado para
+	 * su tipo
+	 * 
+	 * @param <T>  El tipo del objeto
+	 * @param type La clase del objeto
+	 * @return El objeto leído
+	 * @throws InputMismatchException   Si no puede leer ningún token válido
+	 * @throws IllegalArgumentException Si no hay ningún parser registrado para el
+	 *                                  tipo
+	 * @see #registerParser(Class, ObjectTokenParser)
+	 */
+	public <T> T next(Class<T> type) throws InputMismatchException {
+		ObjectTokenParser<?> parser = parsers == null ? null : parsers.get(type);
+		if (parser == null)
+			throw new IllegalArgumentException("No parser registered for " + type);
+		return type.cast(next(parser));
+	}
+
+	/**
+	 * Establece el plazo de la lectura que empieza, que incluye todos sus
+	 * intentos
+	 * 
+	 * @param timeout El tiempo máximo de espera
+	 */
+	private void beginDeadline(Duration timeout) {
+		long nanos;
+		try {
+			nanos = Math.min(timeout.toNanos(), MAX_TIMEOUT_NANOS);
+		} catch (ArithmeticException ex) {
+			nanos = MAX_TIMEOUT_NANOS;
+		}
+		readAhead.setDeadline(System.nanoTime() + nanos);
+	}
+
+	/**
+	 * Igual que {@link #nextByte()}, pero esperando la entrada como mucho el tiempo
+	 * indicado. Si se agota, lo leído hasta entonces no se pierde y la siguiente
+	 * lectura continúa donde se quedó esta
+	 * 
+	 * @param timeout El tiempo máximo de espera
+	 * @return El byte leído
+	 * @throws InputMismatchException Si no puede leer ningún byte
+	 * @throws InputTimeoutException Si la entrada no llega a tiempo
+	 */
+	public byte nextByte(Duration timeout) throws InputMismatchException, InputTimeoutException {
+		beginDeadline(timeout);
+		try {
+			return nextByte();
+		} finally {
+			readAhead.clearDeadline();
+		}
+	}
+
+	/**
+	 * Igual que {@link #nextShort()}, pero esperando la entrada como mucho el tiempo
+	 * indicado. Si se agota, lo leído hasta entonces no se pierde y la siguiente
+	 * lectura continúa donde se quedó esta
+	 * 
+	 * @param timeout El tiempo máximo de espera
+	 * @return El short leído
+	 * @throws InputMismatchException Si no puede leer ningún short
+	 * @throws InputTimeoutException Si la entrada no llega a tiempo
+	 */
+	public short nextShort(Duration timeout) throws InputMismatchException, InputTimeoutException {
+		beginDeadline(timeout);
+		try {
+			return nextShort();
+		} finally {
+			readAhead.clearDeadline();
+		}
+	}
+
+	/**
+	 * Igual que {@link #nextInt()}, pero esperando la entrada como mucho el tiempo
+	 * indicado. Si se agota, lo leído hasta entonces no se pierde y la siguiente
+	 * lectura continúa donde se quedó esta
+	 * 
+	 * @param timeout El tiempo máximo de espera
+	 * @return El int leído
+	 * @throws InputMismatchException Si no puede leer ningún int
+	 * @throws InputTimeoutException Si la entrada no llega a tiempo
+	 */
+	public int nextInt(Duration timeout) throws InputMismatchException, InputTimeoutException {
+		beginDeadline(timeout);
+		try {
+			return nextInt();
+		} finally {
+			readAhead.clearDeadline();
+		}
+	}
+
+	/**
+	 * Igual que {@link #nextLong()}, pero esperando la entrada como mucho el tiempo
+	 * indicado. Si se agota, lo leído hasta entonces no se pierde y la siguiente
+	 * lectura continúa donde se quedó esta
+	 * 
+	 * @param timeout El tiempo máximo de espera
+	 * @return El long leído
+	 * @throws InputMismatchException Si no puede leer ningún long
+	 * @throws InputTimeoutException Si la entrada no llega a tiempo
+	 */
+	public long nextLong(Duration timeout) throws InputMismatchException, InputTimeoutException {
+		beginDeadline(timeout);
+		try {
+			return nextLong();
+		} finally {
+			readAhead.clearDeadline();
+		}
+	}
+
+	/**
+	 * Igual que {@link #nextFloat()}, pero esperando la entrada como mucho el tiempo
+	 * indicado. Si se agota, lo leído hasta entonces no se pierde y la siguiente
+	 * lectura continúa donde se quedó esta
+	 * 
+	 * @param timeout El tiempo máximo de espera
+	 * @return El float leído
+	 * @throws InputMismatchException Si no puede leer ningún float
+	 * @throws InputTimeoutException Si la entrada no llega a tiempo
+	 */
+	public float nextFloat(Duration timeout) throws InputMismatchException, InputTimeoutException {
+		beginDeadline(timeout);
+		try {
+			return nextFloat();
+		} finally {
+			readAhead.clearDeadline();
+		}
+	}
+
+	/**
+	 * Igual que {@link #nextDouble()}, pero esperando la entrada como mucho el tiempo
+	 * indicado. Si se agota, lo leído hasta entonces no se pierde y la siguiente
+	 * lectura continúa donde se quedó esta
+	 * 
+	 * @param timeout El tiempo máximo de espera
+	 * @return El double leído
+	 * @throws InputMismatchException Si no puede leer ningún double
+	 * @throws InputTimeoutException Si la entrada no llega a tiempo
+	 */
+	public double nextDouble(Duration timeout) throws InputMismatchException, InputTimeoutException {
+		beginDeadline(timeout);
+		try {
+			return nextDouble();
+		} finally {
+			readAhead.clearDeadline();
+		}
+	}
+
+	/**
+	 * Igual que {@link #nextBigInteger()}, pero esperando la entrada como mucho el tiempo
+	 * indicado. Si se agota, lo leído hasta entonces no se pierde y la siguiente
+	 * lectura continúa donde se quedó esta
+	 * 
+	 * @param timeout El tiempo máximo de espera
+	 * @return El BigInteger leído
+	 * @throws InputMismatchException Si no puede leer ningún BigInteger
+	 * @throws InputTimeoutException Si la entrada no llega a tiempo
+	 */
+	public BigInteger nextBigInteger(Duration timeout) throws InputMismatchException, InputTimeoutException {
+		beginDeadline(timeout);
+		try {
+			return nextBigInteger();
+		} finally {
+			readAhead.clearDeadline();
+		}
+	}
+
+	/**
+	 * Igual que {@link #nextBigDecimal()}, pero esperando la entrada como mucho el tiempo
+	 * indicado. Si se agota, lo leído hasta entonces no se pierde y la siguiente
+	 * lectura continúa donde se quedó esta
+	 * 
+	 * @param timeout El tiempo máximo de espera
+	 * @return El BigDecimal leído
+	 * @throws InputMismatchException Si no puede leer ningún BigDecimal
+	 * @throws InputTimeoutException Si la entrada no llega a tiempo
+	 */
+	public BigDecimal nextBigDecimal(Duration timeout) throws InputMismatchException, InputTimeoutException {
+		beginDeadline(timeout);
+		try {
+			return nextBigDecimal();
+		} finally {
+			readAhead.clearDeadline();
+		}
+	}
+
+	/**
+	 * Igual que {@link #nextLine()}, pero esperando la entrada como mucho el tiempo
+	 * indicado. Si se agota, lo leído hasta entonces no se pierde y la siguiente
+	 * lectura continúa donde se quedó esta
+	 * 
+	 * @param timeout El tiempo máximo de espera
+	 * @return La línea leída
+	 * @throws InputTimeoutException Si la entrada no llega a tiempo
+	 */
+	public String nextLine(Duration timeout) throws InputTimeoutException {
+		beginDeadline(timeout);
+		try {
+			return nextLine();
+		} finally {
+			readAhead.clearDeadline();
+		}
+	}
+
+	/**
+	 * Igual que {@link #nextChar()}, pero esperando la entrada como mucho el tiempo
+	 * indicado. Si se agota, lo leído hasta entonces no se pierde y la siguiente
+	 * lectura continúa donde se quedó esta
+	 * 
+	 * @param timeout El tiempo máximo de espera
+	 * @return El char leído
+	 * @throws StringIndexOutOfBoundsException Si no puede leer ningún char
+	 * @throws InputTimeoutException Si la entrada no llega a tiempo
+	 */
+	public char nextChar(Duration timeout) throws StringIndexOutOfBoundsException, InputTimeoutException {
+		beginDeadline(timeout);
+		try {
+			return nextChar();
+		} finally {
+			readAhead.clearDeadline();
+		}
+	}
+
+	/**
+	 * Hace una lectura cualquiera de forma asíncrona, en un hilo virtual si la JVM
+	 * los admite. Las lecturas asíncronas se hacen de una en una y en el orden en
+	 * que se piden, por lo que nunca se mezclan sus tokens; mientras haya alguna
+	 * pendiente no deben hacerse lecturas síncronas
+	 * 
+	 * @param <T>  El tipo del valor leído
+	 * @param read La lectura, por ejemplo {@code KeyboardScanner::nextBigDecimal}
+	 * @return Un CompletableFuture que se completa con el valor leído o con la
+	 *         excepción que lance la lectura. Si se cancela antes de empezar, la
+	 *         lectura no se hace
+	 */
+	public <T> CompletableFuture<T> readAsync(Function<? super KeyboardScanner, ? extends T> read) {
+		Objects.requireNonNull(read);
+		CompletableFuture<T> future = new CompletableFuture<>();
+		SerialExecutor executor;
+		synchronized (this) {
+			if (asyncReads == null)
+				asyncReads = new SerialExecutor();
+			executor = asyncReads;
+		}
+		executor.execute(() -> {
+			if (future.isDone())
+				return;
+			try {
+				future.complete(read.apply(this));
+			} catch (Throwable ex) {
+				future.completeExceptionally(ex);
+			}
+		});
+		return future;
+	}
+
+	/**
+	 * Igual que {@link #nextInt()}, pero de forma asíncrona
+	 * 
+	 * @return Un CompletableFuture que se completa con el int leído
+	 * @see #readAsync(Function)
+	 */
+	public CompletableFuture<Integer> nextIntAsync() {
+		return readAsync(KeyboardScanner::nextInt);
+	}
+
+	/**
+	 * Igual que {@link #nextLong()}, pero de forma asíncrona
+	 * 
+	 * @return Un CompletableFuture que se completa con el long leído
+	 * @see #readAsync(Function)
+	 */
+	public CompletableFuture<Long> nextLongAsync() {
+		return readAsync(KeyboardScanner::nextLong);
+	}
+
+	/**
+	 * Igual que {@link #nextDouble()}, pero de forma asíncrona
+	 * 
+	 * @return Un CompletableFuture que se completa con el double leído
+	 * @see #readAsync(Function)
+	 */
+	public CompletableFuture<Double> nextDoubleAsync() {
+		return readAsync(KeyboardScanner::nextDouble);
+	}
+
+	/**
+	 * Igual que {@link #nextLine()}, pero de forma asíncrona
+	 * 
+	 * @return Un CompletableFuture que se completa con la línea leída
+	 * @see #readAsync(Function)
+	 */
+	public CompletableFuture<String> nextLineAsync() {
+		return readAsync(KeyboardScanner::nextLine);
+	}
+
+	/**
+	 * Igual que {@link #nextChar()}, pero de forma asíncrona
+	 * 
+	 * @return Un CompletableFuture que se completa con el char leído
+	 * @see #readAsync(Function)
+	 */
+	public CompletableFuture<Character> nextCharAsync() {
+		return readAsync(KeyboardScanner::nextChar);
+	}
+
+	/**
+	 * Ejecuta una acción con cada una de las líneas restantes, repartiéndolas
+	 * entre los hilos de {@link ForkJoinPool#commonPool()} en bloques de 1024
+	 * líneas. No devuelve hasta que se han procesado todas
+	 * 
+	 * @param action La acción a ejecutar, que se llama desde varios hilos a la vez
+	 *               y sin ningún orden
+	 * @see #forEachLineParallel(Consumer, int, int, Executor)
+	 */
+	public void forEachLineParallel(Consumer<? super String> action) {
+		forEachLineParallel(action, LineDispatcher.DEFAULT_BATCH_SIZE, LineDispatcher.DEFAULT_QUEUE_DEPTH,
+				ForkJoinPool.commonPool());
+	}
+
+	/**
+	 * Ejecuta una acción con cada una de las líneas restantes en paralelo. Las
+	 * líneas se leen en el hilo que llama y se envían al Executor en bloques; si
+	 * ya hay queueDepth bloques pendientes la lectura espera, de forma que como
+	 * mucho hay batchSize * queueDepth líneas en memoria. No devuelve hasta que
+	 * se han procesado todas.<br/>
+	 * Si la acción lanza una excepción se deja de leer y, una vez terminados los
+	 * bloques en curso, se relanza la primera
+	 * 
+	 * @param action     La acción a ejecutar, que se llama desde varios hilos a la
+	 *                   vez y sin ningún orden
+	 * @param batchSize  El número de líneas de cada bloque
+	 * @param queueDepth El número máximo de bloques pendientes
+	 * @param executor   El Executor en el que procesar los bloques
+	 * @throws IllegalArgumentException Si batchSize o queueDepth no son positivos
+	 */
+	public void forEachLineParallel(Consumer<? super String> action, int batchSize, int queueDepth,
+			Executor executor) {
+		cleanBuffer();
+		LineDispatcher.forEach(engine, action, batchSize, queueDepth, executor);
+	}
+
+	/**
+	 * Transforma cada una de las líneas restantes en los hilos de
+	 * {@link ForkJoinPool#commonPool()} y entrega los resultados en el orden de
+	 * las líneas
+	 * 
+	 * @param <R>    El tipo de los resultados
+	 * @param mapper La transformación, que se llama desde varios hilos a la vez
+	 * @param sink   El destino de los resultados, que se llama desde el hilo que
+	 *               llama a este método y en el orden de las líneas
+	 * @see #forEachLineParallel(Function, Consumer, int, int, Executor)
+	 */
+	public <R> void forEachLineParallel(Function<? super String, ? extends R> mapper, Consumer<? super R> sink) {
+		forEachLineParallel(mapper, sink, LineDispatcher.DEFAULT_BATCH_SIZE, LineDispatcher.DEFAULT_QUEUE_DEPTH,
+				ForkJoinPool.commonPool());
+	}
+
+	/**
+	 * Transforma cada una de las líneas restantes en paralelo y entrega los
+	 * resultados en el orden de las líneas. Los resultados de los bloques que
+	 * terminan antes que alguno anterior esperan a que éste termine, y como
+	 * mucho hay queueDepth bloques pendientes o esperando, de forma que la
+	 * memoria usada está acotada.<br/>
+	 * Si la transformación o el destino lanzan una excepción se deja de leer y,
+	 * una vez terminados los bloques en curso, se relanza
+	 * 
+	 * @param <R>        El tipo de los resultados
+	 * @param mapper     La transformación, que se llama desde varios hilos a la vez
+	 * @param sink       El destino de los resultados, que se llama desde el hilo
+	 *                   que llama a este método y en el orden de las líneas
+	 * @param batchSize  El número de líneas de cada bloque
+	 * @param queueDepth El número máximo de bloques pendientes
+	 * @param executor   El Executor en el que procesar los bloques
+	 * @throws IllegalArgumentException Si batchSize o queueDepth no son positivos
+	 */
+	public <R> void forEachLineParallel(Function<? super String, ? extends R> mapper, Consumer<? super R> sink,
+			int batchSize, int queueDepth, Executor executor) {
+		cleanBuffer();
+		LineDispatcher.forEachOrdered(engine, mapper, sink, batchSize, queueDepth, executor);
+	}
+
+	/**
+	 * Obtiene los siguientes {@code length} int del buffer del teclado, o los que
+	 * se introduzcan a continuación, si no los hubiese
+	 * 
+	 * @param length El número de int a leer
+	 * @return Los int leídos
+	 * @throws InputMismatchException Si no puede leer alguno de los int
+	 */
+	public int[] nextIntArray(int length) throws InputMismatchException {
+		int[] array = new int[length];
+		nextIntArray(array, 0, length);
+		return array;
+	}
+
+	/**
+	 * Guarda en el array los siguientes {@code length} int del buffer del
+	 * teclado, o los que se introduzcan a continuación, si no los hubiese.<br/>
+	 * Cada valor admite el mismo número de intentos que {@link #nextInt()}
+	 * 
+	 * @param array  El array en el que guardar los int leídos
+	 * @param offset La posición del array en la que guardar el primer int
+	 * @param length El número de int a leer
+	 * @throws InputMismatchException Si no puede leer alguno de los int
+	 */
+	public void nextIntArray(int[] array, int offset, int length) throws InputMismatchException {
+		Objects.checkFromIndexSize(offset, length, array.length);
+		int end = offset + length;
+		while (offset < end) {
+			offset += engine.nextInts(array, offset, end - offset, false);
+			if (offset < end)
+				array[offset++] = nextInt();
+		}
+		if (length > 0)
+			lineInBuffer = true;
+	}
+
+	/**
+	 * Obtiene todos los int de la siguiente línea introducida por teclado
+	 * 
+	 * @return Los int leídos
+	 * @throws InputMismatchException Si la línea contiene algo que no sea un int
+	 */
+	public int[] nextIntLine() throws InputMismatchException {
+		cleanBuffer();
+		boolean error;
+		int attempts = 0;
+		int[] array = new int[INITIAL_ARRAY_CAPACITY];
+		int length;
+		do {
+			error = false;
+			length = 0;
+			if (!engine.hasNextLine())
+				throw new NoSuchElementException("No line found");
+			while (true) {
+				length += engine.nextInts(array, length, array.length - length, true);
+				if (length == array.length) {
+					array = Arrays.copyOf(array, length * 2);
+				} else if (engine.endOfLine()) {
+					break;
+				} else {
+					error = true;
+					attempts++;
+					String message = attempts >= attemptLimit ? rejected("int", length) : null;
+					if (!retry(attempts))
+						throw mismatch(message);
+					break;
+				}
+			}
+		} while (error);
+		lineInBuffer = true;
+		return Arrays.copyOf(array, length);
+	}
+
+	/**
+	 * Obtiene todos los int introducidos hasta el final de la entrada
+	 * 
+	 * @return Los int leídos
+	 * @throws InputMismatchException Si no puede leer alguno de los int
+	 */
+	public int[] remainingIntArray() throws InputMismatchException {
+		int attempts = 0;
+		int[] array = new int[INITIAL_ARRAY_CAPACITY];
+		int length = 0;
+		while (true) {
+			int read = engine.nextInts(array, length, array.length - length, false);
+			length += read;
+			if (read > 0)
+				attempts = 0;
+			if (length == array.length) {
+				array = Arrays.copyOf(array, length * 2);
+			} else if (!engine.hasNext()) {
+				break;
+			} else {
+				attempts++;
+				String message = attempts >= attemptLimit ? rejected("int", length) : null;
+				if (!retry(attempts))
+					throw mismatch(message);
+			}
+		}
+		return Arrays.copyOf(array, length);
+	}
+
+	/**
+	 * Obtiene los siguientes {@code length} long del buffer del teclado, o los que
+	 * se introduzcan a continuación, si no los hubiese
+	 * 
+	 * @param length El número de long a leer
+	 * @return Los long leídos
+	 * @throws InputMismatchException Si no puede leer alguno de los long
+	 */
+	public long[] nextLongArray(int length) throws InputMismatchException {
+		long[] array = new long[length];
+		nextLongArray(array, 0, length);
+		return array;
+	}
+
+	/**
+	 * Guarda en el array los siguientes {@code length} long del buffer del
+	 * teclado, o los que se introduzcan a continuación, si no los hubiese.<br/>
+	 * Cada valor admite el mismo número de intentos que {@link #nextLong()}
+	 * 
+	 * @param array  El array en el que guardar los long leídos
+	 * @param offset La posición del array en la que guardar el primer long
+	 * @param length El número de long a leer
+	 * @throws InputMismatchException Si no puede leer alguno de los long
+	 */
+	public void nextLongArray(long[] array, int offset, int length) throws InputMismatchException {
+		Objects.checkFromIndexSize(offset, length, array.length);
+		int end = offset + length;
+		while (offset < end) {
+			offset += engine.nextLongs(array, offset, end - offset, false);
+			if (offset < end)
+				array[offset++] = nextLong();
+		}
+		if (length > 0)
+			lineInBuffer = true;
+	}
+
+	/**
+	 * Obtiene todos los long de la siguiente línea introducida por teclado
+	 * 
+	 * @return Los long leídos
+	 * @throws InputMismatchException Si la línea contiene algo que no sea un long
+	 */
+	public long[] nextLongLine() throws InputMismatchException {
+		cleanBuffer();
+		boolean error;
+		int attempts = 0;
+		long[] array = new long[INITIAL_ARRAY_CAPACITY];
+		int length;
+		do {
+			error = false;
+			length = 0;
+			if (!engine.hasNextLine())
+				throw new NoSuchElementException("No line found");
+			while (true) {
+				length += engine.nextLongs(array, length, array.length - length, true);
+				if (length == array.length) {
+					array = Arrays.copyOf(array, length * 2);
+				} else if (engine.endOfLine()) {
+					break;
+				} else {
+					error = true;
+					attempts++;
+					String message = attempts >= attemptLimit ? rejected("long", length) : null;
+					if (!retry(attempts))
+						throw mismatch(message);
+					break;
+				}
+			}
+		} while (error);
+		lineInBuffer = true;
+		return Arrays.copyOf(array, length);
+	}
+
+	/**
+	 * Obtiene todos los long introducidos hasta el final de la entrada
+	 * 
+	 * @return Los long leídos
+	 * @throws InputMismatchException Si no puede leer alguno de los long
+	 */
+	public long[] remainingLongArray() throws InputMismatchException {
+		int attempts = 0;
+		long[] array = new long[INITIAL_ARRAY_CAPACITY];
+		int length = 0;
+		while (true) {
+			int read = engine.nextLongs(array, length, array.length - length, false);
+			length += read;
+			if (read > 0)
+				attempts = 0;
+			if (length == array.length) {
+				array = Arrays.copyOf(array, length * 2);
+			} else if (!engine.hasNext()) {
+				break;
+			} else {
+				attempts++;
+				String message = attempts >= attemptLimit ? rejected("long", length) : null;
+				if (!retry(attempts))
+					throw mismatch(message);
+			}
+		}
+		return Arrays.copyOf(array, length);
+	}
+
+	/**
+	 * Obtiene los siguientes {@code length} double del buffer del teclado, o los que
+	 * se introduzcan a continuación, si no los hubiese
+	 * 
+	 * @param length El número de double a leer
+	 * @return Los double leídos
+	 * @throws InputMismatchException Si no puede leer alguno de los double
+	 */
+	public double[] nextDoubleArray(int length) throws InputMismatchException {
+		double[] array = new double[length];
+		nextDoubleArray(array, 0, length);
+		return array;
+	}
+
+	/**
+	 * Guarda en el array los siguientes {@code length} double del buffer del
+	 * teclado, o los que se introduzcan a continuación, si no los hubiese.<br/>
+	 * Cada valor admite el mismo número de intentos que {@link #nextDouble()}
+	 * 
+	 * @param array  El array en el que guardar los double leídos
+	 * @param offset La posición del array en la que guardar el primer double
+	 * @param length El número de double a leer
+	 * @throws InputMismatchException Si no puede leer alguno de los double
+	 */
+	public void nextDoubleArray(double[] array, int offset, int length) throws InputMismatchException {
+		Objects.checkFromIndexSize(offset, length, array.length);
+		int end = offset + length;
+		while (offset < end) {
+			offset += engine.nextDoubles(array, offset, end - offset, false);
+			if (offset < end)
+				array[offset++] = nextDouble();
+		}
+		if (length > 0)
+			lineInBuffer = true;
+	}
+
+	/**
+	 * Obtiene todos los double de la siguiente línea introducida por teclado
+	 * 
+	 * @return Los double leídos
+	 * @throws InputMismatchException Si la línea contiene algo que no sea un double
+	 */
+	public double[] nextDoubleLine() throws InputMismatchException {
+		cleanBuffer();
+		boolean error;
+		int attempts = 0;
+		double[] array = new double[INITIAL_ARRAY_CAPACITY];
+		int length;
+		do {
+			error = false;
+			length = 0;
+			if (!engine.hasNextLine())
+				throw new NoSuchElementException("No line found");
+			while (true) {
+				length += engine.nextDoubles(array, length, array.length - length, true);
+				if (length == array.length) {
+					array = Arrays.copyOf(array, length * 2);
+				} else if (engine.endOfLine()) {
+					break;
+				} else {
+					error = true;
+					attempts++;
+					String message = attempts >= attemptLimit ? rejected("double", length) : null;
+					if (!retry(attempts))
+						throw mismatch(message);
+					break;
+				}
+			}
+		} while (error);
+		lineInBuffer = true;
+		return Arrays.copyOf(array, length);
+	}
+
+	/**
+	 * Obtiene todos los double introducidos hasta el final de la entrada
+	 * 
+	 * @return Los double leídos
+	 * @throws InputMismatchException Si no puede leer alguno de los double
+	 */
+	public double[] remainingDoubleArray() throws InputMismatchException {
+		int attempts = 0;
+		double[] array = new double[INITIAL_ARRAY_CAPACITY];
+		int length = 0;
+		while (true) {
+			int read = engine.nextDoubles(array, length, array.length - length, false);
+			length += read;
+			if (read > 0)
+				attempts = 0;
+			if (length == array.length) {
+				array = Arrays.copyOf(array, length * 2);
+			} else if (!engine.hasNext()) {
+				break;
+			} else {
+				attempts++;
+				String message = attempts >= attemptLimit ? rejected("double", length) : null;
+				if (!retry(attempts))
+					throw mismatch(message);
+			}
+		}
+		return Arrays.copyOf(array, length);
+	}
+
+	/**
+	 * Obtiene un {@link IntStream} con los int introducidos hasta el final de la
+	 * entrada, que se leen a medida que el stream los necesita.<br/>
+	 * Cada valor admite el mismo número de intentos que {@link #nextInt()}
+	 * 
+	 * @return El stream de int
+	 */
+	public IntStream ints() {
+		return StreamSupport.intStream(new IntSpliterator(), false);
+	}
+
+	/**
+	 * Obtiene un {@link LongStream} con los long introducidos hasta el final de la
+	 * entrada, que se leen a medida que el stream los necesita.<br/>
+	 * Cada valor admite el mismo número de intentos que {@link #nextLong()}
+	 * 
+	 * @return El stream de long
+	 */
+	public LongStream longs() {
+		return StreamSupport.longStream(new LongSpliterator(), false);
+	}
+
+	/**
+	 * Obtiene un {@link DoubleStream} con los double introducidos hasta el final de la
+	 * entrada, que se leen a medida que el stream los necesita.<br/>
+	 * Cada valor admite el mismo número de intentos que {@link #nextDouble()}
+	 * 
+	 * @return El stream de double
+	 */
+	public DoubleStream doubles() {
+		return StreamSupport.doubleStream(new DoubleSpliterator(), false);
+	}
+
+	/**
+	 * Obtiene un {@link Stream} con las líneas restantes, que se leen a medida
+	 * que el stream las necesita. Una vez obtenido, el KeyboardScanner no se debe
+	 * volver a leer: no se garantiza en qué punto de la entrada queda.<br/>
+	 * Si se lee un fichero proyectado en memoria con {@link Engine#FAST} el
+	 * stream se puede recorrer en paralelo: se divide por la mitad del fichero,
+	 * en el primer salto de línea a partir de ella, y cada parte se lee de forma
+	 * independiente. En otro caso se lee secuencialmente del KeyboardScanner
+	 * 
+	 * @return El stream de líneas
+	 */
+	public Stream<String> lines() {
+		return StreamSupport.stream(lineSpliterator(false), false);
+	}
+
+	/**
+	 * Igual que {@link #lines()}, pero sin copiar las líneas a un String. Cada
+	 * vista sólo es válida hasta que el stream obtiene la siguiente línea de la
+	 * misma parte de la entrada, así que para conservarla hay que copiarla con
+	 * {@link CharSequence#toString()}. Si la entrada no es un fichero proyectado
+	 * en memoria el stream no se divide al recorrerlo en paralelo
+	 * 
+	 * @return El stream de vistas de las líneas
+	 * @see #nextLineView()
+	 */
+	public Stream<CharSequence> lineViews() {
+		return StreamSupport.stream(lineSpliterator(true), false);
+	}
+
+	private <T extends CharSequence> Spliterator<T> lineSpliterator(boolean views) {
+		cleanBuffer();
+		InputSource direct = readAhead.direct();
+		int buffered = engine.buffered();
+		if (direct instanceof MappedFileSource && buffered >= 0) {
+			MappedFileSource file = (MappedFileSource) direct;
+			return new MappedLineSpliterator<>(file.channel(), file.position() - buffered, file.end(),
+					file.charset(), views);
+		}
+		return new LineSpliterator<>(views);
+	}
+
+	/**
+	 * Spliterator que lee los int bajo demanda: de uno en uno en
+	 * {@link #tryAdvance(IntConsumer)} y por bloques en
+	 * {@link #forEachRemaining(IntConsumer)}
+	 */
+	private final class IntSpliterator extends Spliterators.AbstractIntSpliterator {
+		private final int[] batch = new int[STREAM_BATCH_SIZE];
+		private int attempts;
+
+		IntSpliterator() {
+			super(Long.MAX_VALUE, Spliterator.ORDERED | Spliterator.NONNULL);
+		}
+
+		@Override
+		public boolean tryAdvance(IntConsumer action) {
+			if (read(1) == 0)
+				return false;
+			action.accept(batch[0]);
+			return true;
+		}
+
+		@Override
+		public void forEachRemaining(IntConsumer action) {
+			int read;
+			while ((read = read(batch.length)) > 0) {
+				for (int i = 0; i < read; i++)
+					action.accept(batch[i]);
+			}
+		}
+
+		/**
+		 * Lee hasta length valores en {@link #batch}
+		 * 
+		 * @return El número de valores leídos, que sólo es 0 al final de la entrada
+		 */
+		private int read(int length) {
+			while (true) {
+				int read = engine.nextInts(batch, 0, length, false);
+				if (read > 0) {
+					attempts = 0;
+					lineInBuffer = true;
+					return read;
+				}
+				if (!engine.hasNext())
+					return 0;
+				attempts++;
+				String message = attempts >= attemptLimit ? rejected("int", -1) : null;
+				if (!retry(attempts))
+					throw mismatch(message);
+			}
+		}
+	}
+
+	/**
+	 * Spliterator que lee los long bajo demanda: de uno en uno en
+	 * {@link #tryAdvance(LongConsumer)} y por bloques en
+	 * {@link #forEachRemaining(LongConsumer)}
+	 */
+	private final class LongSpliterator extends Spliterators.AbstractLongSpliterator {
+		private final long[] batch = new long[STREAM_BATCH_SIZE];
+		private int attempts;
+
+		LongSpliterator() {
+			super(Long.MAX_VALUE, Spliterator.ORDERED | Spliterator.NONNULL);
+		}
+
+		@Override
+		public boolean tryAdvance(LongConsumer action) {
+			if (read(1) == 0)
+				return false;
+			action.accept(batch[0]);
+			return true;
+		}
+
+		@Override
+		public void forEachRemaining(LongConsumer action) {
+			int read;
+			while ((read = read(batch.length)) > 0) {
+				for (int i = 0; i < read; i++)
+					action.accept(batch[i]);
+			}
+		}
+
+		/**
+		 * Lee hasta length valores en {@link #batch}
+		 * 
+		 * @return El número de valores leídos, que sólo es 0 al final de la entrada
+		 */
+		private int read(int length) {
+			while (true) {
+				int read = engine.nextLongs(batch, 0, length, false);
+				if (read > 0) {
+					attempts = 0;
+					lineInBuffer = true;
+					return read;
+				}
+				if (!engine.hasNext())
+					return 0;
+				attempts++;
+				String message = attempts >= attemptLimit ? rejected("long", -1) : null;
+				if (!retry(attempts))
+					throw mismatch(message);
+			}
+		}
+	}
+
+	/**
+	 * Spliterator que lee los double bajo demanda: de uno en uno en
+	 * {@link #tryAdvance(DoubleConsumer)} y por bloques en
+	 * {@link #forEachRemaining(DoubleConsumer)}
+	 */
+	private final class DoubleSpliterator extends Spliterators.AbstractDoubleSpliterator {
+		private final double[] batch = new double[STREAM_BATCH_SIZE];
+		private int attempts;
+
+		DoubleSpliterator() {
+			super(Long.MAX_VALUE, Spliterator.ORDERED | Spliterator.NONNULL);
+		}
+
+		@Override
+		public boolean tryAdvance(DoubleConsumer action) {
+			if (read(1) == 0)
+				return false;
+			action.accept(batch[0]);
+			return true;
+		}
+
+		@Override
+		public void forEachRemaining(DoubleConsumer action) {
+			int read;
+			while ((read = read(batch.length)) > 0) {
+				for (int i = 0; i < read; i++)
+					action.accept(batch[i]);
+			}
+		}
+
+		/**
+		 * Lee hasta length valores en {@link #batch}
+		 * 
+		 * @return El número de valores leídos, que sólo es 0 al final de la entrada
+		 */
+		private int read(int length) {
+			while (true) {
+				int read = engine.nextDoubles(batch, 0, length, false);
+				if (read > 0) {
+					attempts = 0;
+					lineInBuffer = true;
+					return read;
+				}
+				if (!engine.hasNext())
+					return 0;
+				attempts++;
+				String message = attempts >= attemptLimit ? rejected("double", -1) : null;
+				if (!retry(attempts))
+					throw mismatch(message);
+			}
+		}
+	}
+
+	/**
+	 * Spliterator que lee las líneas bajo demanda del KeyboardScanner. Al
+	 * recorrerlo en paralelo sólo reparte bloques de String, nunca de vistas
+	 */
+	private final class LineSpliterator<T extends CharSequence> extends Spliterators.AbstractSpliterator<T> {
+		private final boolean views;
+
+		LineSpliterator(boolean views) {
+			super(Long.MAX_VALUE, Spliterator.ORDERED | Spliterator.NONNULL);
+			this.views = views;
+		}
+
+		@Override
+		public boolean tryAdvance(Consumer<? super T> action) {
+			if (!engine.hasNextLine())
+				return false;
+			action.accept(next());
+			return true;
+		}
+
+		@Override
+		public void forEachRemaining(Consumer<? super T> action) {
+			while (engine.hasNextLine())
+				action.accept(next());
+		}
+
+		@Override
+		public Spliterator<T> trySplit() {
+			return views ? null : super.trySplit();
+		}
+
+		@SuppressWarnings("unchecked")
+		private T next() {
+			return (T) (views ? engine.nextLineView() : engine.nextLine());
+		}
+	}
+
+}
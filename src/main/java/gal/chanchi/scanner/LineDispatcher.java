@@ -0,0 +1,178 @@
+/*
+Copyright (C) 2021 Santiago González Lago
+
+This program is free software: you can redistribute it and/or modify
+it under the terms of the GNU General Public License as published by
+the Free Software Foundation, either version 3 of the License, or
+(at your option) any later version.
+
+This program is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with this program.  If not, see <https://www.gnu.org/licenses/>.
+*/
+
+
+package gal.chanchi.scanner;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Reparto de las líneas de un motor entre los hilos de un Executor
+ *
+ * Las líneas se leen siempre en el hilo que llama, que las agrupa en bloques y
+ * los envía al Executor. Como mucho hay queueDepth bloques pendientes a la vez,
+ * de forma que la memoria usada está acotada aunque la entrada sea mucho más
+ * rápida que el procesamiento. Si se conserva el orden, los resultados de cada
+ * bloque esperan en su CompletableFuture a que terminen los anteriores y se
+ * entregan desde el hilo que llama
+ *
+ * @author Santiago González Lago
+ */
+final class LineDispatcher {
+	static final int DEFAULT_BATCH_SIZE = 1024;
+	static final int DEFAULT_QUEUE_DEPTH = 2 * Runtime.getRuntime().availableProcessors();
+
+	private LineDispatcher() {
+	}
+
+	/**
+	 * Procesa las líneas restantes sin conservar el orden
+	 *
+	 * @param engine     El motor del que leer
+	 * @param action     La acción a ejecutar con cada línea
+	 * @param batchSize  El número de líneas de cada bloque
+	 * @param queueDepth El número máximo de bloques pendientes
+	 * @param executor   El Executor en el que procesar los bloques
+	 */
+	static void forEach(InputEngine engine, Consumer<? super String> action, int batchSize, int queueDepth,
+			Executor executor) {
+		checkLimits(batchSize, queueDepth);
+		Semaphore free = new Semaphore(queueDepth);
+		AtomicReference<Throwable> failure = new AtomicReference<>();
+		try {
+			String[] batch;
+			while (failure.get() == null && (batch = readBatch(engine, batchSize)) != null) {
+				String[] lines = batch;
+				free.acquireUninterruptibly();
+				try {
+					executor.execute(() -> {
+						try {
+							for (String line : lines)
+								action.accept(line);
+						} catch (Throwable ex) {
+							failure.compareAndSet(null, ex);
+						} finally {
+							free.release();
+						}
+					});
+				} catch (RuntimeException ex) {
+					free.release();
+					throw ex;
+				}
+			}
+		} finally {
+			// Ninguna acción se ejecuta después de volver
+			free.acquireUninterruptibly(queueDepth);
+		}
+		Throwable ex = failure.get();
+		if (ex != null)
+			throw unchecked(ex);
+	}
+
+	/**
+	 * Transforma las líneas restantes en paralelo y entrega los resultados en el
+	 * orden de las líneas
+	 *
+	 * @param engine     El motor del que leer
+	 * @param mapper     La transformación de cada línea
+	 * @param sink       El destino de los resultados, que sólo se usa desde el
+	 *                   hilo que llama
+	 * @param batchSize  El número de líneas de cada bloque
+	 * @param queueDepth El número máximo de bloques pendientes
+	 * @param executor   El Executor en el que procesar los bloques
+	 */
+	static <R> void forEachOrdered(InputEngine engine, Function<? super String, ? extends R> mapper,
+			Consumer<? super R> sink, int batchSize, int queueDepth, Executor executor) {
+		checkLimits(batchSize, queueDepth);
+		ArrayDeque<CompletableFuture<Object[]>> pending = new ArrayDeque<>(queueDepth);
+		try {
+			String[] batch;
+			while ((batch = readBatch(engine, batchSize)) != null) {
+				if (pending.size() == queueDepth)
+					deliver(pending.poll(), sink);
+				String[] lines = batch;
+				pending.add(CompletableFuture.supplyAsync(() -> map(lines, mapper), executor));
+				while (!pending.isEmpty() && pending.peek().isDone())
+					deliver(pending.poll(), sink);
+			}
+			while (!pending.isEmpty())
+				deliver(pending.poll(), sink);
+		} finally {
+			// Tras un error se esperan los bloques en curso sin entregarlos
+			for (CompletableFuture<Object[]> results : pending)
+				results.handle((values, ex) -> null).join();
+		}
+	}
+
+	private static void checkLimits(int batchSize, int queueDepth) {
+		if (batchSize < 1)
+			throw new IllegalArgumentException("Batch size must be positive: " + batchSize);
+		if (queueDepth < 1)
+			throw new IllegalArgumentException("Queue depth must be positive: " + queueDepth);
+	}
+
+	/**
+	 * Lee el siguiente bloque de líneas
+	 *
+	 * @return Las líneas leídas, o null al final de la entrada
+	 */
+	private static String[] readBatch(InputEngine engine, int batchSize) {
+		String[] lines = new String[batchSize];
+		int count = 0;
+		while (count < batchSize && engine.hasNextLine())
+			lines[count++] = engine.nextLine();
+		if (count == 0)
+			return null;
+		return count == batchSize ? lines : Arrays.copyOf(lines, count);
+	}
+
+	private static Object[] map(String[] lines, Function<? super String, ?> mapper) {
+		Object[] results = new Object[lines.length];
+		for (int i = 0; i < lines.length; i++)
+			results[i] = mapper.apply(lines[i]);
+		return results;
+	}
+
+	@SuppressWarnings("unchecked")
+	private static <R> void deliver(CompletableFuture<Object[]> results, Consumer<? super R> sink) {
+		Object[] values;
+		try {
+			values = results.join();
+		} catch (CompletionException ex) {
+			throw unchecked(ex.getCause());
+		}
+		for (Object value : values)
+			sink.accept((R) value);
+	}
+
+	private static RuntimeException unchecked(Throwable ex) {
+		if (ex instanceof Error)
+			throw (Error) ex;
+		if (ex instanceof RuntimeException)
+			return (RuntimeException) ex;
+		return new CompletionException(ex);
+	}
+
+}
@@ -0,0 +1,130 @@
+/*
+Copyright (C) 2021 Santiago González Lago
+
+This program is free software: you can redistribute it and/or modify
+it under the terms of the GNU General Public License as published by
+the Free Software Foundation, either version 3 of the License, or
+(at your option) any later version.
+
+This program is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with this program.  If not, see <https://www.gnu.org/licenses/>.
+*/
+
+package gal.chanchi.scanner;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Fuente que lee un fichero, o un fragmento de un fichero, proyectado en
+ * memoria con {@link FileChannel#map(FileChannel.MapMode, long, long)}
+ *
+ * Los ficheros de más de {@link #WINDOW_SIZE} bytes, incluidos los de más de
+ * 2 GB, se proyectan por ventanas consecutivas, de forma que sólo una de ellas
+ * está proyectada en cada momento
+ *
+ * Los motores no recorren la ventana directamente: cada lectura copia un
+ * bloque de la ventana al buffer del motor con una copia de memoria nativa,
+ * sin llamadas al sistema ni buffers intermedios. Así el bucle de los tokens
+ * trabaja siempre sobre un byte[] y no depende del tipo de buffer
+ *
+ * @author Santiago González Lago
+ */
+final class MappedFileSource implements InputSource {
+	static final long WINDOW_SIZE = 1L << 30;
+
+	private final FileChannel channel;
+	private final Charset charset;
+	private final long size;
+	// false si el canal es compartido por los fragmentos de un mismo fichero
+	private final boolean ownsChannel;
+	private long windowEnd;
+	private MappedByteBuffer window;
+
+	MappedFileSource(Path path, Charset charset) throws IOException {
+		this.channel = FileChannel.open(path, StandardOpenOption.READ);
+		this.charset = charset;
+		ownsChannel = true;
+		try {
+			size = channel.size();
+		} catch (IOException ex) {
+			channel.close();
+			throw ex;
+		}
+	}
+
+	/**
+	 * Crea una fuente que lee un fragmento de un fichero abierto, que no se
+	 * cierra al cerrar la fuente
+	 * 
+	 * @param channel El canal del fichero
+	 * @param start   La posición del primer byte del fragmento
+	 * @param end     La posición siguiente al último byte del fragmento
+	 * @param charset La codificación del fichero
+	 */
+	MappedFileSource(FileChannel channel, long start, long end, Charset charset) {
+		this.channel = channel;
+		this.charset = charset;
+		ownsChannel = false;
+		size = end;
+		windowEnd = start;
+	}
+
+	/**
+	 * Obtiene el canal del fichero
+	 */
+	FileChannel channel() {
+		return channel;
+	}
+
+	/**
+	 * Obtiene la posición en el fichero del siguiente byte a leer
+	 */
+	long position() {
+		return window == null ? windowEnd : windowEnd - window.remaining();
+	}
+
+	/**
+	 * Obtiene la posición siguiente al último byte que se puede leer
+	 */
+	long end() {
+		return size;
+	}
+
+	@Override
+	public int read(byte[] buffer, int offset, int length) throws IOException {
+		if (window == null || !window.hasRemaining()) {
+			if (windowEnd >= size)
+				return -1;
+			long windowSize = Math.min(WINDOW_SIZE, size - windowEnd);
+			window = channel.map(FileChannel.MapMode.READ_ONLY, windowEnd, windowSize);
+			windowEnd += windowSize;
+		}
+		int n = Math.min(length, window.remaining());
+		window.get(buffer, offset, n);
+		return n;
+	}
+
+	@Override
+	public Charset charset() {
+		return charset;
+	}
+
+	@Override
+	public void close() throws IOException {
+		window = null;
+		windowEnd = size;
+		if (ownsChannel)
+			channel.close();
+	}
+
+}
@@ -0,0 +1,157 @@
+/*
+Copyright (C) 2021 Santiago González Lago
+
+This program is free software: you can redistribute it and/or modify
+it under the terms of the GNU General Public License as published by
+the Free Software Foundation, either version 3 of the License, or
+(at your option) any later version.
+
+This program is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with this program.  If not, see <https://www.gnu.org/licenses/>.
+*/
+
+
+package gal.chanchi.scanner;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+
+/**
+ * Spliterator de las líneas de un fragmento de un fichero proyectado en
+ * memoria
+ *
+ * Se divide por la mitad del fragmento, avanzando hasta el siguiente fin de
+ * línea (\n, \r o \r\n), de forma que dividirlo no depende del tamaño del
+ * fragmento sino sólo de la longitud de la línea que queda partida. Cada fragmento se recorre con su
+ * propio {@link FastInputEngine}, por lo que las líneas son las mismas que
+ * devolvería {@link KeyboardScanner#nextLine()}, y las vistas sólo se
+ * reutilizan dentro de un mismo fragmento
+ *
+ * @author Santiago González Lago
+ * @param <T> String o CharSequence
+ */
+final class MappedLineSpliterator<T extends CharSequence> implements Spliterator<T> {
+	// Por debajo de este tamaño no compensa repartir el fragmento
+	private static final long MIN_SPLIT_SIZE = 1 << 16;
+	private static final int SCAN_SIZE = 1 << 10;
+
+	private final FileChannel channel;
+	private final Charset charset;
+	private final boolean views;
+	private long start;
+	private final long end;
+	private InputEngine engine;
+
+	/**
+	 * @param channel El canal del fichero
+	 * @param start   La posición del primer byte, que debe empezar una línea
+	 * @param end     La posición siguiente al último byte
+	 * @param charset La codificación del fichero, que debe admitir
+	 *                {@link FastInputEngine}
+	 * @param views   true para devolver vistas reutilizables en lugar de String
+	 */
+	MappedLineSpliterator(FileChannel channel, long start, long end, Charset charset, boolean views) {
+		this.channel = channel;
+		this.start = start;
+		this.end = end;
+		this.charset = charset;
+		this.views = views;
+	}
+
+	@Override
+	public boolean tryAdvance(Consumer<? super T> action) {
+		InputEngine engine = engine();
+		if (!engine.hasNextLine())
+			return false;
+		action.accept(next(engine));
+		return true;
+	}
+
+	@Override
+	public void forEachRemaining(Consumer<? super T> action) {
+		InputEngine engine = engine();
+		while (engine.hasNextLine())
+			action.accept(next(engine));
+	}
+
+	@SuppressWarnings("unchecked")
+	private T next(InputEngine engine) {
+		return (T) (views ? engine.nextLineView() : engine.nextLine());
+	}
+
+	private InputEngine engine() {
+		if (engine == null)
+			engine = new FastInputEngine(new MappedFileSource(channel, start, end, charset));
+		return engine;
+	}
+
+	@Override
+	public Spliterator<T> trySplit() {
+		if (engine != null || end - start < 2 * MIN_SPLIT_SIZE)
+			return null;
+		long middle = lineStart(start + (end - start) / 2);
+		if (middle >= end)
+			return null;
+		Spliterator<T> prefix = new MappedLineSpliterator<>(channel, start, middle, charset, views);
+		start = middle;
+		return prefix;
+	}
+
+	/**
+	 * Busca el principio de la primera línea que empieza en la posición indicada
+	 * o después: la posición siguiente a un \n o a un \r que no va seguido de
+	 * \n, o el final del fragmento. Los dos bytes de un \r\n nunca quedan en
+	 * fragmentos distintos, ya que el segundo empezaría con una línea vacía de más
+	 */
+	private long lineStart(long from) {
+		ByteBuffer scan = ByteBuffer.allocate(SCAN_SIZE);
+		long position = from - 1;
+		boolean carriageReturn = false;
+		try {
+			while (position < end) {
+				scan.clear();
+				if (end - position < SCAN_SIZE)
+					scan.limit((int) (end - position));
+				int n = channel.read(scan, position);
+				if (n < 0)
+					break;
+				for (int i = 0; i < n; i++) {
+					byte b = scan.get(i);
+					if (carriageReturn)
+						return b == '\n' ? position + i + 1 : position + i;
+					if (b == '\n')
+						return position + i + 1;
+					carriageReturn = b == '\r';
+				}
+				position += n;
+			}
+		} catch (IOException ex) {
+			throw new UncheckedIOException(ex);
+		}
+		return end;
+	}
+
+	/**
+	 * El tamaño estimado es el número de bytes que quedan
+	 */
+	@Override
+	public long estimateSize() {
+		return end - start;
+	}
+
+	@Override
+	public int characteristics() {
+		return ORDERED | NONNULL;
+	}
+
+}
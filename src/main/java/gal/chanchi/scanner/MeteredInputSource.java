@@ -0,0 +1,67 @@
+/*
+Copyright (C) 2021 Santiago González Lago
+
+This program is free software: you can redistribute it and/or modify
+it under the terms of the GNU General Public License as published by
+the Free Software Foundation, either version 3 of the License, or
+(at your option) any later version.
+
+This program is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with this program.  If not, see <https://www.gnu.org/licenses/>.
+*/
+
+
+package gal.chanchi.scanner;
+
+import java.io.IOException;
+import java.nio.charset.Charset;
+
+/**
+ * Fuente que mide los bytes leídos y el tiempo de espera de otra fuente
+ *
+ * Mientras no se activen las métricas sólo añade una lectura volátil por cada
+ * bloque que se pide a la fuente
+ *
+ * @author Santiago González Lago
+ */
+final class MeteredInputSource implements InputSource {
+	private final InputSource in;
+	private volatile MetricsRecorder metrics;
+
+	MeteredInputSource(InputSource in) {
+		this.in = in;
+	}
+
+	void setMetrics(MetricsRecorder metrics) {
+		this.metrics = metrics;
+	}
+
+	@Override
+	public int read(byte[] buffer, int offset, int length) throws IOException {
+		MetricsRecorder metrics = this.metrics;
+		if (metrics == null)
+			return in.read(buffer, offset, length);
+		long start = System.nanoTime();
+		int n = in.read(buffer, offset, length);
+		metrics.addTime(MetricsRecorder.IO_TIME, start);
+		if (n > 0)
+			metrics.add(MetricsRecorder.BYTES, n);
+		return n;
+	}
+
+	@Override
+	public Charset charset() {
+		return in.charset();
+	}
+
+	@Override
+	public void close() throws IOException {
+		in.close();
+	}
+
+}
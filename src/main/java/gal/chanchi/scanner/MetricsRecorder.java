@@ -0,0 +1,80 @@
+/*
+Copyright (C) 2021 Santiago González Lago
+
+This program is free software: you can redistribute it and/or modify
+it under the terms of the GNU General Public License as published by
+the Free Software Foundation, either version 3 of the License, or
+(at your option) any later version.
+
+This program is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with this program.  If not, see <https://www.gnu.org/licenses/>.
+*/
+
+
+package gal.chanchi.scanner;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+
+/**
+ * Contadores de las métricas de lectura de un {@link KeyboardScanner}
+ *
+ * Un mismo KeyboardScanner puede leer desde varios hilos, por ejemplo con
+ * {@link KeyboardScanner#readAsync(java.util.function.Function)}, así que los
+ * contadores se incrementan con operaciones atómicas. Sólo se pagan con las
+ * métricas activadas, y otro hilo puede leer los contadores en cualquier
+ * momento sin ver valores a medio escribir
+ *
+ * @author Santiago González Lago
+ */
+final class MetricsRecorder {
+	private static final VarHandle COUNTERS = MethodHandles.arrayElementVarHandle(long[].class);
+
+	static final int BYTES = 0;
+	static final int LINES = 1;
+	static final int RETRIES = 2;
+	static final int MISMATCHES = 3;
+	static final int IO_TIME = 4;
+	static final int ENGINE_TIME = 5;
+	/**
+	 * Primer contador de tokens, seguido de uno por cada {@link TokenType}
+	 */
+	static final int TOKENS = 6;
+	/**
+	 * Tokens leídos con parsers propios, tras los de cada {@link TokenType}
+	 */
+	static final int CUSTOM_TOKENS = TOKENS + TokenType.values().length;
+
+	private final long[] counters = new long[CUSTOM_TOKENS + 1];
+
+	void add(int counter, long value) {
+		COUNTERS.getAndAdd(counters, counter, value);
+	}
+
+	void addTokens(TokenType type, long count) {
+		add(TOKENS + type.ordinal(), count);
+	}
+
+	/**
+	 * Suma al contador el tiempo transcurrido desde start
+	 *
+	 * @param counter El contador de tiempo
+	 * @param start   El instante inicial, obtenido con {@link System#nanoTime()}
+	 */
+	void addTime(int counter, long start) {
+		add(counter, System.nanoTime() - start);
+	}
+
+	ReadMetrics snapshot() {
+		long[] values = new long[counters.length];
+		for (int i = 0; i < values.length; i++)
+			values[i] = (long) COUNTERS.getOpaque(counters, i);
+		return new ReadMetrics(values);
+	}
+
+}
@@ -0,0 +1,323 @@
+/*
+Copyright (C) 2021 Santiago González Lago
+
+This program is free software: you can redistribute it and/or modify
+it under the terms of the GNU General Public License as published by
+the Free Software Foundation, either version 3 of the License, or
+(at your option) any later version.
+
+This program is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with this program.  If not, see <https://www.gnu.org/licenses/>.
+*/
+
+
+package gal.chanchi.scanner;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.InputMismatchException;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * <h2>ParallelFileReader</h2>
+ * 
+ * Lee todos los números de un fichero repartiendo el trabajo entre los hilos
+ * de un {@link ForkJoinPool}.<br/>
+ * El fichero se divide en bloques que empiezan y terminan en un espacio en
+ * blanco, de forma que ningún token queda partido entre dos bloques, y cada
+ * bloque se proyecta en memoria y se interpreta en un hilo distinto con el
+ * mismo motor y los mismos parsers que {@link KeyboardScanner}. Los valores se
+ * devuelven en el orden en el que aparecen en el fichero.<br/>
+ * A diferencia de KeyboardScanner no hay reintentos: un token que no se puede
+ * interpretar produce una {@link InputMismatchException}.<br/>
+ * Si la codificación no representa los caracteres ASCII con un único byte el
+ * fichero no se puede dividir y se lee en un solo bloque
+ * 
+ * @author Santiago González Lago
+ * @version 1.0
+ */
+public final class ParallelFileReader implements AutoCloseable {
+	private static final long MIN_CHUNK_SIZE = 1 << 20;
+	private static final int SCAN_SIZE = 1 << 12;
+	private static final int INITIAL_ARRAY_CAPACITY = 1 << 10;
+
+	private final FileChannel channel;
+	private final Charset charset;
+	private final ForkJoinPool pool;
+	private Locale locale = Locale.ENGLISH;
+
+	/**
+	 * Crea un lector del fichero con la codificación por defecto que usa
+	 * {@link ForkJoinPool#commonPool()}
+	 * 
+	 * @param path La ruta del fichero
+	 * @throws IOException Si no se puede abrir el fichero
+	 */
+	public ParallelFileReader(Path path) throws IOException {
+		this(path, Charset.defaultCharset(), ForkJoinPool.commonPool());
+	}
+
+	/**
+	 * Crea un lector del fichero
+	 * 
+	 * @param path    La ruta del fichero
+	 * @param charset La codificación del fichero
+	 * @param pool    El pool en el que interpretar los bloques
+	 * @throws IOException Si no se puede abrir el fichero
+	 */
+	public ParallelFileReader(Path path, Charset charset, ForkJoinPool pool) throws IOException {
+		channel = FileChannel.open(path, StandardOpenOption.READ);
+		this.charset = charset;
+		this.pool = pool;
+	}
+
+	/**
+	 * Cambia el Locale con el que se interpretan los números
+	 * 
+	 * @param locale El Locale a utilizar
+	 */
+	public void useLocale(Locale locale) {
+		this.locale = locale;
+	}
+
+	/**
+	 * Lee todos los int del fichero
+	 * 
+	 * @return Los int leídos
+	 * @throws InputMismatchException Si alguno de los tokens no es un int
+	 * @throws UncheckedIOException   Si no se puede leer el fichero
+	 */
+	public int[] readInts() throws InputMismatchException {
+		return (int[]) read(BuiltInParser.INT);
+	}
+
+	/**
+	 * Lee todos los long del fichero
+	 * 
+	 * @return Los long leídos
+	 * @throws InputMismatchException Si alguno de los tokens no es un long
+	 * @throws UncheckedIOException   Si no se puede leer el fichero
+	 */
+	public long[] readLongs() throws InputMismatchException {
+		return (long[]) read(BuiltInParser.LONG);
+	}
+
+	/**
+	 * Lee todos los double del fichero
+	 * 
+	 * @return Los double leídos
+	 * @throws InputMismatchException Si alguno de los tokens no es un double
+	 * @throws UncheckedIOException   Si no se puede leer el fichero
+	 */
+	public double[] readDoubles() throws InputMismatchException {
+		return (double[]) read(BuiltInParser.DOUBLE);
+	}
+
+	/**
+	 * Lee todos los tokens del fichero con un parser propio, que se usa a la vez
+	 * desde varios hilos
+	 * 
+	 * @param parser El parser a utilizar, que no debe tener estado
+	 * @return Los int leídos
+	 * @throws InputMismatchException Si el parser rechaza alguno de los tokens
+	 * @throws UncheckedIOException   Si no se puede leer el fichero
+	 */
+	public int[] readInts(IntTokenParser parser) throws InputMismatchException {
+		return (int[]) read(parser);
+	}
+
+	/**
+	 * Igual que {@link #readInts(IntTokenParser)}, pero con long
+	 */
+	public long[] readLongs(LongTokenParser parser) throws InputMismatchException {
+		return (long[]) read(parser);
+	}
+
+	/**
+	 * Igual que {@link #readInts(IntTokenParser)}, pero con double
+	 */
+	public double[] readDoubles(DoubleTokenParser parser) throws InputMismatchException {
+		return (double[]) read(parser);
+	}
+
+	@Override
+	public void close() throws IOException {
+		channel.close();
+	}
+
+	private Object read(TokenParser parser) {
+		try {
+			long size = channel.size();
+			List<Chunk> chunks = new ArrayList<>();
+			long start = 0;
+			if (FastInputEngine.supports(charset)) {
+				long chunkSize = Math.max(MIN_CHUNK_SIZE, size / (4L * pool.getParallelism()));
+				chunkSize = Math.min(chunkSize, MappedFileSource.WINDOW_SIZE);
+				while (size - start > chunkSize) {
+					long end = boundary(start + chunkSize, size);
+					chunks.add(new Chunk(parser, start, end));
+					start = end;
+				}
+			} else if (size > Integer.MAX_VALUE) {
+				throw new IOException("File too large for " + charset);
+			}
+			if (start < size)
+				chunks.add(new Chunk(parser, start, size));
+			try {
+				pool.invoke(ForkJoinTask.adapt(() -> ForkJoinTask.invokeAll(chunks)));
+			} catch (RuntimeException ex) {
+				// El pool puede relanzar una copia sin mensaje de la excepción de otro
+				// hilo, con la original como causa
+				Throwable cause = ex.getCause();
+				if (cause != null && cause.getClass() == ex.getClass())
+					throw (RuntimeException) cause;
+				throw ex;
+			}
+			int length = 0;
+			for (Chunk chunk : chunks)
+				length = Math.addExact(length, chunk.length);
+			Object values = newArray(parser, length);
+			int offset = 0;
+			for (Chunk chunk : chunks) {
+				System.arraycopy(chunk.values, 0, values, offset, chunk.length);
+				offset += chunk.length;
+			}
+			return values;
+		} catch (IOException ex) {
+			throw new UncheckedIOException(ex);
+		}
+	}
+
+	/**
+	 * Busca el primer límite de bloque a partir de la posición indicada: la
+	 * posición siguiente a un espacio en blanco ASCII, o el final del fichero
+	 * 
+	 * @param from La posición desde la que buscar
+	 * @param size El tamaño del fichero
+	 * @return La posición del límite
+	 */
+	private long boundary(long from, long size) throws IOException {
+		ByteBuffer scan = ByteBuffer.allocate(SCAN_SIZE);
+		long position = from - 1;
+		while (position < size) {
+			scan.clear();
+			int n = channel.read(scan, position);
+			if (n < 0)
+				break;
+			for (int i = 0; i < n; i++) {
+				if (FastInputEngine.isWhitespace(scan.get(i)))
+					return position + i + 1;
+			}
+			position += n;
+		}
+		return size;
+	}
+
+	private static Object newArray(TokenParser parser, int length) {
+		if (parser == BuiltInParser.INT || parser instanceof IntTokenParser)
+			return new int[length];
+		if (parser == BuiltInParser.LONG || parser instanceof LongTokenParser)
+			return new long[length];
+		return new double[length];
+	}
+
+	/**
+	 * Interpretación de un bloque del fichero
+	 */
+	private final class Chunk extends RecursiveAction {
+		private static final long serialVersionUID = 1L;
+
+		private final TokenParser parser;
+		private final long start;
+		private final long end;
+		private Object values;
+		private int capacity;
+		private int length;
+
+		Chunk(TokenParser parser, long start, long end) {
+			this.parser = parser;
+			this.start = start;
+			this.end = end;
+		}
+
+		@Override
+		protected void compute() {
+			InputEngine engine;
+			try {
+				ByteBuffer bytes = channel.map(FileChannel.MapMode.READ_ONLY, start, end - start);
+				engine = Engine.FAST.open(new ByteBufferSource(bytes, charset));
+			} catch (IOException ex) {
+				throw new UncheckedIOException(ex);
+			}
+			engine.useLocale(locale);
+			values = newArray(parser, INITIAL_ARRAY_CAPACITY);
+			capacity = INITIAL_ARRAY_CAPACITY;
+			while (true) {
+				int read = bulkRead(engine, capacity - length);
+				length += read;
+				if (length == capacity) {
+					grow();
+				} else if (read == 0) {
+					if (!engine.hasNext())
+						break;
+					throw new InputMismatchException("For input string: \"" + engine.token() + "\"");
+				}
+			}
+		}
+
+		/**
+		 * Lee valores a continuación de los ya leídos
+		 * 
+		 * @param max El número máximo de valores a leer
+		 * @return El número de valores leídos, que sólo es 0 al final del bloque o
+		 *         ante un token no válido
+		 */
+		private int bulkRead(InputEngine engine, int max) {
+			if (parser == BuiltInParser.INT)
+				return engine.nextInts((int[]) values, length, max, false);
+			if (parser == BuiltInParser.LONG)
+				return engine.nextLongs((long[]) values, length, max, false);
+			if (parser == BuiltInParser.DOUBLE)
+				return engine.nextDoubles((double[]) values, length, max, false);
+			int read = 0;
+			while (read < max && engine.read(parser) == InputEngine.READ) {
+				TokenValue value = engine.value();
+				if (values instanceof int[])
+					((int[]) values)[length + read] = (int) value.longValue;
+				else if (values instanceof long[])
+					((long[]) values)[length + read] = value.longValue;
+				else
+					((double[]) values)[length + read] = value.doubleValue;
+				read++;
+			}
+			return read;
+		}
+
+		private void grow() {
+			capacity = (int) Math.min(capacity * 2L, Integer.MAX_VALUE - 8);
+			if (values instanceof int[])
+				values = Arrays.copyOf((int[]) values, capacity);
+			else if (values instanceof long[])
+				values = Arrays.copyOf((long[]) values, capacity);
+			else
+				values = Arrays.copyOf((double[]) values, capacity);
+		}
+	}
+
+}
@@ -0,0 +1,83 @@
+/*
+Copyright (C) 2021 Santiago González Lago
+
+This program is free software: you can redistribute it and/or modify
+it under the terms of the GNU General Public License as published by
+the Free Software Foundation, either version 3 of the License, or
+(at your option) any later version.
+
+This program is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with this program.  If not, see <https://www.gnu.org/licenses/>.
+*/
+
+
+package gal.chanchi.scanner;
+
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.util.Arrays;
+
+/**
+ * Fuente a la que se pueden devolver bytes ya leídos, que se vuelven a leer
+ * antes que el resto
+ *
+ * @author Santiago González Lago
+ * @see StdinHub
+ */
+final class PushbackInputSource implements InputSource {
+	private static final byte[] EMPTY = new byte[0];
+
+	private final InputSource in;
+	private byte[] pending = EMPTY;
+	private int pendingPos;
+
+	PushbackInputSource(InputSource in) {
+		this.in = in;
+	}
+
+	/**
+	 * Devuelve bytes a la fuente, por delante de los que ya estuviesen devueltos
+	 *
+	 * @param bytes Los bytes
+	 */
+	void unread(byte[] bytes) {
+		if (bytes.length == 0)
+			return;
+		int rest = pending.length - pendingPos;
+		byte[] joined = Arrays.copyOf(bytes, bytes.length + rest);
+		System.arraycopy(pending, pendingPos, joined, bytes.length, rest);
+		pending = joined;
+		pendingPos = 0;
+	}
+
+	@Override
+	public int read(byte[] buffer, int offset, int length) throws IOException {
+		int rest = pending.length - pendingPos;
+		if (rest == 0)
+			return in.read(buffer, offset, length);
+		int n = Math.min(length, rest);
+		System.arraycopy(pending, pendingPos, buffer, offset, n);
+		pendingPos += n;
+		if (pendingPos == pending.length) {
+			pending = EMPTY;
+			pendingPos = 0;
+		}
+		return n;
+	}
+
+	@Override
+	public Charset charset() {
+		return in.charset();
+	}
+
+	@Override
+	public void close() throws IOException {
+		in.close();
+	}
+
+}
@@ -0,0 +1,115 @@
+/*
+Copyright (C) 2021 Santiago González Lago
+
+This program is free software: you can redistribute it and/or modify
+it under the terms of the GNU General Public License as published by
+the Free Software Foundation, either version 3 of the License, or
+(at your option) any later version.
+
+This program is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with this program.  If not, see <https://www.gnu.org/licenses/>.
+*/
+
+
+package gal.chanchi.scanner;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.Charset;
+
+/**
+ * Modo sin búfer de línea del terminal, en el que cada tecla pulsada llega a la
+ * entrada sin esperar a Enter
+ *
+ * El modo se cambia con stty sobre /dev/tty, por lo que sólo está disponible en
+ * sistemas tipo Unix con un terminal interactivo. Como el terminal es único
+ * para todo el proceso, se cuentan las instancias que lo usan y la
+ * configuración original se restaura cuando lo deja la última o, si no llega a
+ * hacerlo, al terminar la JVM
+ *
+ * @author Santiago González Lago
+ */
+final class RawTerminal {
+	private static final File TTY = new File("/dev/tty");
+
+	private static int users;
+	private static String savedSettings;
+	private static Thread shutdownHook;
+
+	private RawTerminal() {
+	}
+
+	/**
+	 * Comprueba si se puede activar el modo sin búfer de línea
+	 *
+	 * @return true si la entrada y la salida son un terminal que admite stty
+	 */
+	static boolean supported() {
+		return !System.getProperty("os.name", "").startsWith("Windows") && System.console() != null
+				&& TTY.exists();
+	}
+
+	/**
+	 * Activa el modo sin búfer de línea, si no estaba ya activo
+	 *
+	 * @throws UncheckedIOException Si no se puede ejecutar stty
+	 */
+	static synchronized void enter() {
+		if (users == 0) {
+			savedSettings = stty("-g").trim();
+			stty("-icanon", "min", "1", "time", "0");
+			if (shutdownHook == null) {
+				shutdownHook = new Thread(RawTerminal::restore, "KeyboardScanner-tty-restore");
+				Runtime.getRuntime().addShutdownHook(shutdownHook);
+			}
+		}
+		users++;
+	}
+
+	/**
+	 * Deja el modo sin búfer de línea, restaurando la configuración original si
+	 * no lo usa nadie más
+	 */
+	static synchronized void exit() {
+		if (users > 0 && --users == 0)
+			restore();
+	}
+
+	private static synchronized void restore() {
+		if (savedSettings != null) {
+			try {
+				stty(savedSettings);
+			} catch (UncheckedIOException ex) {
+				// El terminal ya no existe, así que no hay nada que restaurar
+			}
+			savedSettings = null;
+			users = 0;
+		}
+	}
+
+	private static String stty(String... args) {
+		String[] command = new String[args.length + 1];
+		command[0] = "stty";
+		System.arraycopy(args, 0, command, 1, args.length);
+		try {
+			Process process = new ProcessBuilder(command).redirectInput(TTY)
+					.redirectError(ProcessBuilder.Redirect.INHERIT).start();
+			String output = new String(process.getInputStream().readAllBytes(), Charset.defaultCharset());
+			if (process.waitFor() != 0)
+				throw new IOException("stty exited with status " + process.exitValue());
+			return output;
+		} catch (IOException ex) {
+			throw new UncheckedIOException(ex);
+		} catch (InterruptedException ex) {
+			Thread.currentThread().interrupt();
+			throw new UncheckedIOException(new IOException("Interrupted while running stty", ex));
+		}
+	}
+
+}
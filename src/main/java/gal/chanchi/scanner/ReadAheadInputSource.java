@@ -0,0 +1,216 @@
+/*
+Copyright (C) 2021 Santiago González Lago
+
+This program is free software: you can redistribute it and/or modify
+it under the terms of the GNU General Public License as published by
+the Free Software Foundation, either version 3 of the License, or
+(at your option) any later version.
+
+This program is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with this program.  If not, see <https://www.gnu.org/licenses/>.
+*/
+
+
+package gal.chanchi.scanner;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.charset.Charset;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Fuente que lee de otra por adelantado en un hilo propio, lo que además
+ * permite leer con un plazo
+ *
+ * Mientras no se activa la lectura anticipada ni se pide ningún plazo lee
+ * directamente de la fuente. A partir de entonces, un único hilo lector llena
+ * por turnos dos buffers mientras el motor consume el otro, de forma que la
+ * entrada/salida y el análisis se solapan. Los buffers se entregan a través de
+ * un anillo de un solo productor y un solo consumidor sin bloqueos: cada lado
+ * sólo escribe su propio contador y sólo se aparca cuando no tiene nada que
+ * hacer. La espera del consumidor se puede abandonar al llegar el plazo sin
+ * perder datos ni dejar hilos bloqueados por cada llamada. El plazo es de cada
+ * hilo, ya que la entrada estándar la pueden leer varios KeyboardScanner desde
+ * hilos distintos, aunque nunca a la vez
+ *
+ * @author Santiago González Lago
+ */
+final class ReadAheadInputSource implements InputSource {
+	private static final int CHUNK_SIZE = 1 << 16;
+	private static final int SLOTS = 2;
+
+	private final InputSource in;
+	private final byte[][] slots = new byte[SLOTS][];
+	private final int[] lengths = new int[SLOTS];
+	private final ThreadLocal<Long> deadline = new ThreadLocal<>();
+	private IOException error;
+	// Bloques consumidos y bloques llenos: el anillo está vacío si son iguales y
+	// lleno si se diferencian en SLOTS
+	private volatile long head;
+	private volatile long tail;
+	private volatile Thread waitingConsumer;
+	private volatile Thread waitingProducer;
+	private volatile boolean closed;
+	private volatile boolean startRequested;
+	private boolean started;
+	private int slotPos;
+
+	ReadAheadInputSource(InputSource in) {
+		this.in = in;
+	}
+
+	/**
+	 * Pide que se arranque el hilo lector. Lo arranca la siguiente lectura, de
+	 * forma que nunca lea de la fuente a la vez que una lectura directa
+	 */
+	void start() {
+		startRequested = true;
+	}
+
+	private void startReader() {
+		for (int i = 0; i < SLOTS; i++)
+			slots[i] = new byte[CHUNK_SIZE];
+		Thread reader = new Thread(this::produce, "KeyboardScanner-reader");
+		reader.setDaemon(true);
+		reader.start();
+		started = true;
+	}
+
+	/**
+	 * Obtiene la fuente original si todavía no se ha leído nada de ella por
+	 * adelantado
+	 *
+	 * @return La fuente, o null si el hilo lector está arrancado
+	 */
+	InputSource direct() {
+		return started ? null : in;
+	}
+
+	/**
+	 * Establece el plazo de las lecturas siguientes del hilo actual, que
+	 * arrancarán el hilo lector si es necesario
+	 *
+	 * @param deadline El instante límite, medido con {@link System#nanoTime()}
+	 */
+	void setDeadline(long deadline) {
+		this.deadline.set(deadline);
+	}
+
+	/**
+	 * Vuelve a esperar indefinidamente en las lecturas siguientes del hilo actual
+	 */
+	void clearDeadline() {
+		deadline.remove();
+	}
+
+	private void produce() {
+		long t = 0;
+		int n;
+		do {
+			while (t - head >= SLOTS) {
+				waitingProducer = Thread.currentThread();
+				if (t - head >= SLOTS && !closed)
+					LockSupport.park(this);
+				waitingProducer = null;
+				if (closed)
+					return;
+			}
+			int slot = (int) (t % SLOTS);
+			try {
+				n = in.read(slots[slot], 0, CHUNK_SIZE);
+			} catch (IOException ex) {
+				error = ex;
+				n = -1;
+			}
+			if (n == 0)
+				continue;
+			lengths[slot] = n;
+			tail = ++t;
+			Thread consumer = waitingConsumer;
+			if (consumer != null)
+				LockSupport.unpark(consumer);
+		} while (n >= 0);
+	}
+
+	@Override
+	public int read(byte[] buffer, int offset, int length) throws IOException {
+		if (!started) {
+			if (!startRequested && deadline.get() == null)
+				return in.read(buffer, offset, length);
+			startReader();
+		}
+		long h = head;
+		if (tail == h)
+			await(h);
+		int slot = (int) (h % SLOTS);
+		int available = lengths[slot];
+		if (available < 0) {
+			if (error != null)
+				throw error;
+			return -1;
+		}
+		int n = Math.min(length, available - slotPos);
+		System.arraycopy(slots[slot], slotPos, buffer, offset, n);
+		slotPos += n;
+		if (slotPos == available) {
+			// Devuelve el buffer al hilo lector en cuanto se ha consumido
+			slotPos = 0;
+			head = h + 1;
+			Thread producer = waitingProducer;
+			if (producer != null)
+				LockSupport.unpark(producer);
+		}
+		return n;
+	}
+
+	/**
+	 * Espera a que el hilo lector llene un buffer
+	 *
+	 * @param h El número de bloques consumidos
+	 * @throws InputTimeoutException Si se alcanza el plazo
+	 * @throws InterruptedIOException Si se interrumpe el hilo
+	 */
+	private void await(long h) throws IOException {
+		Long deadline = this.deadline.get();
+		while (tail == h) {
+			waitingConsumer = Thread.currentThread();
+			if (tail == h) {
+				if (deadline == null) {
+					LockSupport.park(this);
+				} else {
+					long remaining = deadline - System.nanoTime();
+					if (remaining <= 0) {
+						waitingConsumer = null;
+						throw new InputTimeoutException("Input not available before the deadline");
+					}
+					LockSupport.parkNanos(this, remaining);
+				}
+			}
+			waitingConsumer = null;
+			if (Thread.interrupted()) {
+				Thread.currentThread().interrupt();
+				throw new InterruptedIOException();
+			}
+		}
+	}
+
+	@Override
+	public Charset charset() {
+		return in.charset();
+	}
+
+	@Override
+	public void close() throws IOException {
+		closed = true;
+		Thread producer = waitingProducer;
+		if (producer != null)
+			LockSupport.unpark(producer);
+		in.close();
+	}
+
+}
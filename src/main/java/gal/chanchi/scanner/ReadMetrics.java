@@ -0,0 +1,144 @@
+/*
+Copyright (C) 2021 Santiago González Lago
+
+This program is free software: you can redistribute it and/or modify
+it under the terms of the GNU General Public License as published by
+the Free Software Foundation, either version 3 of the License, or
+(at your option) any later version.
+
+This program is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with this program.  If not, see <https://www.gnu.org/licenses/>.
+*/
+
+
+package gal.chanchi.scanner;
+
+import java.time.Duration;
+
+/**
+ * <h2>ReadMetrics</h2>
+ * 
+ * Copia inmutable de las métricas de lectura de un {@link KeyboardScanner} en
+ * un momento dado
+ * 
+ * @author Santiago González Lago
+ * @version 1.0
+ * @see KeyboardScanner#enableMetrics()
+ */
+public final class ReadMetrics {
+	private final long[] values;
+
+	ReadMetrics(long[] values) {
+		this.values = values;
+	}
+
+	/**
+	 * Obtiene el número de bytes leídos de la fuente, que puede ser mayor que el
+	 * de bytes consumidos, ya que el motor lee por bloques
+	 * 
+	 * @return El número de bytes leídos
+	 */
+	public long getBytes() {
+		return values[MetricsRecorder.BYTES];
+	}
+
+	/**
+	 * Obtiene el número de tokens leídos de un tipo
+	 * 
+	 * @param type El tipo de token
+	 * @return El número de tokens leídos
+	 */
+	public long getTokens(TokenType type) {
+		return values[MetricsRecorder.TOKENS + type.ordinal()];
+	}
+
+	/**
+	 * Obtiene el número de tokens leídos con parsers propios, como
+	 * {@link KeyboardScanner#nextInt(IntTokenParser)}, que no se cuentan en
+	 * ningún {@link TokenType}
+	 * 
+	 * @return El número de tokens leídos
+	 */
+	public long getCustomTokens() {
+		return values[MetricsRecorder.CUSTOM_TOKENS];
+	}
+
+	/**
+	 * Obtiene el número total de tokens leídos, de cualquier tipo o con parsers
+	 * propios
+	 * 
+	 * @return El número de tokens leídos
+	 */
+	public long getTokens() {
+		long tokens = 0;
+		for (int i = MetricsRecorder.TOKENS; i < values.length; i++)
+			tokens += values[i];
+		return tokens;
+	}
+
+	/**
+	 * Obtiene el número de líneas leídas con {@link KeyboardScanner#nextLine()} y
+	 * {@link KeyboardScanner#nextChar()}
+	 * 
+	 * @return El número de líneas leídas
+	 */
+	public long getLines() {
+		return values[MetricsRecorder.LINES];
+	}
+
+	/**
+	 * Obtiene el número de lecturas fallidas tras las que se ha vuelto a intentar
+	 * la lectura, al no haberse alcanzado el límite de intentos
+	 * 
+	 * @return El número de reintentos
+	 */
+	public long getRetries() {
+		return values[MetricsRecorder.RETRIES];
+	}
+
+	/**
+	 * Obtiene el número de tokens rechazados al alcanzarse el límite de intentos,
+	 * tanto si la lectura ha terminado en una excepción como si ha devuelto
+	 * {@link KeyboardScanner#MISMATCH}
+	 * 
+	 * @return El número de tokens rechazados
+	 */
+	public long getMismatches() {
+		return values[MetricsRecorder.MISMATCHES];
+	}
+
+	/**
+	 * Obtiene el tiempo que se ha estado esperando a que la fuente devuelva datos
+	 * 
+	 * @return El tiempo de espera
+	 */
+	public Duration getIoTime() {
+		return Duration.ofNanos(values[MetricsRecorder.IO_TIME]);
+	}
+
+	/**
+	 * Obtiene el tiempo que el motor de lectura ha dedicado a interpretar la
+	 * entrada, sin contar las esperas a la fuente
+	 * 
+	 * @return El tiempo de interpretación
+	 */
+	public Duration getParseTime() {
+		return Duration.ofNanos(Math.max(0, values[MetricsRecorder.ENGINE_TIME] - values[MetricsRecorder.IO_TIME]));
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder sb = new StringBuilder("ReadMetrics[bytes=").append(getBytes());
+		for (TokenType type : TokenType.values())
+			sb.append(", ").append(type.name().toLowerCase()).append('=').append(getTokens(type));
+		return sb.append(", custom=").append(getCustomTokens()).append(", lines=").append(getLines()).append(", retries=").append(getRetries())
+				.append(", mismatches=").append(getMismatches()).append(", ioTime=").append(getIoTime())
+				.append(", parseTime=").append(getParseTime()).append(']').toString();
+	}
+
+}
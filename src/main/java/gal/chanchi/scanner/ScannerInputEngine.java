@@ -0,0 +1,315 @@
+/*
+Copyright (C) 2021 Santiago González Lago
+
+This program is free software: you can redistribute it and/or modify
+it under the terms of the GNU General Public License as published by
+the Free Software Foundation, either version 3 of the License, or
+(at your option) any later version.
+
+This program is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with this program.  If not, see <https://www.gnu.org/licenses/>.
+*/
+
+package gal.chanchi.scanner;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.util.Arrays;
+import java.util.InputMismatchException;
+import java.util.Locale;
+import java.util.Scanner;
+import java.util.regex.Pattern;
+
+/**
+ * Motor de lectura que delega en {@link Scanner}, tal y como funcionaba
+ * KeyboardScanner originalmente
+ *
+ * @author Santiago González Lago
+ */
+final class ScannerInputEngine implements SourceInputEngine {
+	private static final Pattern BLANKS = Pattern.compile("[\\p{javaWhitespace}&&[^\\n\\r\\u2028\\u2029\\u0085]]*");
+	private static final Pattern DELIMITERS = Pattern.compile("\\p{javaWhitespace}*");
+	private static final Pattern LINE_END = Pattern.compile("\\G(?=[\\n\\r\\u2028\\u2029\\u0085]|\\z)");
+
+	private static final Pattern TOKEN = Pattern.compile("(?s).+");
+	private static final Pattern CHAR = Pattern.compile("(?s).");
+
+	private final SourceReader reader;
+	private final Charset charset;
+	private final TokenValue value = new TokenValue();
+	private Scanner sc;
+	private Locale locale = Locale.ENGLISH;
+
+	ScannerInputEngine(InputSource in) {
+		charset = in.charset();
+		reader = new SourceReader(in);
+		sc = new Scanner(reader).useLocale(locale);
+	}
+
+	@Override
+	public void useLocale(Locale locale) {
+		this.locale = locale;
+		sc.useLocale(locale);
+	}
+
+	@Override
+	public String nextLine() {
+		return sc.nextLine();
+	}
+
+	@Override
+	public CharSequence nextLineView() {
+		return sc.nextLine();
+	}
+
+	@Override
+	public int readChar() {
+		String c = sc.findWithinHorizon(CHAR, 1);
+		return c == null ? -1 : c.charAt(0);
+	}
+
+	/**
+	 * Scanner no permite saber si tiene caracteres sin bloquear, así que se
+	 * supone que sí
+	 */
+	@Override
+	public boolean ready() {
+		return true;
+	}
+
+	/**
+	 * Scanner no permite saber cuánto ha leído por adelantado
+	 */
+	@Override
+	public int buffered() {
+		return -1;
+	}
+
+	/**
+	 * Scanner no permite sacar los caracteres de su buffer, así que se leen
+	 * haciendo que la fuente termine, y se sustituye por uno nuevo
+	 */
+	@Override
+	public byte[] release() {
+		reader.detach();
+		String rest = sc.findWithinHorizon(TOKEN, 0);
+		byte[] undecoded = reader.reset();
+		sc = new Scanner(reader).useLocale(locale);
+		if (rest == null)
+			return undecoded;
+		byte[] decoded = rest.getBytes(charset);
+		byte[] bytes = Arrays.copyOf(decoded, decoded.length + undecoded.length);
+		System.arraycopy(undecoded, 0, bytes, decoded.length, undecoded.length);
+		return bytes;
+	}
+
+	@Override
+	public void skipLine() {
+		sc.nextLine();
+	}
+
+	@Override
+	public int read(TokenType type) {
+		switch (type) {
+		case BYTE:
+			if (sc.hasNextByte()) {
+				value.longValue = sc.nextByte();
+				return READ;
+			}
+			break;
+		case SHORT:
+			if (sc.hasNextShort()) {
+				value.longValue = sc.nextShort();
+				return READ;
+			}
+			break;
+		case INT:
+			if (sc.hasNextInt()) {
+				value.longValue = sc.nextInt();
+				return READ;
+			}
+			break;
+		case LONG:
+			if (sc.hasNextLong()) {
+				value.longValue = sc.nextLong();
+				return READ;
+			}
+			break;
+		case FLOAT:
+			if (sc.hasNextFloat()) {
+				value.doubleValue = sc.nextFloat();
+				return READ;
+			}
+			break;
+		case DOUBLE:
+			if (sc.hasNextDouble()) {
+				value.doubleValue = sc.nextDouble();
+				return READ;
+			}
+			break;
+		case BIG_INTEGER:
+			if (sc.hasNextBigInteger()) {
+				value.objectValue = sc.nextBigInteger();
+				return READ;
+			}
+			break;
+		case BIG_DECIMAL:
+			if (sc.hasNextBigDecimal()) {
+				value.objectValue = sc.nextBigDecimal();
+				return READ;
+			}
+			break;
+		}
+		boolean end = !sc.hasNext();
+		// Los métodos nextX de Scanner consumen los delimitadores aunque fallen
+		sc.skip(DELIMITERS);
+		return end ? END : MISMATCH;
+	}
+
+	/**
+	 * Los métodos hasNextX de Scanner guardan el token interpretado, que
+	 * reutiliza el método nextX siguiente
+	 */
+	@Override
+	public boolean hasNext(TokenType type) {
+		switch (type) {
+		case BYTE:
+			return sc.hasNextByte();
+		case SHORT:
+			return sc.hasNextShort();
+		case INT:
+			return sc.hasNextInt();
+		case LONG:
+			return sc.hasNextLong();
+		case FLOAT:
+			return sc.hasNextFloat();
+		case DOUBLE:
+			return sc.hasNextDouble();
+		case BIG_INTEGER:
+			return sc.hasNextBigInteger();
+		default:
+			return sc.hasNextBigDecimal();
+		}
+	}
+
+	@Override
+	public TokenValue value() {
+		return value;
+	}
+
+	/**
+	 * {@link Scanner#hasNext(Pattern)} deja disponible el token en
+	 * {@link Scanner#match()} sin consumirlo
+	 */
+	@Override
+	public CharSequence token() {
+		return sc.hasNext(TOKEN) ? sc.match().group() : null;
+	}
+
+	@Override
+	public ByteBuffer tokenBytes() {
+		skipDelimiters();
+		CharSequence token = token();
+		return token == null ? null : ByteBuffer.wrap(token.toString().getBytes(charset)).asReadOnlyBuffer();
+	}
+
+	@Override
+	public void skipToken() {
+		sc.next();
+	}
+
+	@Override
+	public void skipDelimiters() {
+		sc.skip(DELIMITERS);
+	}
+
+	/**
+	 * Repite la lectura con el método de Scanner que lanza la excepción, lo que
+	 * no consume el token
+	 */
+	@Override
+	public String mismatchMessage(TokenType type) {
+		try {
+			switch (type) {
+			case BYTE:
+				sc.nextByte();
+				break;
+			case SHORT:
+				sc.nextShort();
+				break;
+			case INT:
+				sc.nextInt();
+				break;
+			case LONG:
+				sc.nextLong();
+				break;
+			case FLOAT:
+				sc.nextFloat();
+				break;
+			case DOUBLE:
+				sc.nextDouble();
+				break;
+			case BIG_INTEGER:
+				sc.nextBigInteger();
+				break;
+			case BIG_DECIMAL:
+				sc.nextBigDecimal();
+				break;
+			}
+		} catch (InputMismatchException ex) {
+			return ex.getMessage();
+		}
+		return null;
+	}
+
+	@Override
+	public int nextInts(int[] array, int offset, int length, boolean inLine) {
+		int n = 0;
+		while (n < length && !(inLine && endOfLine()) && sc.hasNextInt())
+			array[offset + n++] = sc.nextInt();
+		return n;
+	}
+
+	@Override
+	public int nextLongs(long[] array, int offset, int length, boolean inLine) {
+		int n = 0;
+		while (n < length && !(inLine && endOfLine()) && sc.hasNextLong())
+			array[offset + n++] = sc.nextLong();
+		return n;
+	}
+
+	@Override
+	public int nextDoubles(double[] array, int offset, int length, boolean inLine) {
+		int n = 0;
+		while (n < length && !(inLine && endOfLine()) && sc.hasNextDouble())
+			array[offset + n++] = sc.nextDouble();
+		return n;
+	}
+
+	@Override
+	public boolean hasNext() {
+		return sc.hasNext();
+	}
+
+	@Override
+	public boolean hasNextLine() {
+		return sc.hasNextLine();
+	}
+
+	@Override
+	public boolean endOfLine() {
+		sc.skip(BLANKS);
+		return sc.findWithinHorizon(LINE_END, 1) != null;
+	}
+
+	@Override
+	public void close() {
+		sc.close();
+	}
+
+}
@@ -0,0 +1,112 @@
+/*
+Copyright (C) 2021 Santiago González Lago
+
+This program is free software: you can redistribute it and/or modify
+it under the terms of the GNU General Public License as published by
+the Free Software Foundation, either version 3 of the License, or
+(at your option) any later version.
+
+This program is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with this program.  If not, see <https://www.gnu.org/licenses/>.
+*/
+
+
+package gal.chanchi.scanner;
+
+import java.util.ArrayDeque;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+
+/**
+ * Ejecutor que ejecuta las tareas de una en una y en el orden en que se
+ * enviaron, de forma que las lecturas asíncronas de un KeyboardScanner nunca
+ * se mezclen
+ *
+ * Las tareas se ejecutan en hilos virtuales si la JVM los admite (Java 21 o
+ * posterior) y si no en hilos daemon que se reutilizan. Se buscan por
+ * reflexión para que la librería siga compilando para Java 14
+ *
+ * @author Santiago González Lago
+ */
+final class SerialExecutor implements Executor {
+	private static final Executor THREADS = threads();
+
+	private final Executor threads;
+	private final ArrayDeque<Runnable> tasks = new ArrayDeque<>();
+	private boolean running;
+
+	SerialExecutor() {
+		this(THREADS);
+	}
+
+	/**
+	 * Crea un ejecutor que ejecuta las tareas en los hilos de otro
+	 *
+	 * @param threads El ejecutor que proporciona los hilos
+	 */
+	SerialExecutor(Executor threads) {
+		this.threads = threads;
+	}
+
+	private static Executor threads() {
+		Executor threads = virtualThreads();
+		return threads != null ? threads : daemonThreads();
+	}
+
+	/**
+	 * Crea un ejecutor que lanza cada tarea en un hilo virtual
+	 *
+	 * @return El ejecutor, o null si la JVM no admite hilos virtuales
+	 */
+	static Executor virtualThreads() {
+		try {
+			return (Executor) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+		} catch (ReflectiveOperationException ex) {
+			return null;
+		}
+	}
+
+	/**
+	 * Crea un ejecutor que reutiliza hilos daemon, para JVM sin hilos virtuales
+	 *
+	 * @return El ejecutor
+	 */
+	static Executor daemonThreads() {
+		return Executors.newCachedThreadPool(task -> {
+			Thread thread = new Thread(task, "KeyboardScanner-async");
+			thread.setDaemon(true);
+			return thread;
+		});
+	}
+
+	@Override
+	public synchronized void execute(Runnable task) {
+		tasks.add(task);
+		if (!running) {
+			running = true;
+			threads.execute(this::drain);
+		}
+	}
+
+	/**
+	 * Ejecuta las tareas pendientes en el mismo hilo hasta vaciar la cola
+	 */
+	private void drain() {
+		Runnable task;
+		while ((task = next()) != null)
+			task.run();
+	}
+
+	private synchronized Runnable next() {
+		Runnable task = tasks.poll();
+		if (task == null)
+			running = false;
+		return task;
+	}
+
+}
@@ -0,0 +1,376 @@
+/*
+Copyright (C) 2021 Santiago González Lago
+
+This program is free software: you can redistribute it and/or modify
+it under the terms of the GNU General Public License as published by
+the Free Software Foundation, either version 3 of the License, or
+(at your option) any later version.
+
+This program is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with this program.  If not, see <https://www.gnu.org/licenses/>.
+*/
+
+
+package gal.chanchi.scanner;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Locale;
+
+/**
+ * Motor de lectura de un KeyboardScanner sobre los motores compartidos de la
+ * entrada estándar
+ *
+ * Guarda lo que es propio de cada KeyboardScanner y lo aplica al motor
+ * compartido en cada operación: el tipo de motor, el Locale y las métricas.
+ * También guarda el número de operaciones del motor compartido tras su última
+ * operación, que permite saber si otro KeyboardScanner ha leído desde entonces.
+ * Cada operación se hace con el {@link StdinHub} bloqueado, y lo que devuelve
+ * se copia antes de liberarlo, así que se puede leer desde varios hilos a la
+ * vez: cada token, línea o bloque de valores lo recibe un único
+ * KeyboardScanner. Lo que consta de varias operaciones, como descartar la
+ * línea de un token rechazado, sólo se completa si nadie ha leído entre medias
+ *
+ * @author Santiago González Lago
+ * @see StdinHub
+ */
+final class SharedInputEngine implements InputEngine {
+	private final StdinHub hub;
+	private final Engine type;
+	private final TokenValue value = new TokenValue();
+	private Locale locale = Locale.ENGLISH;
+	private MetricsRecorder metrics;
+	// Motor compartido medido con las métricas de este KeyboardScanner
+	private InputEngine metered;
+	private InputEngine meteredEngine;
+	private long operations;
+	// Copia del último token devuelto por token() o tokenBytes()
+	private String token;
+	private byte[] tokenBytes = new byte[0];
+	private ByteBuffer tokenView = ByteBuffer.wrap(tokenBytes).asReadOnlyBuffer();
+	private volatile boolean closed;
+
+	SharedInputEngine(StdinHub hub, Engine type) {
+		this.hub = hub;
+		this.type = type;
+		operations = hub.operations;
+	}
+
+	/**
+	 * Mide las operaciones de este KeyboardScanner, incluidos los bytes que lea
+	 * de la entrada
+	 *
+	 * @param metrics Las métricas
+	 */
+	void setMetrics(MetricsRecorder metrics) {
+		synchronized (hub) {
+			this.metrics = metrics;
+		}
+	}
+
+	/**
+	 * Prepara el motor compartido para una operación de este KeyboardScanner.
+	 * Debe llamarse con el StdinHub bloqueado
+	 */
+	private InputEngine enter() {
+		if (closed)
+			throw new IllegalStateException("Scanner closed");
+		InputEngine engine = hub.engine(type, locale, metrics);
+		if (metrics == null)
+			return engine;
+		if (meteredEngine != engine) {
+			metered = new MeteredInputEngine(engine, metrics);
+			meteredEngine = engine;
+		}
+		return metered;
+	}
+
+	private void exit() {
+		operations = ++hub.operations;
+	}
+
+	@Override
+	public boolean lastReader() {
+		synchronized (hub) {
+			return operations == hub.operations;
+		}
+	}
+
+	@Override
+	public void useLocale(Locale locale) {
+		synchronized (hub) {
+			this.locale = locale;
+		}
+	}
+
+	@Override
+	public String nextLine() {
+		synchronized (hub) {
+			try {
+				return enter().nextLine();
+			} finally {
+				exit();
+			}
+		}
+	}
+
+	/**
+	 * La vista del motor compartido la puede sobrescribir otro KeyboardScanner,
+	 * así que se devuelve una copia
+	 */
+	@Override
+	public CharSequence nextLineView() {
+		return nextLine();
+	}
+
+	@Override
+	public int readChar() {
+		synchronized (hub) {
+			try {
+				return enter().readChar();
+			} finally {
+				exit();
+			}
+		}
+	}
+
+	@Override
+	public boolean ready() {
+		synchronized (hub) {
+			return enter().ready();
+		}
+	}
+
+	@Override
+	public int buffered() {
+		synchronized (hub) {
+			return enter().buffered();
+		}
+	}
+
+	/**
+	 * Si otro KeyboardScanner ha leído desde la última operación de éste, el
+	 * resto de la línea ya no es suyo y no se descarta
+	 */
+	@Override
+	public void skipLine() {
+		synchronized (hub) {
+			try {
+				InputEngine engine = enter();
+				if (operations == hub.operations)
+					engine.skipLine();
+			} finally {
+				exit();
+			}
+		}
+	}
+
+	@Override
+	public int read(TokenType type) {
+		synchronized (hub) {
+			try {
+				InputEngine engine = enter();
+				return keep(engine, engine.read(type));
+			} finally {
+				exit();
+			}
+		}
+	}
+
+	@Override
+	public int read(TokenParser parser) {
+		synchronized (hub) {
+			try {
+				InputEngine engine = enter();
+				return keep(engine, engine.read(parser));
+			} finally {
+				exit();
+			}
+		}
+	}
+
+	/**
+	 * Copia el valor leído antes de que otro KeyboardScanner lo sobrescriba
+	 */
+	private int keep(InputEngine engine, int status) {
+		if (status == READ) {
+			TokenValue read = engine.value();
+			value.longValue = read.longValue;
+			value.doubleValue = read.doubleValue;
+			value.objectValue = read.objectValue;
+		}
+		return status;
+	}
+
+	@Override
+	public boolean hasNext(TokenType type) {
+		synchronized (hub) {
+			try {
+				return enter().hasNext(type);
+			} finally {
+				exit();
+			}
+		}
+	}
+
+	@Override
+	public TokenValue value() {
+		return value;
+	}
+
+	@Override
+	public CharSequence token() {
+		synchronized (hub) {
+			try {
+				CharSequence token = enter().token();
+				this.token = token == null ? null : token.toString();
+				return this.token;
+			} finally {
+				exit();
+			}
+		}
+	}
+
+	@Override
+	public ByteBuffer tokenBytes() {
+		synchronized (hub) {
+			try {
+				ByteBuffer bytes = enter().tokenBytes();
+				if (bytes == null) {
+					token = null;
+					return null;
+				}
+				int length = bytes.remaining();
+				if (tokenBytes.length < length) {
+					tokenBytes = Arrays.copyOf(tokenBytes, Math.max(length, tokenBytes.length * 2));
+					tokenView = ByteBuffer.wrap(tokenBytes).asReadOnlyBuffer();
+				}
+				bytes.get(tokenBytes, 0, length);
+				token = new String(tokenBytes, 0, length, hub.readAhead.charset());
+				tokenView.limit(length).position(0);
+				return tokenView;
+			} finally {
+				exit();
+			}
+		}
+	}
+
+	/**
+	 * Si otro KeyboardScanner ha leído desde que éste obtuvo el token, sólo se
+	 * consume si sigue siendo el siguiente
+	 */
+	@Override
+	public void skipToken() {
+		synchronized (hub) {
+			try {
+				InputEngine engine = enter();
+				if (operations == hub.operations || token != null && token.contentEquals(engine.token()))
+					engine.skipToken();
+			} finally {
+				exit();
+			}
+		}
+	}
+
+	@Override
+	public void skipDelimiters() {
+		synchronized (hub) {
+			try {
+				enter().skipDelimiters();
+			} finally {
+				exit();
+			}
+		}
+	}
+
+	/**
+	 * El motivo sólo se conoce si nadie ha leído desde el rechazo
+	 */
+	@Override
+	public String mismatchMessage(TokenType type) {
+		synchronized (hub) {
+			return operations == hub.operations ? enter().mismatchMessage(type) : null;
+		}
+	}
+
+	@Override
+	public int nextInts(int[] array, int offset, int length, boolean inLine) {
+		synchronized (hub) {
+			try {
+				return enter().nextInts(array, offset, length, inLine);
+			} finally {
+				exit();
+			}
+		}
+	}
+
+	@Override
+	public int nextLongs(long[] array, int offset, int length, boolean inLine) {
+		synchronized (hub) {
+			try {
+				return enter().nextLongs(array, offset, length, inLine);
+			} finally {
+				exit();
+			}
+		}
+	}
+
+	@Override
+	public int nextDoubles(double[] array, int offset, int length, boolean inLine) {
+		synchronized (hub) {
+			try {
+				return enter().nextDoubles(array, offset, length, inLine);
+			} finally {
+				exit();
+			}
+		}
+	}
+
+	@Override
+	public boolean hasNext() {
+		synchronized (hub) {
+			try {
+				return enter().hasNext();
+			} finally {
+				exit();
+			}
+		}
+	}
+
+	@Override
+	public boolean hasNextLine() {
+		synchronized (hub) {
+			try {
+				return enter().hasNextLine();
+			} finally {
+				exit();
+			}
+		}
+	}
+
+	@Override
+	public boolean endOfLine() {
+		synchronized (hub) {
+			try {
+				return enter().endOfLine();
+			} finally {
+				exit();
+			}
+		}
+	}
+
+	/**
+	 * La entrada estándar la siguen usando los demás KeyboardScanner, así que
+	 * sólo se impide que éste siga leyendo
+	 */
+	@Override
+	public void close() {
+		closed = true;
+	}
+
+}
@@ -0,0 +1,43 @@
+/*
+Copyright (C) 2021 Santiago González Lago
+
+This program is free software: you can redistribute it and/or modify
+it under the terms of the GNU General Public License as published by
+the Free Software Foundation, either version 3 of the License, or
+(at your option) any later version.
+
+This program is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with this program.  If not, see <https://www.gnu.org/licenses/>.
+*/
+
+
+package gal.chanchi.scanner;
+
+/**
+ * Motor que lee directamente de una {@link InputSource}, a diferencia de los
+ * que envuelven a otro motor, como {@link MeteredInputEngine} o
+ * {@link SharedInputEngine}. Sólo estos motores pueden devolver a la fuente lo
+ * que han leído por adelantado
+ *
+ * @author Santiago González Lago
+ * @see Engine#open(InputSource)
+ */
+interface SourceInputEngine extends InputEngine {
+
+	/**
+	 * Devuelve lo que el motor ha leído de la fuente pero todavía no ha
+	 * consumido, vaciando su buffer, de forma que otro motor pueda continuar la
+	 * lectura donde la ha dejado este. El motor puede seguir usándose después,
+	 * y volverá a leer de la fuente
+	 *
+	 * @return Los bytes pendientes, en la codificación de la fuente
+	 * @see StdinHub
+	 */
+	byte[] release();
+
+}
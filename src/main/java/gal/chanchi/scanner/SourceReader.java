@@ -0,0 +1,139 @@
+/*
+Copyright (C) 2021 Santiago González Lago
+
+This program is free software: you can redistribute it and/or modify
+it under the terms of the GNU General Public License as published by
+the Free Software Foundation, either version 3 of the License, or
+(at your option) any later version.
+
+This program is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with this program.  If not, see <https://www.gnu.org/licenses/>.
+*/
+
+
+package gal.chanchi.scanner;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CodingErrorAction;
+
+/**
+ * Decodifica los bytes de una fuente para {@link java.util.Scanner}, sin
+ * perder nada si la fuente lanza una excepción
+ *
+ * Scanner sólo captura las IOException de su fuente, tratándolas como el final
+ * de la entrada, y deja su buffer a medio preparar con cualquier otra
+ * excepción. Cuando la fuente lanza {@link InputTimeoutException}, o se
+ * interrumpe el hilo, se devuelve el buffer al estado en que lo dejó Scanner
+ * antes de relanzarla, de forma que la siguiente lectura continúe donde se
+ * quedó la interrumpida. Los bytes que todavía no forman un carácter completo
+ * se guardan para la siguiente lectura
+ *
+ * @author Santiago González Lago
+ */
+final class SourceReader implements Readable, Closeable {
+	private static final int BUFFER_SIZE = 8192;
+
+	private final InputSource in;
+	private final CharsetDecoder decoder;
+	private final ByteBuffer bytes = ByteBuffer.allocate(BUFFER_SIZE).flip();
+	private boolean eof;
+	private boolean flushed;
+	private boolean detached;
+
+	SourceReader(InputSource in) {
+		this.in = in;
+		decoder = in.charset().newDecoder().onMalformedInput(CodingErrorAction.REPLACE)
+				.onUnmappableCharacter(CodingErrorAction.REPLACE);
+	}
+
+	@Override
+	public int read(CharBuffer cb) throws IOException {
+		if (detached)
+			return -1;
+		int start = cb.position();
+		while (true) {
+			if (!flushed) {
+				decoder.decode(bytes, cb, eof);
+				if (eof && decoder.flush(cb).isUnderflow())
+					flushed = true;
+			}
+			if (cb.position() > start)
+				return cb.position() - start;
+			if (eof)
+				return -1;
+			fill(cb, start);
+		}
+	}
+
+	private void fill(CharBuffer cb, int start) throws IOException {
+		bytes.compact();
+		int n;
+		try {
+			n = in.read(bytes.array(), bytes.arrayOffset() + bytes.position(), bytes.remaining());
+		} catch (InterruptedIOException ex) {
+			bytes.flip();
+			restore(cb, start);
+			throw new UncheckedIOException(ex);
+		} catch (IOException ex) {
+			bytes.flip();
+			throw ex;
+		} catch (RuntimeException ex) {
+			bytes.flip();
+			restore(cb, start);
+			throw ex;
+		}
+		if (n < 0)
+			eof = true;
+		else
+			bytes.position(bytes.position() + n);
+		bytes.flip();
+	}
+
+	/**
+	 * Deja el buffer como lo tenía Scanner antes de pedir más caracteres: con los
+	 * caracteres pendientes desde el principio y el límite tras ellos
+	 */
+	private static void restore(CharBuffer cb, int start) {
+		cb.limit(start);
+		cb.position(0);
+	}
+
+	/**
+	 * Hace que las lecturas siguientes terminen como si se hubiese llegado al
+	 * final de la fuente, sin leer de ella, para sacar de Scanner lo que ya ha
+	 * leído
+	 */
+	void detach() {
+		detached = true;
+	}
+
+	/**
+	 * Vacía el lector para que un nuevo Scanner siga leyendo de la fuente
+	 *
+	 * @return Los bytes leídos de la fuente que todavía no se habían decodificado
+	 */
+	byte[] reset() {
+		byte[] rest = new byte[bytes.remaining()];
+		bytes.get(rest).clear().flip();
+		decoder.reset();
+		eof = flushed = detached = false;
+		return rest;
+	}
+
+	@Override
+	public void close() throws IOException {
+		in.close();
+	}
+
+}
@@ -0,0 +1,42 @@
+/*
+Copyright (C) 2021 Santiago González Lago
+
+This program is free software: you can redistribute it and/or modify
+it under the terms of the GNU General Public License as published by
+the Free Software Foundation, either version 3 of the License, or
+(at your option) any later version.
+
+This program is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with this program.  If not, see <https://www.gnu.org/licenses/>.
+*/
+
+
+package gal.chanchi.scanner;
+
+import java.util.InputMismatchException;
+
+/**
+ * InputMismatchException que no captura la traza de la pila, que es la parte
+ * más costosa de crear una excepción
+ *
+ * @author Santiago González Lago
+ * @see KeyboardScanner#setStackTraceEnabled(boolean)
+ */
+final class StacklessInputMismatchException extends InputMismatchException {
+	private static final long serialVersionUID = 1L;
+
+	StacklessInputMismatchException(String message) {
+		super(message);
+	}
+
+	@Override
+	public synchronized Throwable fillInStackTrace() {
+		return this;
+	}
+
+}
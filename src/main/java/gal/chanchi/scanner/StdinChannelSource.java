@@ -0,0 +1,79 @@
+/*
+Copyright (C) 2021 Santiago González Lago
+
+This program is free software: you can redistribute it and/or modify
+it under the terms of the GNU General Public License as published by
+the Free Software Foundation, either version 3 of the License, or
+(at your option) any later version.
+
+This program is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with this program.  If not, see <https://www.gnu.org/licenses/>.
+*/
+
+package gal.chanchi.scanner;
+
+import java.io.FileDescriptor;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+
+/**
+ * Fuente que lee la entrada estándar directamente del descriptor 0 a través de
+ * un {@link FileChannel}, sin pasar por {@link System#in}
+ *
+ * Cada lectura del sistema se hace sobre un único buffer directo reutilizable,
+ * de forma que el canal no necesita buffers temporales, y se copia en bloque al
+ * array del motor. No hay más sincronización que la del propio canal, una vez
+ * por bloque leído
+ *
+ * @author Santiago González Lago
+ */
+final class StdinChannelSource implements InputSource {
+	private static final int BUFFER_SIZE = 1 << 16;
+
+	private final FileChannel channel;
+	private final Charset charset;
+	private final ByteBuffer buffer;
+
+	StdinChannelSource(Charset charset) {
+		channel = new FileInputStream(FileDescriptor.in).getChannel();
+		this.charset = charset;
+		buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+		buffer.flip();
+	}
+
+	@Override
+	public int read(byte[] dst, int offset, int length) throws IOException {
+		if (!buffer.hasRemaining()) {
+			buffer.clear();
+			int n;
+			do {
+				n = channel.read(buffer);
+			} while (n == 0);
+			buffer.flip();
+			if (n < 0)
+				return -1;
+		}
+		int n = Math.min(length, buffer.remaining());
+		buffer.get(dst, offset, n);
+		return n;
+	}
+
+	@Override
+	public Charset charset() {
+		return charset;
+	}
+
+	@Override
+	public void close() throws IOException {
+		channel.close();
+	}
+
+}
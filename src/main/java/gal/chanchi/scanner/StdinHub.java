@@ -0,0 +1,115 @@
+/*
+Copyright (C) 2021 Santiago González Lago
+
+This program is free software: you can redistribute it and/or modify
+it under the terms of the GNU General Public License as published by
+the Free Software Foundation, either version 3 of the License, or
+(at your option) any later version.
+
+This program is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with this program.  If not, see <https://www.gnu.org/licenses/>.
+*/
+
+
+package gal.chanchi.scanner;
+
+import java.io.InputStream;
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Lectura de la entrada estándar compartida por todos los KeyboardScanner que
+ * leen del teclado
+ *
+ * Cada motor lee por adelantado, así que si cada KeyboardScanner tuviese el
+ * suyo el primero se quedaría con la entrada que necesitan los demás. Por eso
+ * hay una única fuente de bytes, que se vuelve a crear si cambia
+ * {@link System#in}, con un único motor de cada tipo encima. Sólo uno de ellos
+ * está activo: al pasar a otro, el activo devuelve a la fuente lo que ha leído
+ * por adelantado, de forma que el nuevo continúa exactamente donde se quedó.
+ * Cada KeyboardScanner usa el motor a través de su propio
+ * {@link SharedInputEngine}, y todas las operaciones se sincronizan sobre el
+ * StdinHub
+ *
+ * @author Santiago González Lago
+ */
+final class StdinHub {
+	private static StdinHub hub;
+
+	private final InputStream in;
+	final ReadAheadInputSource readAhead;
+	private final MeteredInputSource metered;
+	private final PushbackInputSource source;
+	private final Map<Engine, SourceInputEngine> engines = new EnumMap<>(Engine.class);
+	private SourceInputEngine engine;
+	private Engine type;
+	// Locale aplicado al motor activo y métricas en las que se cuentan los bytes
+	// que se leen, que son las del último KeyboardScanner que lo usó
+	private Locale locale;
+	private MetricsRecorder metrics;
+	// Número de operaciones hechas con el motor desde todos los KeyboardScanner
+	long operations;
+
+	private StdinHub(InputStream in) {
+		this.in = in;
+		readAhead = new ReadAheadInputSource(InputSource.of(in));
+		metered = new MeteredInputSource(readAhead);
+		source = new PushbackInputSource(metered);
+	}
+
+	/**
+	 * Obtiene la lectura compartida de {@link System#in}, creándola si es
+	 * necesario
+	 *
+	 * @return La lectura compartida
+	 */
+	static synchronized StdinHub get() {
+		InputStream in = System.in;
+		if (hub == null || hub.in != in)
+			hub = new StdinHub(in);
+		return hub;
+	}
+
+	/**
+	 * Prepara el motor de un tipo para una operación, pasándole lo que el motor
+	 * activo haya leído por adelantado si es de otro tipo. Debe llamarse con el
+	 * StdinHub bloqueado
+	 *
+	 * @param type    El tipo de motor
+	 * @param locale  El Locale de la operación
+	 * @param metrics Las métricas de la operación, o null si no se miden
+	 * @return El motor
+	 */
+	InputEngine engine(Engine type, Locale locale, MetricsRecorder metrics) {
+		if (type == this.type && locale == this.locale && metrics == this.metrics)
+			return engine;
+		if (type != this.type) {
+			SourceInputEngine next = engines.get(type);
+			if (next == null) {
+				next = type.open(source);
+				engines.put(type, next);
+			}
+			if (engine != null)
+				source.unread(engine.release());
+			engine = next;
+			this.type = type;
+			this.locale = null;
+		}
+		if (this.locale != locale) {
+			engine.useLocale(locale);
+			this.locale = locale;
+		}
+		if (this.metrics != metrics) {
+			metered.setMetrics(metrics);
+			this.metrics = metrics;
+		}
+		return engine;
+	}
+
+}
@@ -0,0 +1,38 @@
+/*
+Copyright (C) 2021 Santiago González Lago
+
+This program is free software: you can redistribute it and/or modify
+it under the terms of the GNU General Public License as published by
+the Free Software Foundation, either version 3 of the License, or
+(at your option) any later version.
+
+This program is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with this program.  If not, see <https://www.gnu.org/licenses/>.
+*/
+
+
+package gal.chanchi.scanner;
+
+/**
+ * <h2>TokenParser</h2>
+ * 
+ * Interfaz común de los parsers con los que {@link KeyboardScanner} interpreta
+ * los tokens. No se implementa directamente, sino a través de
+ * {@link IntTokenParser}, {@link LongTokenParser}, {@link DoubleTokenParser} u
+ * {@link ObjectTokenParser}, y una misma clase no debe implementar más de una
+ * de ellas
+ * 
+ * Los parsers no deben lanzar excepciones para indicar que un token no es
+ * válido, sino devolver false o null, de forma que los reintentos de
+ * KeyboardScanner no tengan coste
+ * 
+ * @author Santiago González Lago
+ * @version 1.0
+ */
+public interface TokenParser {
+}
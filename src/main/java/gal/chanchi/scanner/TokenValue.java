@@ -0,0 +1,88 @@
+/*
+Copyright (C) 2021 Santiago González Lago
+
+This program is free software: you can redistribute it and/or modify
+it under the terms of the GNU General Public License as published by
+the Free Software Foundation, either version 3 of the License, or
+(at your option) any later version.
+
+This program is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with this program.  If not, see <https://www.gnu.org/licenses/>.
+*/
+
+
+package gal.chanchi.scanner;
+
+import java.util.function.DoubleConsumer;
+import java.util.function.IntConsumer;
+import java.util.function.LongConsumer;
+
+/**
+ * Valor del último token leído por un motor de lectura
+ *
+ * Implementa los consumidores de primitivos para recibir los valores de los
+ * parsers sin crear objetos
+ *
+ * @author Santiago González Lago
+ */
+final class TokenValue implements IntConsumer, LongConsumer, DoubleConsumer {
+	/**
+	 * El último byte, short, int o long leído
+	 */
+	long longValue;
+	/**
+	 * El último float o double leído
+	 */
+	double doubleValue;
+	/**
+	 * El último objeto leído
+	 */
+	Object objectValue;
+
+	@Override
+	public void accept(int value) {
+		longValue = value;
+	}
+
+	@Override
+	public void accept(long value) {
+		longValue = value;
+	}
+
+	@Override
+	public void accept(double value) {
+		doubleValue = value;
+	}
+
+	/**
+	 * Interpreta un token con un parser que no es un {@link BuiltInParser}
+	 *
+	 * La llamada al parser no se puede resolver en compilación, porque cada
+	 * parser de usuario es una clase distinta, pero sólo la pagan estos parsers:
+	 * KeyboardScanner integra su bucle de lectura en cada método con el parser
+	 * como constante, así que en las lecturas de los tipos básicos el JIT
+	 * resuelve la comprobación de {@link BuiltInParser} y nunca llega aquí.
+	 * Frente a buscar el token, las comprobaciones de tipo y una llamada por
+	 * interfaz no cuentan
+	 *
+	 * @param parser El parser
+	 * @param token  El token
+	 * @return true si el token es válido
+	 */
+	boolean parse(TokenParser parser, CharSequence token) {
+		if (parser instanceof IntTokenParser)
+			return ((IntTokenParser) parser).parse(token, this);
+		if (parser instanceof LongTokenParser)
+			return ((LongTokenParser) parser).parse(token, this);
+		if (parser instanceof DoubleTokenParser)
+			return ((DoubleTokenParser) parser).parse(token, this);
+		objectValue = ((ObjectTokenParser<?>) parser).parse(token);
+		return objectValue != null;
+	}
+
+}
@@ -0,0 +1,71 @@
+/*
+Copyright (C) 2021 Santiago González Lago
+
+This program is free software: you can redistribute it and/or modify
+it under the terms of the GNU General Public License as published by
+the Free Software Foundation, either version 3 of the License, or
+(at your option) any later version.
+
+This program is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with this program.  If not, see <https://www.gnu.org/licenses/>.
+*/
+
+
+package gal.chanchi.scanner;
+
+/**
+ * <h2>ValueHolder</h2>
+ * 
+ * Contenedor reutilizable en el que los métodos tryNextX de
+ * {@link KeyboardScanner} guardan el valor leído, de forma que se pueda leer
+ * hasta el final de la entrada sin crear objetos ni lanzar excepciones
+ * 
+ * @author Santiago González Lago
+ * @version 1.0
+ * @see KeyboardScanner#tryNextInt(ValueHolder)
+ */
+public final class ValueHolder {
+	private long longValue;
+	private double doubleValue;
+
+	/**
+	 * Obtiene el último int leído
+	 * 
+	 * @return El int
+	 */
+	public int getInt() {
+		return (int) longValue;
+	}
+
+	/**
+	 * Obtiene el último long leído
+	 * 
+	 * @return El long
+	 */
+	public long getLong() {
+		return longValue;
+	}
+
+	/**
+	 * Obtiene el último double leído
+	 * 
+	 * @return El double
+	 */
+	public double getDouble() {
+		return doubleValue;
+	}
+
+	void setLong(long value) {
+		longValue = value;
+	}
+
+	void setDouble(double value) {
+		doubleValue = value;
+	}
+
+}
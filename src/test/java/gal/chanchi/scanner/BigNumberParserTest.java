@@ -0,0 +1,78 @@
+/*
+Copyright (C) 2021 Santiago González Lago
+
+This program is free software: you can redistribute it and/or modify
+it under the terms of the GNU General Public License as published by
+the Free Software Foundation, either version 3 of the License, or
+(at your option) any later version.
+
+This program is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with this program.  If not, see <https://www.gnu.org/licenses/>.
+*/
+
+
+package gal.chanchi.scanner;
+
+import static org.junit.Assert.assertEquals;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+
+import org.junit.Test;
+
+/**
+ * Pruebas de la conversión de números con muchos dígitos
+ *
+ * @author Santiago González Lago
+ */
+public class BigNumberParserTest {
+	private static final int HUGE_DIGITS = 50_000;
+
+	private static String digits(Random random, int count) {
+		StringBuilder digits = new StringBuilder(count);
+		digits.append((char) ('1' + random.nextInt(9)));
+		for (int i = 1; i < count; i++)
+			digits.append((char) ('0' + random.nextInt(10)));
+		return digits.toString();
+	}
+
+	@Test
+	public void parseMatchesBigIntegerAroundEverySplit() {
+		Random random = new Random(4);
+		int t = BigNumberParser.THRESHOLD;
+		for (int count : new int[] { 1, 17, 18, 19, 36, 37, t - 1, t, t + 1, 2 * t + 5, 18 * 64 + 1, 10_000 }) {
+			String digits = digits(random, count);
+			byte[] bytes = ("  " + digits + " ").getBytes(StandardCharsets.US_ASCII);
+			assertEquals(new BigInteger(digits), BigNumberParser.parse(bytes, 2, 2 + count));
+		}
+	}
+
+	@Test
+	public void leadingZerosAndRunsOfZerosAreKept() {
+		int t = BigNumberParser.THRESHOLD;
+		String digits = "000" + "9".repeat(t) + "0".repeat(3 * t) + "1";
+		byte[] bytes = digits.getBytes(StandardCharsets.US_ASCII);
+		assertEquals(new BigInteger(digits), BigNumberParser.parse(bytes, 0, bytes.length));
+	}
+
+	@Test
+	public void hugeTokensAreReadOnBothEngines() {
+		Random random = new Random(40);
+		String integer = "-" + digits(random, HUGE_DIGITS);
+		String decimal = digits(random, HUGE_DIGITS / 2) + "." + digits(random, HUGE_DIGITS / 2) + "e-7";
+		for (Engine engine : Engine.values()) {
+			KeyboardScanner ks = new KeyboardScanner(InputSource.of(integer + "\n" + decimal + " 12\n"), 1, engine);
+			assertEquals(new BigInteger(integer), ks.nextBigInteger());
+			assertEquals(new BigDecimal(decimal), ks.nextBigDecimal());
+			assertEquals(BigInteger.valueOf(12), ks.nextBigInteger());
+		}
+	}
+
+}
@@ -0,0 +1,102 @@
+/*
+Copyright (C) 2021 Santiago González Lago
+
+This program is free software: you can redistribute it and/or modify
+it under the terms of the GNU General Public License as published by
+the Free Software Foundation, either version 3 of the License, or
+(at your option) any later version.
+
+This program is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with this program.  If not, see <https://www.gnu.org/licenses/>.
+*/
+
+
+package gal.chanchi.scanner;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+/**
+ * Pruebas de la conversión de números decimales de {@link Engine#FAST}
+ *
+ * @author Santiago González Lago
+ */
+public class FastInputEngineTest {
+
+	private static KeyboardScanner scanner(String input) {
+		return new KeyboardScanner(InputSource.of(input), 1, Engine.FAST);
+	}
+
+	@Test
+	public void negativeDoubleNeedingExactConversion() {
+		String token = "-9007199254740993.00000000000000000001";
+		assertEquals(Double.parseDouble(token), scanner(token).nextDouble(), 0);
+	}
+
+	@Test
+	public void negativeFloatNeedingExactConversion() {
+		String token = "-16777217.000000000000000000001";
+		assertEquals(Float.parseFloat(token), scanner(token).nextFloat(), 0);
+	}
+
+	@Test
+	public void doublesMatchDoubleParseDouble() {
+		Random random = new Random(42);
+		StringBuilder input = new StringBuilder();
+		String[] tokens = new String[100_000];
+		for (int i = 0; i < tokens.length; i++) {
+			tokens[i] = randomDecimal(random);
+			input.append(tokens[i]).append('\n');
+		}
+		KeyboardScanner ks = scanner(input.toString());
+		for (String token : tokens)
+			assertEquals(token, Double.doubleToLongBits(Double.parseDouble(token)),
+					Double.doubleToLongBits(ks.nextDouble()));
+	}
+
+	@Test
+	public void floatsMatchFloatParseFloat() {
+		Random random = new Random(43);
+		StringBuilder input = new StringBuilder();
+		String[] tokens = new String[100_000];
+		for (int i = 0; i < tokens.length; i++) {
+			tokens[i] = randomDecimal(random);
+			input.append(tokens[i]).append('\n');
+		}
+		KeyboardScanner ks = scanner(input.toString());
+		for (String token : tokens)
+			assertEquals(token, Float.floatToIntBits(Float.parseFloat(token)), Float.floatToIntBits(ks.nextFloat()));
+	}
+
+	/**
+	 * Genera decimales con signo y muchos dígitos, de forma que una parte de ellos
+	 * necesite la conversión exacta
+	 */
+	private static String randomDecimal(Random random) {
+		StringBuilder token = new StringBuilder();
+		if (random.nextBoolean())
+			token.append('-');
+		token.append(1 + random.nextInt(9));
+		int digits = random.nextInt(25);
+		for (int i = 0; i < digits; i++)
+			token.append(random.nextInt(10));
+		if (random.nextBoolean()) {
+			token.append('.');
+			int fraction = 1 + random.nextInt(25);
+			for (int i = 0; i < fraction; i++)
+				token.append(random.nextInt(10));
+		}
+		if (random.nextInt(4) == 0)
+			token.append('e').append(random.nextInt(40) - 20);
+		return token.toString();
+	}
+
+}
@@ -0,0 +1,140 @@
+/*
+Copyright (C) 2021 Santiago González Lago
+
+This program is free software: you can redistribute it and/or modify
+it under the terms of the GNU General Public License as published by
+the Free Software Foundation, either version 3 of the License, or
+(at your option) any later version.
+
+This program is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with this program.  If not, see <https://www.gnu.org/licenses/>.
+*/
+
+
+package gal.chanchi.scanner;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Pruebas de las fuentes de entrada creadas por los métodos de InputSource
+ *
+ * @author Santiago González Lago
+ */
+public class InputSourceTest {
+	private static final String TEXT = "12 -3 4.5\nñandú en la línea\n9999999999\n";
+	private static final byte[] BYTES = TEXT.getBytes(StandardCharsets.UTF_8);
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	/**
+	 * Fuente que entrega un único byte en cada lectura, para que todos los tokens
+	 * queden repartidos entre varios rellenos del buffer
+	 */
+	private static final class TrickleSource implements InputSource {
+		private final byte[] bytes;
+		private int position;
+		private boolean closed;
+
+		TrickleSource(byte[] bytes) {
+			this.bytes = bytes;
+		}
+
+		@Override
+		public int read(byte[] buffer, int offset, int length) {
+			if (position == bytes.length)
+				return -1;
+			buffer[offset] = bytes[position++];
+			return 1;
+		}
+
+		@Override
+		public Charset charset() {
+			return StandardCharsets.UTF_8;
+		}
+
+		@Override
+		public void close() {
+			closed = true;
+		}
+	}
+
+	private static void assertReadsText(InputSource source, Engine engine) {
+		KeyboardScanner ks = new KeyboardScanner(source, 1, engine);
+		assertEquals(12, ks.nextInt());
+		assertEquals(-3, ks.nextLong());
+		assertEquals(4.5, ks.nextDouble(), 0);
+		assertEquals("ñandú en la línea", ks.nextLine());
+		assertEquals(9999999999L, ks.nextLong());
+		assertFalse(ks.tryNextInt().isPresent());
+	}
+
+	@Test
+	public void everySourceReadsTheSameTokens() throws IOException {
+		Path file = folder.newFile().toPath();
+		Files.write(file, BYTES);
+		for (Engine engine : Engine.values()) {
+			assertReadsText(InputSource.of(new ByteArrayInputStream(BYTES), StandardCharsets.UTF_8), engine);
+			assertReadsText(InputSource.of(Channels.newChannel(new ByteArrayInputStream(BYTES)),
+					StandardCharsets.UTF_8), engine);
+			assertReadsText(InputSource.of(file, StandardCharsets.UTF_8), engine);
+			assertReadsText(InputSource.of(ByteBuffer.wrap(BYTES), StandardCharsets.UTF_8), engine);
+			ByteBuffer direct = ByteBuffer.allocateDirect(BYTES.length);
+			direct.put(BYTES).flip();
+			assertReadsText(InputSource.of(direct, StandardCharsets.UTF_8), engine);
+			assertReadsText(InputSource.of(new StringBuilder(TEXT)), engine);
+			assertReadsText(new TrickleSource(BYTES), engine);
+		}
+	}
+
+	@Test
+	public void byteBufferSourcesReadFromPositionToLimitWithoutModifyingTheBuffer() {
+		ByteBuffer buffer = ByteBuffer.wrap("99 1 2 3 99".getBytes(StandardCharsets.US_ASCII));
+		buffer.position(3).limit(8);
+		KeyboardScanner ks = new KeyboardScanner(InputSource.of(buffer));
+		assertEquals(6, ks.ints().sum());
+		assertEquals(3, buffer.position());
+		assertEquals(8, buffer.limit());
+	}
+
+	@Test
+	public void nonAsciiCompatibleCharsetsAreDecoded() {
+		byte[] bytes = "7\nλόγος\n".getBytes(StandardCharsets.UTF_16);
+		for (Engine engine : Engine.values()) {
+			KeyboardScanner ks = new KeyboardScanner(
+					InputSource.of(new ByteArrayInputStream(bytes), StandardCharsets.UTF_16), 1, engine);
+			assertEquals(7, ks.nextInt());
+			assertEquals("λόγος", ks.nextLine());
+		}
+	}
+
+	@Test
+	public void closingTheScannerClosesTheSource() {
+		TrickleSource source = new TrickleSource(BYTES);
+		KeyboardScanner ks = new KeyboardScanner(source);
+		assertEquals(12, ks.nextInt());
+		ks.close();
+		assertTrue(source.closed);
+	}
+
+}
@@ -0,0 +1,73 @@
+/*
+Copyright (C) 2021 Santiago González Lago
+
+This program is free software: you can redistribute it and/or modify
+it under the terms of the GNU General Public License as published by
+the Free Software Foundation, either version 3 of the License, or
+(at your option) any later version.
+
+This program is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with this program.  If not, see <https://www.gnu.org/licenses/>.
+*/
+
+
+package gal.chanchi.scanner;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+import java.io.IOException;
+import java.io.PipedInputStream;
+import java.io.PipedOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+
+import org.junit.Test;
+
+/**
+ * Pruebas del lector de pulsaciones de teclas
+ *
+ * @author Santiago González Lago
+ */
+public class KeyEventReaderTest {
+
+	private static void closeStopsTheReader(Engine engine) throws IOException, InterruptedException {
+		PipedOutputStream out = new PipedOutputStream();
+		KeyboardScanner ks = new KeyboardScanner(InputSource.of(new PipedInputStream(out), StandardCharsets.UTF_8), 1,
+				engine);
+		try {
+			KeyEventReader keys = ks.keyEvents();
+			out.write('a');
+			out.flush();
+			KeyEvent event = keys.take();
+			assertEquals(KeyEvent.Key.CHARACTER, event.getKey());
+			assertEquals('a', event.getChar());
+			// El hilo lector está esperando la siguiente tecla
+			keys.close();
+			for (Thread thread : Thread.getAllStackTraces().keySet())
+				assertFalse(thread.getName().equals("KeyboardScanner-keys") && thread.isAlive());
+			out.write("b\n".getBytes(StandardCharsets.UTF_8));
+			assertEquals("b", ks.nextLine(Duration.ofSeconds(10)));
+			assertEquals(null, keys.poll());
+		} finally {
+			out.close();
+			ks.close();
+		}
+	}
+
+	@Test
+	public void closeStopsTheReaderWithFastEngine() throws IOException, InterruptedException {
+		closeStopsTheReader(Engine.FAST);
+	}
+
+	@Test
+	public void closeStopsTheReaderWithScannerEngine() throws IOException, InterruptedException {
+		closeStopsTheReader(Engine.SCANNER);
+	}
+
+}
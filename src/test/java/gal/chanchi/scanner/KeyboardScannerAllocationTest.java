@@ -0,0 +1,115 @@
+/*
+Copyright (C) 2021 Santiago González Lago
+
+This program is free software: you can redistribute it and/or modify
+it under the terms of the GNU General Public License as published by
+the Free Software Foundation, either version 3 of the License, or
+(at your option) any later version.
+
+This program is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with this program.  If not, see <https://www.gnu.org/licenses/>.
+*/
+
+
+package gal.chanchi.scanner;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assume.assumeTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.util.function.ToLongFunction;
+
+import org.junit.After;
+import org.junit.Test;
+
+import com.sun.management.ThreadMXBean;
+
+/**
+ * Comprueba que leer enteros con {@link Engine#FAST} no crea objetos
+ *
+ * @author Santiago González Lago
+ */
+public class KeyboardScannerAllocationTest {
+	private static final int CALLS = 1_000_000;
+	// Lecturas previas a la medida: bastan para que el JIT compile el camino
+	// de lectura con C2, de modo que la medida no incluye la carga de clases
+	// ni los perfiles del intérprete
+	private static final int WARMUP = 2 * CALLS;
+	// Margen para asignaciones del propio hilo ajenas a la lectura
+	private static final long MAX_ALLOCATED_BYTES = 1024;
+
+	private final InputStream stdin = System.in;
+
+	private static KeyboardScanner scanner(int count, int modulus) {
+		StringBuilder input = new StringBuilder();
+		for (int i = 0; i < count; i++)
+			input.append(i % modulus - modulus / 2).append(i % 10 == 9 ? '\n' : ' ');
+		System.setIn(new ByteArrayInputStream(input.toString().getBytes(StandardCharsets.US_ASCII)));
+		return new KeyboardScanner(1, Engine.FAST);
+	}
+
+	/**
+	 * Lee {@link #WARMUP} valores para calentar el código y mide los bytes
+	 * asignados por el hilo al leer otros {@link #CALLS}.
+	 * <p>
+	 * El camino de lectura no crea objetos por sí mismo, así que la comprobación
+	 * no depende de que el análisis de escape del JIT elimine asignaciones: sólo
+	 * supone que, tras el calentamiento, el hilo no inicializa clases ni reserva
+	 * buffers nuevos mientras mide.
+	 */
+	private static long allocatedBytes(int modulus, ToLongFunction<KeyboardScanner> read) {
+		ThreadMXBean threads = (ThreadMXBean) ManagementFactory.getThreadMXBean();
+		assumeTrue(threads.isThreadAllocatedMemorySupported());
+		threads.setThreadAllocatedMemoryEnabled(true);
+		KeyboardScanner ks = scanner(WARMUP + CALLS, modulus);
+		long sum = 0;
+		for (int i = 0; i < WARMUP; i++)
+			sum += read.applyAsLong(ks);
+		long thread = Thread.currentThread().getId();
+		long before = threads.getThreadAllocatedBytes(thread);
+		for (int i = 0; i < CALLS; i++)
+			sum += read.applyAsLong(ks);
+		long allocated = threads.getThreadAllocatedBytes(thread) - before;
+		assertEquals(-(WARMUP + CALLS) / modulus * (modulus / 2), sum);
+		return allocated;
+	}
+
+	@After
+	public void restoreStdin() {
+		System.setIn(stdin);
+	}
+
+	@Test
+	public void nextIntDoesNotAllocate() {
+		long allocated = allocatedBytes(1_000_000, KeyboardScanner::nextInt);
+		assertTrue(allocated + " bytes", allocated < MAX_ALLOCATED_BYTES);
+	}
+
+	@Test
+	public void nextLongDoesNotAllocate() {
+		long allocated = allocatedBytes(1_000_000, KeyboardScanner::nextLong);
+		assertTrue(allocated + " bytes", allocated < MAX_ALLOCATED_BYTES);
+	}
+
+	@Test
+	public void nextShortDoesNotAllocate() {
+		long allocated = allocatedBytes(10_000, KeyboardScanner::nextShort);
+		assertTrue(allocated + " bytes", allocated < MAX_ALLOCATED_BYTES);
+	}
+
+	@Test
+	public void nextByteDoesNotAllocate() {
+		long allocated = allocatedBytes(200, KeyboardScanner::nextByte);
+		assertTrue(allocated + " bytes", allocated < MAX_ALLOCATED_BYTES);
+	}
+
+}
@@ -0,0 +1,86 @@
+/*
+Copyright (C) 2021 Santiago González Lago
+
+This program is free software: you can redistribute it and/or modify
+it under the terms of the GNU General Public License as published by
+the Free Software Foundation, either version 3 of the License, or
+(at your option) any later version.
+
+This program is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with this program.  If not, see <https://www.gnu.org/licenses/>.
+*/
+
+
+package gal.chanchi.scanner;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+import java.util.InputMismatchException;
+import java.util.function.Consumer;
+
+import org.junit.Test;
+
+/**
+ * Pruebas de los mensajes de error de las lecturas por bloques
+ *
+ * @author Santiago González Lago
+ */
+public class KeyboardScannerArrayTest {
+
+	private static void assertMessage(String expected, Engine engine, String input,
+			Consumer<KeyboardScanner> read) {
+		try {
+			read.accept(new KeyboardScanner(InputSource.of(input), 1, engine));
+			fail("InputMismatchException expected");
+		} catch (InputMismatchException ex) {
+			assertEquals(expected, ex.getMessage());
+		}
+	}
+
+	@Test
+	public void lineReadersReportTheRejectedToken() {
+		for (Engine engine : Engine.values()) {
+			assertMessage("Invalid int at index 2: \"x\"", engine, "1 2 x 4\n", KeyboardScanner::nextIntLine);
+			assertMessage("Invalid long at index 1: \"1.5\"", engine, "7 1.5\n", KeyboardScanner::nextLongLine);
+			assertMessage("Invalid double at index 0: \"abc\"", engine, "abc\n", KeyboardScanner::nextDoubleLine);
+		}
+	}
+
+	@Test
+	public void remainingReadersReportTheRejectedToken() {
+		for (Engine engine : Engine.values()) {
+			assertMessage("Invalid int at index 3: \"99999999999\"", engine, "1\n2 3\n99999999999\n",
+					KeyboardScanner::remainingIntArray);
+			assertMessage("Invalid double at index 1: \"y\"", engine, "1 y", KeyboardScanner::remainingDoubleArray);
+		}
+	}
+
+	@Test
+	public void describingTheRejectedTokenDoesNotMoveTheInput() {
+		for (Engine engine : Engine.values()) {
+			KeyboardScanner ks = new KeyboardScanner(InputSource.of("1 2\nx\n3\n"), 1, engine);
+			try {
+				ks.remainingIntArray();
+				fail("InputMismatchException expected");
+			} catch (InputMismatchException ex) {
+				assertEquals("Invalid int at index 2: \"x\"", ex.getMessage());
+			}
+			// Sólo se descarta el resto de la línea en la que estaba la lectura
+			assertEquals("x", ks.nextLine());
+			assertEquals(3, ks.nextInt());
+		}
+	}
+
+	@Test
+	public void streamsReportTheRejectedToken() {
+		for (Engine engine : Engine.values())
+			assertMessage("Invalid int: \"z\"", engine, "1 2\nz", ks -> ks.ints().sum());
+	}
+
+}
@@ -0,0 +1,82 @@
+/*
+Copyright (C) 2021 Santiago González Lago
+
+This program is free software: you can redistribute it and/or modify
+it under the terms of the GNU General Public License as published by
+the Free Software Foundation, either version 3 of the License, or
+(at your option) any later version.
+
+This program is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with this program.  If not, see <https://www.gnu.org/licenses/>.
+*/
+
+
+package gal.chanchi.scanner;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import org.junit.Test;
+
+/**
+ * Pruebas de las lecturas asíncronas
+ *
+ * @author Santiago González Lago
+ */
+public class KeyboardScannerAsyncTest {
+	private static final int READS = 1000;
+
+	private static String numbers(int count) {
+		StringBuilder input = new StringBuilder();
+		for (int i = 0; i < count; i++)
+			input.append(i).append(i % 10 == 9 ? '\n' : ' ');
+		return input.toString();
+	}
+
+	@Test
+	public void asyncReadsCompleteInSubmissionOrder() {
+		for (Engine engine : Engine.values()) {
+			KeyboardScanner ks = new KeyboardScanner(InputSource.of(numbers(READS)), 1, engine);
+			List<CompletableFuture<Integer>> reads = new ArrayList<>();
+			for (int i = 0; i < READS; i++)
+				reads.add(ks.nextIntAsync());
+			for (int i = 0; i < READS; i++)
+				assertEquals(i, (int) reads.get(i).join());
+		}
+	}
+
+	@Test
+	public void asyncReadsDoNotInterleave() {
+		for (Engine engine : Engine.values()) {
+			KeyboardScanner ks = new KeyboardScanner(InputSource.of(numbers(2 * READS)), 1, engine);
+			List<CompletableFuture<String>> reads = new ArrayList<>();
+			for (int i = 0; i < READS; i++)
+				reads.add(ks.readAsync(k -> k.nextInt() + "," + k.nextInt()));
+			for (int i = 0; i < READS; i++)
+				assertEquals(2 * i + "," + (2 * i + 1), reads.get(i).join());
+		}
+	}
+
+	@Test
+	public void syncReadsContinueWhereTheAsyncOnesStopped() {
+		for (Engine engine : Engine.values()) {
+			KeyboardScanner ks = new KeyboardScanner(InputSource.of(numbers(READS + 2)), 1, engine);
+			assertEquals(0, ks.nextInt());
+			List<CompletableFuture<Integer>> reads = new ArrayList<>();
+			for (int i = 0; i < READS; i++)
+				reads.add(ks.nextIntAsync());
+			for (int i = 0; i < READS; i++)
+				assertEquals(i + 1, (int) reads.get(i).join());
+			assertEquals(READS + 1, ks.nextInt());
+		}
+	}
+
+}
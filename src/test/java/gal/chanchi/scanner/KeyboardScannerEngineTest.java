@@ -0,0 +1,131 @@
+/*
+Copyright (C) 2021 Santiago González Lago
+
+This program is free software: you can redistribute it and/or modify
+it under the terms of the GNU General Public License as published by
+the Free Software Foundation, either version 3 of the License, or
+(at your option) any later version.
+
+This program is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with this program.  If not, see <https://www.gnu.org/licenses/>.
+*/
+
+
+package gal.chanchi.scanner;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.InputMismatchException;
+import java.util.Locale;
+import java.util.NoSuchElementException;
+
+import org.junit.Test;
+
+/**
+ * Pruebas de que los dos motores de lectura se comportan igual
+ *
+ * @author Santiago González Lago
+ */
+public class KeyboardScannerEngineTest {
+
+	@Test
+	public void typedReadsReturnTheSameValuesOnBothEngines() {
+		for (Engine engine : Engine.values()) {
+			KeyboardScanner ks = new KeyboardScanner(
+					InputSource.of("12 -7 3000000000 -128\n1.5 2e3 +0.25\nhello world\n  x\n"), 1, engine);
+			assertEquals(12, ks.nextInt());
+			assertEquals(-7, ks.nextShort());
+			assertEquals(3000000000L, ks.nextLong());
+			assertEquals(-128, ks.nextByte());
+			assertEquals(1.5f, ks.nextFloat(), 0);
+			assertEquals(2000, ks.nextDouble(), 0);
+			assertEquals(0.25, ks.nextDouble(), 0);
+			// La línea de los números ya no tiene nada más
+			assertEquals("hello world", ks.nextLine());
+			assertEquals(' ', ks.nextChar());
+			try {
+				ks.nextInt();
+				fail("NoSuchElementException expected");
+			} catch (NoSuchElementException ex) {
+				// Esperada
+			}
+		}
+	}
+
+	@Test
+	public void outOfRangeTokensAreRejectedOnBothEngines() {
+		for (Engine engine : Engine.values()) {
+			KeyboardScanner ks = new KeyboardScanner(InputSource.of("128\n2147483648\n-9223372036854775809\n1\n"), 1,
+					engine);
+			try {
+				ks.nextByte();
+				fail("InputMismatchException expected");
+			} catch (InputMismatchException ex) {
+				// Esperada
+			}
+			try {
+				ks.nextInt();
+				fail("InputMismatchException expected");
+			} catch (InputMismatchException ex) {
+				// Esperada
+			}
+			try {
+				ks.nextLong();
+				fail("InputMismatchException expected");
+			} catch (InputMismatchException ex) {
+				// Esperada
+			}
+			assertEquals(1, ks.nextByte());
+		}
+	}
+
+	@Test
+	public void attemptLimitDiscardsOneLinePerAttempt() {
+		for (Engine engine : Engine.values()) {
+			KeyboardScanner ks = new KeyboardScanner(InputSource.of("a\nb c\n3 4\n"), 3, engine);
+			assertEquals(3, ks.nextInt());
+			assertEquals(4, ks.nextInt());
+			ks = new KeyboardScanner(InputSource.of("a\nb c\n3 4\n"), 2, engine);
+			try {
+				ks.nextInt();
+				fail("InputMismatchException expected");
+			} catch (InputMismatchException ex) {
+				// Esperada
+			}
+			assertEquals(3, ks.nextInt());
+		}
+	}
+
+	@Test
+	public void localeSeparatorsAreAppliedOnBothEngines() {
+		for (Engine engine : Engine.values()) {
+			KeyboardScanner ks = new KeyboardScanner(InputSource.of("1.234.567 1.234,5 -0,5\n"), 1, engine);
+			ks.useLocale(Locale.GERMANY);
+			assertEquals(1234567, ks.nextInt());
+			assertEquals(1234.5, ks.nextDouble(), 0);
+			assertEquals(-0.5, ks.nextDouble(), 0);
+		}
+	}
+
+	@Test
+	public void sourcesThatAreNotAsciiCompatibleAreDecoded() {
+		for (Engine engine : Engine.values()) {
+			byte[] input = "42 ñandú\nsegunda línea\n".getBytes(StandardCharsets.UTF_16LE);
+			KeyboardScanner ks = new KeyboardScanner(
+					InputSource.of(new ByteArrayInputStream(input), StandardCharsets.UTF_16LE), 1, engine);
+			assertEquals(42, ks.nextInt());
+			char[] token = new char[16];
+			assertEquals("ñandú", new String(token, 0, ks.nextToken(token)));
+			assertEquals("segunda línea", ks.nextLine());
+		}
+	}
+
+}
@@ -0,0 +1,120 @@
+/*
+Copyright (C) 2021 Santiago González Lago
+
+This program is free software: you can redistribute it and/or modify
+it under the terms of the GNU General Public License as published by
+the Free Software Foundation, either version 3 of the License, or
+(at your option) any later version.
+
+This program is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with this program.  If not, see <https://www.gnu.org/licenses/>.
+*/
+
+
+package gal.chanchi.scanner;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+import java.util.Arrays;
+
+import org.junit.Test;
+
+/**
+ * Pruebas de {@link KeyboardScanner#nextLineView()} y
+ * {@link KeyboardScanner#copyTo(CharSequence, char[], int)}
+ *
+ * @author Santiago González Lago
+ */
+public class KeyboardScannerLineViewTest {
+
+	/**
+	 * Líneas vacías, con caracteres no ASCII, con todos los finales de línea, y
+	 * más largas que el buffer del motor
+	 */
+	private static String input() {
+		char[] longLine = new char[200_000];
+		for (int i = 0; i < longLine.length; i++)
+			longLine[i] = (char) ('a' + i % 26);
+		return "primera\n\nsegunda\r\ntercera\rcañón\r\n" + new String(longLine) + "\núltima";
+	}
+
+	@Test
+	public void viewsHaveTheSameCharsAsNextLine() {
+		String input = input();
+		for (Engine engine : Engine.values()) {
+			KeyboardScanner lines = new KeyboardScanner(InputSource.of(input), 1, engine);
+			KeyboardScanner views = new KeyboardScanner(InputSource.of(input), 1, engine);
+			for (int i = 0; i < 7; i++) {
+				String line = lines.nextLine();
+				CharSequence view = views.nextLineView();
+				assertEquals(line.length(), view.length());
+				assertEquals(line, view.toString());
+			}
+		}
+	}
+
+	@Test
+	public void viewsSkipTheRestOfTheLineOfTheLastToken() {
+		for (Engine engine : Engine.values()) {
+			KeyboardScanner ks = new KeyboardScanner(InputSource.of("1 2\ntexto\n"), 1, engine);
+			assertEquals(1, ks.nextInt());
+			assertEquals("texto", ks.nextLineView().toString());
+		}
+	}
+
+	@Test
+	public void viewsSupportTheCharSequenceMethods() {
+		for (Engine engine : Engine.values()) {
+			CharSequence view = new KeyboardScanner(InputSource.of("abcdef\n"), 1, engine).nextLineView();
+			assertEquals('c', view.charAt(2));
+			assertEquals("cde", view.subSequence(2, 5).toString());
+			try {
+				view.charAt(6);
+				fail("IndexOutOfBoundsException expected");
+			} catch (IndexOutOfBoundsException ex) {
+				// Esperada
+			}
+			try {
+				view.subSequence(4, 2);
+				fail("IndexOutOfBoundsException expected");
+			} catch (IndexOutOfBoundsException ex) {
+				// Esperada
+			}
+		}
+	}
+
+	@Test
+	public void copyToReusesTheArray() {
+		String input = "uno\ndos\nñandú\n";
+		for (Engine engine : Engine.values()) {
+			KeyboardScanner ks = new KeyboardScanner(InputSource.of(input), 1, engine);
+			char[] dst = new char[8];
+			Arrays.fill(dst, '-');
+			assertEquals(3, KeyboardScanner.copyTo(ks.nextLineView(), dst, 0));
+			assertEquals(3, KeyboardScanner.copyTo(ks.nextLineView(), dst, 3));
+			assertArrayEquals("unodos--".toCharArray(), dst);
+			assertEquals(5, KeyboardScanner.copyTo(ks.nextLineView(), dst, 1));
+			assertArrayEquals("uñandú--".toCharArray(), dst);
+		}
+	}
+
+	@Test
+	public void copyToChecksTheBoundsBeforeCopying() {
+		char[] dst = new char[4];
+		try {
+			KeyboardScanner.copyTo("abc", dst, 2);
+			fail("IndexOutOfBoundsException expected");
+		} catch (IndexOutOfBoundsException ex) {
+			// Esperada
+		}
+		assertArrayEquals(new char[4], dst);
+	}
+
+}
@@ -0,0 +1,102 @@
+/*
+Copyright (C) 2021 Santiago González Lago
+
+This program is free software: you can redistribute it and/or modify
+it under the terms of the GNU General Public License as published by
+the Free Software Foundation, either version 3 of the License, or
+(at your option) any later version.
+
+This program is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with this program.  If not, see <https://www.gnu.org/licenses/>.
+*/
+
+
+package gal.chanchi.scanner;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.stream.Collectors;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Pruebas de los streams de líneas de un fichero proyectado en memoria
+ *
+ * @author Santiago González Lago
+ */
+public class KeyboardScannerLinesTest {
+	private static final int LINES = 100_000;
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	private Path file(String content) throws IOException {
+		Path path = folder.newFile().toPath();
+		Files.write(path, content.getBytes(StandardCharsets.US_ASCII));
+		return path;
+	}
+
+	private static String lines(String terminator) {
+		StringBuilder content = new StringBuilder();
+		for (int i = 0; i < LINES; i++) {
+			if (i % 7 != 0)
+				content.append(i);
+			content.append(terminator);
+		}
+		return content.toString();
+	}
+
+	private static List<String> sequentialLines(Path path) throws IOException {
+		return new KeyboardScanner(path).lines().collect(Collectors.toList());
+	}
+
+	private static List<String> splitLines(Path path, long start, long end) throws IOException {
+		List<String> lines = new ArrayList<>();
+		try (FileChannel channel = FileChannel.open(path)) {
+			Spliterator<String> suffix = new MappedLineSpliterator<>(channel, start, end, StandardCharsets.US_ASCII,
+					false);
+			Spliterator<String> prefix = suffix.trySplit();
+			assertNotNull(prefix);
+			prefix.forEachRemaining(lines::add);
+			suffix.forEachRemaining(lines::add);
+		}
+		return lines;
+	}
+
+	@Test
+	public void parallelLinesMatchSequentialOnesWithEveryLineTerminator() throws IOException {
+		for (String terminator : new String[] { "\n", "\r\n", "\r" }) {
+			Path path = file(lines(terminator));
+			List<String> expected = sequentialLines(path);
+			assertEquals(LINES, expected.size());
+			assertEquals(expected, splitLines(path, 0, Files.size(path)));
+			assertEquals(expected, new KeyboardScanner(path).lines().parallel().collect(Collectors.toList()));
+		}
+	}
+
+	@Test
+	public void splittingDoesNotSeparateCarriageReturnAndLineFeed() throws IOException {
+		String content = lines("\r\n");
+		int lineFeed = content.indexOf("\r\n", content.length() / 4) + 1;
+		// El fichero se divide por la mitad, que aquí es el \n de un \r\n
+		Path path = file(content.substring(0, 2 * lineFeed));
+		assertEquals(sequentialLines(path), splitLines(path, 0, 2 * lineFeed));
+	}
+
+}
@@ -0,0 +1,110 @@
+/*
+Copyright (C) 2021 Santiago González Lago
+
+This program is free software: you can redistribute it and/or modify
+it under the terms of the GNU General Public License as published by
+the Free Software Foundation, either version 3 of the License, or
+(at your option) any later version.
+
+This program is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with this program.  If not, see <https://www.gnu.org/licenses/>.
+*/
+
+
+package gal.chanchi.scanner;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.InputMismatchException;
+
+import org.junit.Test;
+
+/**
+ * Pruebas de los tokens rechazados: los motores los rechazan sin lanzar
+ * excepciones, y KeyboardScanner sólo crea una al agotar los intentos
+ *
+ * @author Santiago González Lago
+ */
+public class KeyboardScannerMismatchTest {
+
+	@Test
+	public void enginesRejectTokensWithoutConsumingThem() {
+		for (Engine engine : Engine.values()) {
+			for (TokenType type : TokenType.values()) {
+				InputEngine input = engine.open(InputSource.of("  abc 1\n"));
+				assertEquals(engine + " " + type, InputEngine.MISMATCH, input.read(type));
+				assertEquals("abc", input.token().toString());
+				input.skipToken();
+				assertEquals(InputEngine.READ, input.read(type));
+				assertEquals(InputEngine.END, input.read(type));
+			}
+			InputEngine input = engine.open(InputSource.of("300"));
+			assertEquals(InputEngine.MISMATCH, input.read(TokenType.BYTE));
+			assertEquals(InputEngine.READ, input.read(TokenType.SHORT));
+			assertEquals(300, input.value().longValue);
+		}
+	}
+
+	@Test
+	public void retriesDoNotNeedExceptions() {
+		int badLines = 10_000;
+		StringBuilder input = new StringBuilder();
+		for (int i = 0; i < badLines; i++)
+			input.append("x").append(i).append('\n');
+		input.append("42\n");
+		for (Engine engine : Engine.values()) {
+			KeyboardScanner ks = new KeyboardScanner(InputSource.of(input), badLines + 1, engine);
+			ks.enableMetrics();
+			assertEquals(42, ks.nextInt());
+			assertEquals(badLines, ks.getMetrics().getRetries());
+			assertEquals(0, ks.getMetrics().getMismatches());
+		}
+	}
+
+	private static InputMismatchException nextIntMismatch(Engine engine, boolean stackTraceEnabled) {
+		KeyboardScanner ks = new KeyboardScanner(InputSource.of("1\nz\n"), 1, engine);
+		ks.setStackTraceEnabled(stackTraceEnabled);
+		ks.nextInt();
+		try {
+			ks.nextInt();
+		} catch (InputMismatchException ex) {
+			return ex;
+		}
+		throw new AssertionError("InputMismatchException expected");
+	}
+
+	@Test
+	public void stacklessExceptionsOnlyLoseTheStackTrace() {
+		for (Engine engine : Engine.values()) {
+			InputMismatchException withStack = nextIntMismatch(engine, true);
+			InputMismatchException stackless = nextIntMismatch(engine, false);
+			assertTrue(withStack.getStackTrace().length > 0);
+			assertEquals(0, stackless.getStackTrace().length);
+			assertEquals(withStack.getMessage(), stackless.getMessage());
+		}
+	}
+
+	@Test
+	public void nextCharThrowsStacklessExceptionsAfterTheLastAttempt() {
+		for (Engine engine : Engine.values()) {
+			// Cada intento fallido descarta la línea vacía y la siguiente
+			KeyboardScanner ks = new KeyboardScanner(InputSource.of("\n\n\n\nok\n"), 2, engine);
+			ks.setStackTraceEnabled(false);
+			try {
+				ks.nextChar();
+				fail("StringIndexOutOfBoundsException expected");
+			} catch (StringIndexOutOfBoundsException ex) {
+				assertEquals(0, ex.getStackTrace().length);
+			}
+			assertEquals('o', ks.nextChar());
+		}
+	}
+
+}
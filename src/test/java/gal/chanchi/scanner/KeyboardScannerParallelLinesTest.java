@@ -0,0 +1,201 @@
+/*
+Copyright (C) 2021 Santiago González Lago
+
+This program is free software: you can redistribute it and/or modify
+it under the terms of the GNU General Public License as published by
+the Free Software Foundation, either version 3 of the License, or
+(at your option) any later version.
+
+This program is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with this program.  If not, see <https://www.gnu.org/licenses/>.
+*/
+
+
+package gal.chanchi.scanner;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+import org.junit.AfterClass;
+import org.junit.Test;
+
+/**
+ * Pruebas del procesamiento de líneas en paralelo
+ *
+ * @author Santiago González Lago
+ */
+public class KeyboardScannerParallelLinesTest {
+	private static final ExecutorService POOL = Executors.newFixedThreadPool(4);
+	private static final int LINES = 20_000;
+
+	@AfterClass
+	public static void shutdownPool() {
+		POOL.shutdown();
+	}
+
+	private static String input() {
+		StringBuilder input = new StringBuilder("cabecera\n");
+		for (int i = 0; i < LINES; i++)
+			input.append("línea ").append(i).append(i % 3 == 0 ? "\r\n" : "\n");
+		return input.toString();
+	}
+
+	/**
+	 * Executor que guarda los bloques hasta que la prueba los ejecuta
+	 */
+	private static final class ManualExecutor implements Executor {
+		private final BlockingQueue<Runnable> tasks = new LinkedBlockingQueue<>();
+
+		@Override
+		public void execute(Runnable command) {
+			tasks.add(command);
+		}
+	}
+
+	private static void pause() {
+		if (ThreadLocalRandom.current().nextInt(100) == 0)
+			LockSupport.parkNanos(100_000);
+	}
+
+	@Test
+	public void everyLineIsProcessedOnce() {
+		for (Engine engine : Engine.values()) {
+			for (int[] sizes : new int[][] { { 1, 1 }, { 7, 3 }, { 1024, 16 } }) {
+				KeyboardScanner ks = new KeyboardScanner(InputSource.of(input()), 1, engine);
+				assertEquals("cabecera", ks.nextLine());
+				ConcurrentHashMap<String, Integer> seen = new ConcurrentHashMap<>();
+				ks.forEachLineParallel(line -> {
+					pause();
+					seen.merge(line, 1, Integer::sum);
+				}, sizes[0], sizes[1], POOL);
+				assertEquals(LINES, seen.size());
+				for (int i = 0; i < LINES; i++)
+					assertEquals(Integer.valueOf(1), seen.get("línea " + i));
+			}
+		}
+	}
+
+	@Test
+	public void orderedResultsFollowTheLines() {
+		for (Engine engine : Engine.values()) {
+			for (int[] sizes : new int[][] { { 1, 1 }, { 5, 8 }, { 1024, 4 } }) {
+				KeyboardScanner ks = new KeyboardScanner(InputSource.of(input()), 1, engine);
+				ks.nextLine();
+				Thread caller = Thread.currentThread();
+				List<Integer> results = new ArrayList<>();
+				ks.forEachLineParallel(line -> {
+					pause();
+					return Integer.parseInt(line.substring(line.indexOf(' ') + 1));
+				}, result -> {
+					assertSame(caller, Thread.currentThread());
+					results.add(result);
+				}, sizes[0], sizes[1], POOL);
+				assertEquals(LINES, results.size());
+				for (int i = 0; i < LINES; i++)
+					assertEquals(i, results.get(i).intValue());
+			}
+		}
+	}
+
+	/**
+	 * Ejecuta los bloques de uno en uno, comprobando que la lectura se detiene
+	 * mientras hay queueDepth bloques pendientes
+	 */
+	private static void assertBounded(ManualExecutor executor, Thread reader, int queueDepth)
+			throws InterruptedException {
+		reader.start();
+		while (reader.isAlive()) {
+			Runnable task = executor.tasks.poll(100, TimeUnit.MILLISECONDS);
+			if (task == null)
+				continue;
+			assertTrue(executor.tasks.size() < queueDepth);
+			task.run();
+		}
+		reader.join();
+		assertTrue(executor.tasks.isEmpty());
+	}
+
+	@Test
+	public void readingWaitsForPendingBatches() throws InterruptedException {
+		int queueDepth = 3;
+		for (Engine engine : Engine.values()) {
+			KeyboardScanner ks = new KeyboardScanner(InputSource.of(input()), 1, engine);
+			ks.nextLine();
+			ManualExecutor executor = new ManualExecutor();
+			AtomicInteger processed = new AtomicInteger();
+			assertBounded(executor, new Thread(() -> ks.forEachLineParallel(line -> processed.incrementAndGet(),
+					100, queueDepth, executor)), queueDepth);
+			assertEquals(LINES, processed.get());
+
+			KeyboardScanner ordered = new KeyboardScanner(InputSource.of(input()), 1, engine);
+			ordered.nextLine();
+			List<String> results = new ArrayList<>();
+			assertBounded(executor, new Thread(() -> ordered.forEachLineParallel(line -> line, results::add, 100,
+					queueDepth, executor)), queueDepth);
+			assertEquals(LINES, results.size());
+			assertEquals("línea " + (LINES - 1), results.get(LINES - 1));
+		}
+	}
+
+	@Test
+	public void theFirstExceptionIsRethrown() {
+		for (Engine engine : Engine.values()) {
+			KeyboardScanner ks = new KeyboardScanner(InputSource.of(input()), 1, engine);
+			IllegalStateException failure = new IllegalStateException("línea 100");
+			try {
+				ks.forEachLineParallel(line -> {
+					if (line.equals("línea 100"))
+						throw failure;
+				}, 10, 2, POOL);
+				fail("IllegalStateException expected");
+			} catch (IllegalStateException ex) {
+				assertSame(failure, ex);
+			}
+			ks = new KeyboardScanner(InputSource.of(input()), 1, engine);
+			try {
+				ks.forEachLineParallel(line -> line, result -> {
+					if (result.equals("línea 100"))
+						throw failure;
+				}, 10, 2, POOL);
+				fail("IllegalStateException expected");
+			} catch (IllegalStateException ex) {
+				assertSame(failure, ex);
+			}
+		}
+	}
+
+	@Test
+	public void batchSizeAndQueueDepthMustBePositive() {
+		KeyboardScanner ks = new KeyboardScanner(InputSource.of(input()));
+		for (int[] sizes : new int[][] { { 0, 1 }, { 1, 0 }, { -1, 4 } }) {
+			try {
+				ks.forEachLineParallel(line -> {
+				}, sizes[0], sizes[1], POOL);
+				fail("IllegalArgumentException expected");
+			} catch (IllegalArgumentException ex) {
+				// Esperada
+			}
+		}
+	}
+
+}
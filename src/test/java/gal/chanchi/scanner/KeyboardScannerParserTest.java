@@ -0,0 +1,154 @@
+/*
+Copyright (C) 2021 Santiago González Lago
+
+This program is free software: you can redistribute it and/or modify
+it under the terms of the GNU General Public License as published by
+the Free Software Foundation, either version 3 of the License, or
+(at your option) any later version.
+
+This program is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with this program.  If not, see <https://www.gnu.org/licenses/>.
+*/
+
+
+package gal.chanchi.scanner;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.Charset;
+import java.util.InputMismatchException;
+
+import org.junit.After;
+import org.junit.Test;
+
+/**
+ * Pruebas de las lecturas con parsers propios
+ *
+ * @author Santiago González Lago
+ */
+public class KeyboardScannerParserTest {
+	// Sólo acepta tokens formados por dígitos
+	private static final IntTokenParser DIGITS = (token, result) -> {
+		int value = 0;
+		for (int i = 0; i < token.length(); i++) {
+			char c = token.charAt(i);
+			if (c < '0' || c > '9')
+				return false;
+			value = value * 10 + c - '0';
+		}
+		result.accept(value);
+		return true;
+	};
+	// Acepta los números en hexadecimal con el prefijo 0x
+	private static final LongTokenParser HEX = (token, result) -> {
+		if (token.length() < 3 || token.charAt(0) != '0' || token.charAt(1) != 'x')
+			return false;
+		long value = 0;
+		for (int i = 2; i < token.length(); i++) {
+			int digit = Character.digit(token.charAt(i), 16);
+			if (digit < 0)
+				return false;
+			value = value << 4 | digit;
+		}
+		result.accept(value);
+		return true;
+	};
+	// Acepta porcentajes como 50%
+	private static final DoubleTokenParser PERCENT = (token, result) -> {
+		int last = token.length() - 1;
+		if (last < 1 || token.charAt(last) != '%')
+			return false;
+		result.accept(Double.parseDouble(token.subSequence(0, last).toString()) / 100);
+		return true;
+	};
+	private static final ObjectTokenParser<Boolean> YES_NO = token -> "yes".contentEquals(token) ? Boolean.TRUE
+			: "no".contentEquals(token) ? Boolean.FALSE : null;
+	// Cada valor válido va precedido de una línea que su parser rechaza
+	private static final String EVERY_KIND = "x\n12\n0x\n0xff\n50\n50%\nmaybe\nyes\n0\nno\n";
+
+	private final InputStream stdin = System.in;
+
+	@After
+	public void restoreStdin() {
+		System.setIn(stdin);
+	}
+
+	private static void readWithEveryKindOfParser(KeyboardScanner ks) {
+		assertEquals(12, ks.nextInt(DIGITS));
+		assertEquals(0xff, ks.nextLong(HEX));
+		assertEquals(0.5, ks.nextDouble(PERCENT), 0);
+		assertEquals(Boolean.TRUE, ks.next(YES_NO));
+		ks.registerParser(Boolean.class, YES_NO);
+		assertEquals(Boolean.FALSE, ks.next(Boolean.class));
+	}
+
+	@Test
+	public void everyKindOfParserRetriesOnTheNextLine() {
+		for (Engine engine : Engine.values())
+			readWithEveryKindOfParser(new KeyboardScanner(InputSource.of(EVERY_KIND), 2, engine));
+	}
+
+	@Test
+	public void everyKindOfParserReadsThroughTheSharedKeyboard() {
+		for (Engine engine : Engine.values()) {
+			System.setIn(new ByteArrayInputStream(EVERY_KIND.getBytes(Charset.defaultCharset())));
+			readWithEveryKindOfParser(new KeyboardScanner(2, engine));
+		}
+	}
+
+	@Test
+	public void exhaustedAttemptsDiscardTheLineOfTheRejectedToken() {
+		for (Engine engine : Engine.values()) {
+			KeyboardScanner ks = new KeyboardScanner(InputSource.of("1 2\nabc def\n7\n"), 1, engine);
+			assertEquals(1, ks.nextInt(DIGITS));
+			assertEquals(2, ks.nextInt(DIGITS));
+			try {
+				ks.nextInt(DIGITS);
+				fail("InputMismatchException expected");
+			} catch (InputMismatchException ex) {
+				// Esperada
+			}
+			assertEquals(7, ks.nextInt(DIGITS));
+		}
+	}
+
+	@Test
+	public void retryDiscardsTheLineOfTheRejectedToken() {
+		for (Engine engine : Engine.values()) {
+			KeyboardScanner ks = new KeyboardScanner(InputSource.of("5\nabc\n7\n"), 2, engine);
+			assertEquals(5, ks.nextInt());
+			assertEquals(7, ks.nextInt(DIGITS));
+		}
+	}
+
+	@Test
+	public void metricsCountTheTokensOfUserParsers() {
+		for (Engine engine : Engine.values()) {
+			KeyboardScanner ks = new KeyboardScanner(InputSource.of("5\nabc\n7\n-1\n-2\n"), 2, engine);
+			ks.enableMetrics();
+			assertEquals(5, ks.nextInt());
+			assertEquals(7, ks.nextInt(DIGITS));
+			try {
+				ks.nextInt(DIGITS);
+				fail("InputMismatchException expected");
+			} catch (InputMismatchException ex) {
+				// Esperada
+			}
+			ReadMetrics metrics = ks.getMetrics();
+			assertEquals(1, metrics.getTokens(TokenType.INT));
+			assertEquals(1, metrics.getCustomTokens());
+			assertEquals(2, metrics.getTokens());
+			assertEquals(2, metrics.getRetries());
+			assertEquals(1, metrics.getMismatches());
+		}
+	}
+
+}
@@ -0,0 +1,129 @@
+/*
+Copyright (C) 2021 Santiago González Lago
+
+This program is free software: you can redistribute it and/or modify
+it under the terms of the GNU General Public License as published by
+the Free Software Foundation, either version 3 of the License, or
+(at your option) any later version.
+
+This program is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with this program.  If not, see <https://www.gnu.org/licenses/>.
+*/
+
+
+package gal.chanchi.scanner;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.Charset;
+import java.util.NoSuchElementException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.After;
+import org.junit.Test;
+
+/**
+ * Pruebas de la entrada estándar compartida por los KeyboardScanner que leen
+ * del teclado
+ *
+ * @author Santiago González Lago
+ */
+public class KeyboardScannerStdinTest {
+	private final InputStream stdin = System.in;
+
+	private static void setInput(String input) {
+		System.setIn(new ByteArrayInputStream(input.getBytes(Charset.defaultCharset())));
+	}
+
+	@After
+	public void restoreStdin() {
+		System.setIn(stdin);
+	}
+
+	@Test
+	public void enginesOfDifferentTypesContinueWhereTheOthersStopped() {
+		setInput("a\nb\nc\nd\n1 2\n3\n");
+		KeyboardScanner fast1 = new KeyboardScanner(Engine.FAST);
+		KeyboardScanner fast2 = new KeyboardScanner(Engine.FAST);
+		KeyboardScanner scanner = new KeyboardScanner(Engine.SCANNER);
+		assertEquals("a", fast1.nextLine());
+		assertEquals("b", fast2.nextLine());
+		assertEquals("c", scanner.nextLine());
+		assertEquals("d", fast1.nextLine());
+		assertEquals(1, scanner.nextInt());
+		assertEquals(2, fast2.nextInt());
+		assertEquals(3, scanner.nextInt());
+	}
+
+	@Test
+	public void closingOneScannerKeepsTheOthersReading() {
+		setInput("1\n2\n");
+		KeyboardScanner closed = new KeyboardScanner();
+		KeyboardScanner open = new KeyboardScanner();
+		assertEquals(1, closed.nextInt());
+		closed.close();
+		try {
+			closed.nextInt();
+			fail("IllegalStateException expected");
+		} catch (IllegalStateException ex) {
+			// Esperada
+		}
+		assertEquals(2, open.nextInt());
+	}
+
+	@Test
+	public void metricsCountOnlyTheirOwnReads() {
+		setInput("10 20\n30\n");
+		KeyboardScanner metered = new KeyboardScanner();
+		KeyboardScanner other = new KeyboardScanner();
+		metered.enableMetrics();
+		assertEquals(10, metered.nextInt());
+		assertEquals(20, other.nextInt());
+		assertEquals(30, other.nextInt());
+		assertEquals(1, metered.getMetrics().getTokens(TokenType.INT));
+	}
+
+	@Test
+	public void everyIntIsReadOnceFromSeveralThreads() throws InterruptedException {
+		int count = 200_000;
+		StringBuilder input = new StringBuilder();
+		long expected = 0;
+		for (int i = 0; i < count; i++) {
+			input.append(i).append(i % 10 == 9 ? '\n' : ' ');
+			expected += i;
+		}
+		setInput(input.toString());
+		AtomicLong sum = new AtomicLong();
+		AtomicInteger read = new AtomicInteger();
+		Thread[] threads = new Thread[4];
+		for (int i = 0; i < threads.length; i++) {
+			Engine engine = i % 2 == 0 ? Engine.FAST : Engine.SCANNER;
+			threads[i] = new Thread(() -> {
+				KeyboardScanner ks = new KeyboardScanner(engine);
+				try {
+					while (true) {
+						sum.addAndGet(ks.nextInt());
+						read.incrementAndGet();
+					}
+				} catch (NoSuchElementException ex) {
+					// Fin de la entrada
+				}
+			});
+			threads[i].start();
+		}
+		for (Thread thread : threads)
+			thread.join();
+		assertEquals(count, read.get());
+		assertEquals(expected, sum.get());
+	}
+
+}
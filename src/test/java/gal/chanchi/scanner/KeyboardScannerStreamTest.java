@@ -0,0 +1,97 @@
+/*
+Copyright (C) 2021 Santiago González Lago
+
+This program is free software: you can redistribute it and/or modify
+it under the terms of the GNU General Public License as published by
+the Free Software Foundation, either version 3 of the License, or
+(at your option) any later version.
+
+This program is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with this program.  If not, see <https://www.gnu.org/licenses/>.
+*/
+
+
+package gal.chanchi.scanner;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.InputMismatchException;
+import java.util.Spliterator;
+
+import org.junit.Test;
+
+/**
+ * Pruebas de los streams de valores primitivos
+ *
+ * @author Santiago González Lago
+ */
+public class KeyboardScannerStreamTest {
+
+	private static String numbers(int count) {
+		StringBuilder input = new StringBuilder();
+		for (int i = 1; i <= count; i++)
+			input.append(i).append(i % 10 == 0 ? '\n' : ' ');
+		return input.toString();
+	}
+
+	@Test
+	public void streamsReadUntilTheEndOfInput() {
+		for (Engine engine : Engine.values()) {
+			String input = numbers(10_000);
+			assertEquals(50_005_000, new KeyboardScanner(InputSource.of(input), 1, engine).ints().sum());
+			assertEquals(10_000, new KeyboardScanner(InputSource.of(input), 1, engine).longs().max().getAsLong());
+			assertEquals(5000.5, new KeyboardScanner(InputSource.of(input), 1, engine).doubles().average()
+					.getAsDouble(), 0);
+			assertEquals(0, new KeyboardScanner(InputSource.of(" \n"), 1, engine).ints().count());
+		}
+	}
+
+	@Test
+	public void streamsOnlyReadTheValuesTheyNeed() {
+		for (Engine engine : Engine.values()) {
+			KeyboardScanner ks = new KeyboardScanner(InputSource.of(numbers(100)), 1, engine);
+			assertArrayEquals(new int[] { 1, 2, 3 }, ks.ints().limit(3).toArray());
+			assertEquals(4, ks.nextInt());
+			assertArrayEquals(new long[] { 5, 6 }, ks.longs().limit(2).toArray());
+			assertEquals(7, ks.nextDouble(), 0);
+		}
+	}
+
+	@Test
+	public void everyValueGetsTheAttemptsOfTheTypedRead() {
+		for (Engine engine : Engine.values()) {
+			// Como en nextInt(), un fallo descarta el resto de la línea actual
+			KeyboardScanner ks = new KeyboardScanner(InputSource.of("1 2 x 9\n3\n4 y\n4.5\n"), 2, engine);
+			assertEquals(6, ks.ints().limit(3).sum());
+			assertEquals(4, ks.nextInt());
+			assertEquals(4.5, ks.doubles().sum(), 0);
+			ks = new KeyboardScanner(InputSource.of("1 x\ny\n2\n"), 2, engine);
+			try {
+				ks.longs().sum();
+				fail();
+			} catch (InputMismatchException e) {
+				// Esperada
+			}
+		}
+	}
+
+	@Test
+	public void spliteratorsAreOrderedAndNotSized() {
+		KeyboardScanner ks = new KeyboardScanner(InputSource.of("1"));
+		for (Spliterator<?> spliterator : new Spliterator<?>[] { ks.ints().spliterator(),
+				ks.longs().spliterator(), ks.doubles().spliterator() }) {
+			assertTrue(spliterator.hasCharacteristics(Spliterator.ORDERED | Spliterator.NONNULL));
+			assertFalse(spliterator.hasCharacteristics(Spliterator.SIZED));
+		}
+	}
+
+}
@@ -0,0 +1,89 @@
+/*
+Copyright (C) 2021 Santiago González Lago
+
+This program is free software: you can redistribute it and/or modify
+it under the terms of the GNU General Public License as published by
+the Free Software Foundation, either version 3 of the License, or
+(at your option) any later version.
+
+This program is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with this program.  If not, see <https://www.gnu.org/licenses/>.
+*/
+
+
+package gal.chanchi.scanner;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.io.PipedInputStream;
+import java.io.PipedOutputStream;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+
+import org.junit.Test;
+
+/**
+ * Pruebas de las lecturas con plazo con todos los motores
+ *
+ * @author Santiago González Lago
+ */
+public class KeyboardScannerTimeoutTest {
+	private static final Duration SHORT = Duration.ofMillis(50);
+	private static final Duration LONG = Duration.ofSeconds(10);
+
+	private static void assertTimeout(Runnable read) {
+		try {
+			read.run();
+			fail("InputTimeoutException expected");
+		} catch (InputTimeoutException ex) {
+			// Esperada
+		}
+	}
+
+	private static void timedReads(Engine engine, Charset charset) throws IOException {
+		PipedOutputStream out = new PipedOutputStream();
+		KeyboardScanner ks = new KeyboardScanner(InputSource.of(new PipedInputStream(out), charset), 1, engine);
+		try {
+			out.write("12\n".getBytes(charset));
+			assertEquals(12, ks.nextInt(LONG));
+			assertTimeout(() -> ks.nextInt(SHORT));
+			// Un token a medias se conserva entre plazos
+			out.write("3".getBytes(charset));
+			assertTimeout(() -> ks.nextInt(SHORT));
+			out.write("4\n".getBytes(charset));
+			assertEquals(34, ks.nextInt(LONG));
+			out.write("ñu".getBytes(charset));
+			assertTimeout(() -> ks.nextLine(SHORT));
+			out.write("!\n5\n".getBytes(charset));
+			assertEquals("ñu!", ks.nextLine(LONG));
+			assertEquals(5, ks.nextInt());
+		} finally {
+			out.close();
+			ks.close();
+		}
+	}
+
+	@Test
+	public void fastEngine() throws IOException {
+		timedReads(Engine.FAST, StandardCharsets.UTF_8);
+	}
+
+	@Test
+	public void scannerEngine() throws IOException {
+		timedReads(Engine.SCANNER, StandardCharsets.UTF_8);
+	}
+
+	@Test
+	public void fastEngineWithCharsetNotCompatibleWithAscii() throws IOException {
+		timedReads(Engine.FAST, StandardCharsets.UTF_16LE);
+	}
+
+}
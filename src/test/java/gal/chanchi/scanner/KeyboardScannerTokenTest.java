@@ -0,0 +1,138 @@
+/*
+Copyright (C) 2021 Santiago González Lago
+
+This program is free software: you can redistribute it and/or modify
+it under the terms of the GNU General Public License as published by
+the Free Software Foundation, either version 3 of the License, or
+(at your option) any later version.
+
+This program is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with this program.  If not, see <https://www.gnu.org/licenses/>.
+*/
+
+
+package gal.chanchi.scanner;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+import org.junit.Test;
+
+/**
+ * Pruebas de las lecturas de tokens en arrays y buffers del llamador
+ *
+ * @author Santiago González Lago
+ */
+public class KeyboardScannerTokenTest {
+
+	private static KeyboardScanner scanner(String input, Engine engine) {
+		return new KeyboardScanner(InputSource.of(input), 1, engine);
+	}
+
+	private static String string(ByteBuffer bytes) {
+		byte[] copy = new byte[bytes.remaining()];
+		bytes.get(copy);
+		return new String(copy, StandardCharsets.UTF_8);
+	}
+
+	@Test
+	public void byteTokensAreNotDecoded() {
+		for (Engine engine : Engine.values()) {
+			KeyboardScanner ks = scanner("  uno\tcañón\n\n 42 ", engine);
+			byte[] dst = new byte[16];
+			assertEquals(3, ks.nextToken(dst));
+			assertEquals("uno", new String(dst, 0, 3, StandardCharsets.UTF_8));
+			assertEquals(7, ks.nextToken(dst));
+			assertEquals("cañón", new String(dst, 0, 7, StandardCharsets.UTF_8));
+			assertEquals(42, ks.nextInt());
+			try {
+				ks.nextToken(dst);
+				fail("NoSuchElementException expected");
+			} catch (NoSuchElementException ex) {
+				// Esperada
+			}
+		}
+	}
+
+	@Test
+	public void charTokensAreDecoded() {
+		for (Engine engine : Engine.values()) {
+			KeyboardScanner ks = scanner("cañón 7 fin\n", engine);
+			char[] dst = new char[16];
+			assertEquals(5, ks.nextToken(dst));
+			assertEquals("cañón", new String(dst, 0, 5));
+			assertEquals(7, ks.nextInt());
+			assertEquals(3, ks.nextToken(dst));
+			assertEquals("fin", new String(dst, 0, 3));
+		}
+	}
+
+	@Test
+	public void tokensThatDoNotFitAreNotConsumed() {
+		for (Engine engine : Engine.values()) {
+			KeyboardScanner ks = scanner("abcdef ghi", engine);
+			byte[] bytes = new byte[4];
+			char[] chars = new char[4];
+			try {
+				ks.nextToken(bytes);
+				fail("IndexOutOfBoundsException expected");
+			} catch (IndexOutOfBoundsException ex) {
+				// Esperada
+			}
+			try {
+				ks.nextToken(chars);
+				fail("IndexOutOfBoundsException expected");
+			} catch (IndexOutOfBoundsException ex) {
+				// Esperada
+			}
+			assertEquals("abcdef", string(ks.nextTokenSlice()));
+			assertEquals(3, ks.nextToken(chars));
+		}
+	}
+
+	@Test
+	public void slicesAreReadOnlyViewsOfTheToken() {
+		for (Engine engine : Engine.values()) {
+			KeyboardScanner ks = scanner("uno  dos\ntres", engine);
+			ByteBuffer slice = ks.nextTokenSlice();
+			assertTrue(slice.isReadOnly());
+			assertEquals("uno", string(slice));
+			assertEquals("dos", string(ks.nextTokenSlice()));
+			assertEquals("tres", string(ks.nextTokenSlice()));
+			try {
+				ks.nextTokenSlice();
+				fail("NoSuchElementException expected");
+			} catch (NoSuchElementException ex) {
+				// Esperada
+			}
+		}
+	}
+
+	@Test
+	public void tokensLongerThanTheEngineBuffer() {
+		char[] token = new char[200_000];
+		Arrays.fill(token, 'x');
+		token[token.length - 1] = 'y';
+		String input = "a " + new String(token) + " b";
+		for (Engine engine : Engine.values()) {
+			KeyboardScanner ks = scanner(input, engine);
+			char[] dst = new char[token.length];
+			assertEquals(1, ks.nextToken(dst));
+			assertEquals(token.length, ks.nextToken(dst));
+			assertEquals(new String(token), new String(dst));
+			assertEquals("b", string(ks.nextTokenSlice()));
+		}
+	}
+
+}
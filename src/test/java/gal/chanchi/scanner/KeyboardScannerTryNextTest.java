@@ -0,0 +1,145 @@
+/*
+Copyright (C) 2021 Santiago González Lago
+
+This program is free software: you can redistribute it and/or modify
+it under the terms of the GNU General Public License as published by
+the Free Software Foundation, either version 3 of the License, or
+(at your option) any later version.
+
+This program is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with this program.  If not, see <https://www.gnu.org/licenses/>.
+*/
+
+
+package gal.chanchi.scanner;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.InputMismatchException;
+import java.util.OptionalDouble;
+import java.util.OptionalInt;
+import java.util.OptionalLong;
+
+import org.junit.Test;
+
+/**
+ * Pruebas de las lecturas tryNextX y de las comprobaciones hasNextX
+ *
+ * @author Santiago González Lago
+ */
+public class KeyboardScannerTryNextTest {
+
+	private static KeyboardScanner scanner(String input, Engine engine) {
+		return new KeyboardScanner(InputSource.of(input), 1, engine);
+	}
+
+	@Test
+	public void optionalsAreEmptyOnlyAtTheEnd() {
+		for (Engine engine : Engine.values()) {
+			KeyboardScanner ks = scanner("1 2\n3\n", engine);
+			long sum = 0;
+			OptionalInt value;
+			while ((value = ks.tryNextInt()).isPresent())
+				sum += value.getAsInt();
+			assertEquals(6, sum);
+			assertFalse(ks.tryNextLong().isPresent());
+			assertFalse(ks.tryNextDouble().isPresent());
+			ks = scanner("9999999999 0.25\n", engine);
+			assertEquals(OptionalLong.of(9999999999L), ks.tryNextLong());
+			assertEquals(OptionalDouble.of(0.25), ks.tryNextDouble());
+		}
+	}
+
+	@Test
+	public void optionalsStillThrowOnMismatches() {
+		for (Engine engine : Engine.values()) {
+			KeyboardScanner ks = scanner("x\n5\n", engine);
+			try {
+				ks.tryNextInt();
+				fail("InputMismatchException expected");
+			} catch (InputMismatchException ex) {
+				// Esperada
+			}
+			assertEquals(OptionalInt.of(5), ks.tryNextInt());
+		}
+	}
+
+	@Test
+	public void holdersReportEveryStatus() {
+		for (Engine engine : Engine.values()) {
+			KeyboardScanner ks = scanner("7 x\n8000000000\n1e3\n", engine);
+			ValueHolder holder = new ValueHolder();
+			assertEquals(KeyboardScanner.READ, ks.tryNextInt(holder));
+			assertEquals(7, holder.getInt());
+			// El token rechazado se descarta con el resto de su línea
+			assertEquals(KeyboardScanner.MISMATCH, ks.tryNextInt(holder));
+			assertEquals(7, holder.getInt());
+			assertEquals(KeyboardScanner.MISMATCH, ks.tryNextInt(holder));
+			assertEquals(KeyboardScanner.READ, ks.tryNextDouble(holder));
+			assertEquals(1000, holder.getDouble(), 0);
+			assertEquals(KeyboardScanner.END, ks.tryNextLong(holder));
+			assertEquals(KeyboardScanner.END, ks.tryNextDouble(holder));
+		}
+	}
+
+	@Test
+	public void holdersReadUntilTheEnd() {
+		StringBuilder input = new StringBuilder();
+		for (int i = 1; i <= 1000; i++)
+			input.append(i).append(i % 7 == 0 ? '\n' : ' ');
+		for (Engine engine : Engine.values()) {
+			KeyboardScanner ks = scanner(input.toString(), engine);
+			ValueHolder holder = new ValueHolder();
+			long sum = 0;
+			while (ks.tryNextLong(holder) == KeyboardScanner.READ)
+				sum += holder.getLong();
+			assertEquals(500_500, sum);
+		}
+	}
+
+	@Test
+	public void hasNextDoesNotConsumeTheToken() {
+		for (Engine engine : Engine.values()) {
+			KeyboardScanner ks = scanner("12 3000000000 2.5 abc", engine);
+			assertTrue(ks.hasNextInt());
+			assertTrue(ks.hasNextInt());
+			assertTrue(ks.hasNextDouble());
+			assertEquals(12, ks.nextInt());
+			assertFalse(ks.hasNextInt());
+			assertTrue(ks.hasNextLong());
+			assertEquals(3000000000L, ks.nextLong());
+			assertFalse(ks.hasNextLong());
+			assertTrue(ks.hasNextDouble());
+			assertEquals(2.5, ks.nextDouble(), 0);
+			assertFalse(ks.hasNextInt());
+			assertFalse(ks.hasNextLong());
+			assertFalse(ks.hasNextDouble());
+		}
+	}
+
+	@Test
+	public void readsOfAnotherTypeParseTheTokenAgain() {
+		for (Engine engine : Engine.values()) {
+			KeyboardScanner ks = scanner("3000000000\n7\n", engine);
+			assertTrue(ks.hasNextLong());
+			try {
+				ks.nextInt();
+				fail("InputMismatchException expected");
+			} catch (InputMismatchException ex) {
+				// Esperada
+			}
+			assertTrue(ks.hasNextInt());
+			assertEquals(7.0, ks.nextDouble(), 0);
+			assertFalse(ks.hasNextInt());
+		}
+	}
+
+}
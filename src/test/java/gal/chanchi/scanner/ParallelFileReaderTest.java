@@ -0,0 +1,163 @@
+/*
+Copyright (C) 2021 Santiago González Lago
+
+This program is free software: you can redistribute it and/or modify
+it under the terms of the GNU General Public License as published by
+the Free Software Foundation, either version 3 of the License, or
+(at your option) any later version.
+
+This program is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with this program.  If not, see <https://www.gnu.org/licenses/>.
+*/
+
+
+package gal.chanchi.scanner;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.InputMismatchException;
+import java.util.Locale;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.AfterClass;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Pruebas de la lectura en paralelo de ficheros
+ *
+ * @author Santiago González Lago
+ */
+public class ParallelFileReaderTest {
+	private static final ForkJoinPool POOL = new ForkJoinPool(4);
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	@AfterClass
+	public static void shutdownPool() {
+		POOL.shutdown();
+	}
+
+	private Path write(String text, Charset charset) throws IOException {
+		Path file = folder.newFile().toPath();
+		Files.write(file, text.getBytes(charset));
+		return file;
+	}
+
+	/**
+	 * Separadores variados, incluidas secuencias largas de espacios en blanco,
+	 * para que los límites de los bloques caigan tanto dentro de los tokens como
+	 * entre ellos
+	 */
+	private static String join(Object[] values, Random random) {
+		StringBuilder text = new StringBuilder();
+		for (Object value : values) {
+			text.append(value);
+			int separator = random.nextInt(100);
+			if (separator == 0)
+				text.append(" \t\r\n".repeat(1 + random.nextInt(1000)));
+			else
+				text.append(separator < 20 ? '\n' : separator < 25 ? "\r\n" : separator < 30 ? "\t" : " ");
+		}
+		return text.toString();
+	}
+
+	@Test
+	public void valuesKeepTheirOrderAcrossChunks() throws IOException {
+		Random random = new Random(3);
+		int[] ints = random.ints(1_500_000).toArray();
+		long[] longs = random.longs(600_000).toArray();
+		double[] doubles = random.doubles(400_000).map(d -> (d - 0.5) * 1e6).toArray();
+		try (ParallelFileReader reader = new ParallelFileReader(
+				write(join(Arrays.stream(ints).boxed().toArray(), random), StandardCharsets.US_ASCII),
+				StandardCharsets.US_ASCII, POOL)) {
+			assertArrayEquals(ints, reader.readInts());
+		}
+		try (ParallelFileReader reader = new ParallelFileReader(
+				write(join(Arrays.stream(longs).boxed().toArray(), random), StandardCharsets.US_ASCII),
+				StandardCharsets.US_ASCII, POOL)) {
+			assertArrayEquals(longs, reader.readLongs());
+		}
+		try (ParallelFileReader reader = new ParallelFileReader(
+				write(join(Arrays.stream(doubles).boxed().toArray(), random), StandardCharsets.US_ASCII),
+				StandardCharsets.US_ASCII, POOL)) {
+			assertArrayEquals(doubles, reader.readDoubles(), 0);
+		}
+	}
+
+	@Test
+	public void emptyAndBlankFilesHaveNoValues() throws IOException {
+		try (ParallelFileReader reader = new ParallelFileReader(write("", StandardCharsets.US_ASCII),
+				StandardCharsets.US_ASCII, POOL)) {
+			assertEquals(0, reader.readInts().length);
+		}
+		try (ParallelFileReader reader = new ParallelFileReader(write(" \n".repeat(2_000_000), StandardCharsets.US_ASCII),
+				StandardCharsets.US_ASCII, POOL)) {
+			assertEquals(0, reader.readLongs().length);
+		}
+	}
+
+	@Test
+	public void invalidTokensThrowFromAnyChunk() throws IOException {
+		Random random = new Random(5);
+		Object[] values = random.ints(1_000_000, 0, 1000).boxed().toArray();
+		values[values.length - 10] = "x";
+		try (ParallelFileReader reader = new ParallelFileReader(write(join(values, random), StandardCharsets.US_ASCII),
+				StandardCharsets.US_ASCII, POOL)) {
+			reader.readInts();
+			fail("InputMismatchException expected");
+		} catch (InputMismatchException ex) {
+			// Esperada
+		}
+	}
+
+	@Test
+	public void customParsersAndLocales() throws IOException {
+		Random random = new Random(9);
+		int[] ints = random.ints(500_000, 0, Integer.MAX_VALUE).toArray();
+		Object[] hex = Arrays.stream(ints).mapToObj(Integer::toHexString).toArray();
+		try (ParallelFileReader reader = new ParallelFileReader(write(join(hex, random), StandardCharsets.US_ASCII),
+				StandardCharsets.US_ASCII, POOL)) {
+			assertArrayEquals(ints, reader.readInts((token, out) -> {
+				try {
+					out.accept(Integer.parseInt(token.toString(), 16));
+					return true;
+				} catch (NumberFormatException ex) {
+					return false;
+				}
+			}));
+		}
+		try (ParallelFileReader reader = new ParallelFileReader(write("1,5 -2,25\n3", StandardCharsets.US_ASCII),
+				StandardCharsets.US_ASCII, POOL)) {
+			reader.useLocale(Locale.GERMANY);
+			assertArrayEquals(new double[] { 1.5, -2.25, 3 }, reader.readDoubles(), 0);
+		}
+	}
+
+	@Test
+	public void charsetsWithoutSingleByteAsciiAreReadInOneChunk() throws IOException {
+		int[] ints = new Random(11).ints(300_000).toArray();
+		String text = join(Arrays.stream(ints).boxed().toArray(), new Random(12));
+		try (ParallelFileReader reader = new ParallelFileReader(write(text, StandardCharsets.UTF_16),
+				StandardCharsets.UTF_16, POOL)) {
+			assertArrayEquals(ints, reader.readInts());
+		}
+	}
+
+}
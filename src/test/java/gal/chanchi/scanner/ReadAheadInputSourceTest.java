@@ -0,0 +1,225 @@
+/*
+Copyright (C) 2021 Santiago González Lago
+
+This program is free software: you can redistribute it and/or modify
+it under the terms of the GNU General Public License as published by
+the Free Software Foundation, either version 3 of the License, or
+(at your option) any later version.
+
+This program is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with this program.  If not, see <https://www.gnu.org/licenses/>.
+*/
+
+
+package gal.chanchi.scanner;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.Test;
+
+/**
+ * Pruebas de la lectura anticipada
+ *
+ * @author Santiago González Lago
+ */
+public class ReadAheadInputSourceTest {
+	private static final int CHUNK_SIZE = 1 << 16;
+
+	/**
+	 * Fuente que entrega los bytes en bloques de tamaño aleatorio, con pausas
+	 * ocasionales, y que puede fallar al llegar a una posición
+	 */
+	private static final class ChunkedSource implements InputSource {
+		private final byte[] bytes;
+		private final int failAt;
+		private final int maxChunk;
+		private final Random random = new Random(7);
+		private final AtomicLong read = new AtomicLong();
+		private int position;
+		private volatile boolean closed;
+
+		ChunkedSource(byte[] bytes, int failAt) {
+			this(bytes, failAt, 3000);
+		}
+
+		ChunkedSource(byte[] bytes, int failAt, int maxChunk) {
+			this.bytes = bytes;
+			this.failAt = failAt;
+			this.maxChunk = maxChunk;
+		}
+
+		@Override
+		public int read(byte[] buffer, int offset, int length) throws IOException {
+			if (position == failAt)
+				throw new IOException("Source failed");
+			if (position == bytes.length)
+				return -1;
+			int n = Math.min(Math.min(length, 1 + random.nextInt(maxChunk)), bytes.length - position);
+			if (failAt >= position)
+				n = Math.min(n, failAt - position);
+			if (random.nextInt(50) == 0)
+				Thread.yield();
+			System.arraycopy(bytes, position, buffer, offset, n);
+			position += n;
+			read.addAndGet(n);
+			return n;
+		}
+
+		@Override
+		public Charset charset() {
+			return StandardCharsets.US_ASCII;
+		}
+
+		@Override
+		public void close() {
+			closed = true;
+		}
+	}
+
+	private static byte[] numbers(int count) {
+		StringBuilder input = new StringBuilder();
+		for (int i = 1; i <= count; i++)
+			input.append(i).append(i % 10 == 0 ? '\n' : ' ');
+		return input.toString().getBytes(StandardCharsets.US_ASCII);
+	}
+
+	private static byte[] readAll(InputSource source, int length) throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		byte[] buffer = new byte[length];
+		int n;
+		while ((n = source.read(buffer, 0, length)) >= 0)
+			out.write(buffer, 0, n);
+		return out.toByteArray();
+	}
+
+	@Test
+	public void bytesArriveInOrder() throws IOException {
+		byte[] bytes = new byte[5 * CHUNK_SIZE + 123];
+		new Random(1).nextBytes(bytes);
+		for (int length : new int[] { 1, 1000, CHUNK_SIZE, 3 * CHUNK_SIZE }) {
+			ReadAheadInputSource source = new ReadAheadInputSource(new ChunkedSource(bytes, -1));
+			source.start();
+			assertArrayEquals(bytes, readAll(source, length));
+		}
+	}
+
+	@Test
+	public void readsDirectlyUntilStarted() throws IOException {
+		ChunkedSource in = new ChunkedSource(numbers(10), -1);
+		ReadAheadInputSource source = new ReadAheadInputSource(in);
+		assertSame(in, source.direct());
+		byte[] buffer = new byte[4];
+		assertTrue(source.read(buffer, 0, 4) > 0);
+		source.start();
+		assertSame(in, source.direct());
+		source.read(buffer, 0, 4);
+		assertEquals(null, source.direct());
+	}
+
+	@Test
+	public void readerStaysAtMostTwoBlocksAhead() throws IOException, InterruptedException {
+		ChunkedSource in = new ChunkedSource(new byte[20 * CHUNK_SIZE], -1, Integer.MAX_VALUE);
+		ReadAheadInputSource source = new ReadAheadInputSource(in);
+		source.start();
+		byte[] buffer = new byte[CHUNK_SIZE];
+		long consumed = source.read(buffer, 0, 1);
+		Thread.sleep(200);
+		assertTrue(in.read.get() > 0 && in.read.get() <= consumed + 2 * CHUNK_SIZE);
+		// Cada bloque consumido deja al hilo lector leer otro
+		for (int i = 0; i < 5; i++) {
+			consumed += source.read(buffer, 0, CHUNK_SIZE);
+			Thread.sleep(50);
+			assertTrue(in.read.get() <= consumed + 2 * CHUNK_SIZE);
+		}
+		assertTrue(in.read.get() > 2 * CHUNK_SIZE);
+		source.close();
+		assertTrue(in.closed);
+	}
+
+	@Test
+	public void sourceErrorsReachTheConsumer() throws IOException {
+		byte[] bytes = new byte[3 * CHUNK_SIZE];
+		int failAt = 2 * CHUNK_SIZE + 10;
+		ReadAheadInputSource source = new ReadAheadInputSource(new ChunkedSource(bytes, failAt));
+		source.start();
+		byte[] buffer = new byte[100];
+		long read = 0;
+		try {
+			int n;
+			while ((n = source.read(buffer, 0, buffer.length)) >= 0)
+				read += n;
+			fail("IOException expected");
+		} catch (IOException ex) {
+			assertEquals("Source failed", ex.getMessage());
+		}
+		assertEquals(failAt, read);
+	}
+
+	@Test
+	public void interruptedConsumersStopWaiting() throws IOException {
+		InputSource blocked = new InputSource() {
+			@Override
+			public int read(byte[] buffer, int offset, int length) throws IOException {
+				try {
+					Thread.sleep(Long.MAX_VALUE);
+				} catch (InterruptedException ex) {
+					// Nunca entrega ningún byte
+				}
+				return -1;
+			}
+
+			@Override
+			public Charset charset() {
+				return StandardCharsets.US_ASCII;
+			}
+
+			@Override
+			public void close() {
+			}
+		};
+		ReadAheadInputSource source = new ReadAheadInputSource(blocked);
+		source.start();
+		Thread.currentThread().interrupt();
+		try {
+			source.read(new byte[1], 0, 1);
+			fail("InterruptedIOException expected");
+		} catch (InterruptedIOException ex) {
+			assertTrue(Thread.interrupted());
+		}
+	}
+
+	@Test
+	public void scannersReadTheSameValuesWithReadAhead() {
+		int count = 200_000;
+		byte[] bytes = numbers(count);
+		for (Engine engine : Engine.values()) {
+			KeyboardScanner ks = new KeyboardScanner(new ChunkedSource(bytes, -1), 1, engine);
+			// Parte de la entrada se lee antes de activar la lectura anticipada
+			long sum = 0;
+			for (int i = 0; i < 1000; i++)
+				sum += ks.nextInt();
+			ks.enableReadAhead();
+			ks.enableReadAhead();
+			sum += ks.longs().sum();
+			assertEquals((long) count * (count + 1) / 2, sum);
+		}
+	}
+
+}
@@ -0,0 +1,82 @@
+/*
+Copyright (C) 2021 Santiago González Lago
+
+This program is free software: you can redistribute it and/or modify
+it under the terms of the GNU General Public License as published by
+the Free Software Foundation, either version 3 of the License, or
+(at your option) any later version.
+
+This program is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with this program.  If not, see <https://www.gnu.org/licenses/>.
+*/
+
+
+package gal.chanchi.scanner;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assume.assumeNotNull;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+/**
+ * Pruebas del orden de las tareas de {@link SerialExecutor} con cada tipo de
+ * hilo
+ *
+ * @author Santiago González Lago
+ */
+public class SerialExecutorTest {
+	private static final int TASKS = 10_000;
+
+	private static void assertSerial(Executor threads) throws InterruptedException {
+		SerialExecutor executor = new SerialExecutor(threads);
+		List<Integer> order = new ArrayList<>();
+		AtomicInteger running = new AtomicInteger();
+		AtomicBoolean overlapped = new AtomicBoolean();
+		CountDownLatch done = new CountDownLatch(TASKS);
+		for (int i = 0; i < TASKS; i++) {
+			int task = i;
+			executor.execute(() -> {
+				if (running.incrementAndGet() != 1)
+					overlapped.set(true);
+				order.add(task);
+				if (task % 100 == 0)
+					Thread.yield();
+				running.decrementAndGet();
+				done.countDown();
+			});
+		}
+		assertTrue(done.await(30, TimeUnit.SECONDS));
+		assertFalse(overlapped.get());
+		for (int i = 0; i < TASKS; i++)
+			assertEquals(i, (int) order.get(i));
+	}
+
+	@Test
+	public void daemonThreadsRunTheTasksOneByOneInOrder() throws InterruptedException {
+		assertSerial(SerialExecutor.daemonThreads());
+	}
+
+	@Test
+	public void virtualThreadsRunTheTasksOneByOneInOrder() throws InterruptedException {
+		Executor threads = SerialExecutor.virtualThreads();
+		// Sólo en Java 21 o posterior
+		assumeNotNull(threads);
+		assertSerial(threads);
+	}
+
+}
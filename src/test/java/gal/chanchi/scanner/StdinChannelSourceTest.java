@@ -0,0 +1,112 @@
+/*
+Copyright (C) 2021 Santiago González Lago
+
+This program is free software: you can redistribute it and/or modify
+it under the terms of the GNU General Public License as published by
+the Free Software Foundation, either version 3 of the License, or
+(at your option) any later version.
+
+This program is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with this program.  If not, see <https://www.gnu.org/licenses/>.
+*/
+
+
+package gal.chanchi.scanner;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.BufferedReader;
+import java.io.FileDescriptor;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.io.UnsupportedEncodingException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+/**
+ * Pruebas de la fuente que lee directamente el descriptor 0. Como la entrada
+ * estándar del proceso de las pruebas no se puede sustituir, cada prueba lanza
+ * otra máquina virtual y le escribe a través de una tubería
+ *
+ * @author Santiago González Lago
+ */
+public class StdinChannelSourceTest {
+
+	/**
+	 * Suma los enteros de la entrada estándar y escribe el resultado y el número
+	 * de enteros leídos, seguidos de la última línea
+	 *
+	 * @param args El motor de lectura
+	 */
+	public static void main(String[] args) throws UnsupportedEncodingException {
+		KeyboardScanner ks = new KeyboardScanner(InputSource.stdin(StandardCharsets.UTF_8), 1,
+				Engine.valueOf(args[0]));
+		int count = ks.nextInt();
+		long sum = 0;
+		for (int i = 0; i < count; i++)
+			sum += ks.nextInt();
+		PrintStream out = new PrintStream(new FileOutputStream(FileDescriptor.out), true, "UTF-8");
+		out.println(count + " " + sum + " " + ks.nextLine());
+	}
+
+	private static String run(Engine engine, byte[] input, int chunk) throws IOException, InterruptedException {
+		String java = Paths.get(System.getProperty("java.home"), "bin", "java").toString();
+		Process process = new ProcessBuilder(java, "-cp", System.getProperty("java.class.path"),
+				StdinChannelSourceTest.class.getName(), engine.name()).redirectError(ProcessBuilder.Redirect.INHERIT)
+				.start();
+		try (OutputStream out = process.getOutputStream()) {
+			for (int offset = 0; offset < input.length; offset += chunk) {
+				out.write(input, offset, Math.min(chunk, input.length - offset));
+				out.flush();
+			}
+		}
+		String output;
+		try (BufferedReader in = new BufferedReader(
+				new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8))) {
+			output = in.readLine();
+		}
+		if (!process.waitFor(1, TimeUnit.MINUTES)) {
+			process.destroyForcibly();
+			throw new AssertionError("The child process did not finish");
+		}
+		assertEquals(0, process.exitValue());
+		return output;
+	}
+
+	private static byte[] input(int count) {
+		StringBuilder input = new StringBuilder().append(count).append('\n');
+		for (int i = 1; i <= count; i++)
+			input.append(i).append(i % 16 == 0 ? '\n' : ' ');
+		if (count % 16 != 0)
+			input.append('\n');
+		return input.append("fin de la entrada ñ").toString().getBytes(StandardCharsets.UTF_8);
+	}
+
+	@Test
+	public void readsEveryBlockOfALargeInput() throws IOException, InterruptedException {
+		// Más de un buffer de 64 KiB, por lo que hay tokens partidos entre bloques
+		int count = 100_000;
+		for (Engine engine : Engine.values())
+			assertEquals(count + " " + (long) count * (count + 1) / 2 + " fin de la entrada ñ",
+					run(engine, input(count), 1 << 20));
+	}
+
+	@Test
+	public void readsInputWrittenInSmallPieces() throws IOException, InterruptedException {
+		// Cada escritura puede llegar en una lectura distinta de la tubería
+		for (Engine engine : Engine.values())
+			assertEquals("200 20100 fin de la entrada ñ", run(engine, input(200), 7));
+	}
+
+}